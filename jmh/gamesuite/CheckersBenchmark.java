@@ -0,0 +1,172 @@
+package gamesuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.SerializationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the checkers model and AI, run on positions reached
+ * by seeded random play so every run times the same positions.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CheckersBenchmark {
+
+	/** Seed for every position used. */
+	static final long SEED = 20170401;
+	/** Number of positions played into. */
+	static final int POSITIONS = 32;
+	/** Random moves played to reach a position. */
+	static final int OPENING_PLIES = 12;
+	/** Depth searched by the AI. */
+	static final int DEPTH = 6;
+
+	/**
+	 * Positions taken in turn by the benchmarks that leave them as
+	 * they were.
+	 */
+	@State(Scope.Thread)
+	public static class Positions {
+		/** Positions to play on. */
+		private List<CheckersModel> list;
+		/** Index of the next position. */
+		private int next;
+
+		/**
+		 * Builds the positions.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			list = positions();
+		}
+
+		/**
+		 * Gets the next position, going round the list.
+		 * @return The position.
+		 */
+		CheckersModel next() {
+			CheckersModel m = list.get(next);
+			next = (next + 1) % list.size();
+			return m;
+		}
+	}
+
+	/**
+	 * The AI and a fresh copy of a position for each move it chooses,
+	 * with the table cleared, so every search starts the same way.
+	 * The copy is not timed, but its allocation is counted by the gc
+	 * profiler with the search's.
+	 */
+	@State(Scope.Thread)
+	public static class Search {
+		/** Positions to search. */
+		private List<CheckersModel> list;
+		/** Index of the next position. */
+		private int next;
+		/** AI searching on one thread to a fixed depth. */
+		private CheckersAI ai;
+
+		/**
+		 * Builds the positions and the AI.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			list = positions();
+			ai = new CheckersAI(new CheckersModel());
+			//The first move of the AI is random, so it is played here.
+			ai.yourMove();
+			ai.setThreads(1);
+			ai.setTimeBudget(0);
+			ai.setMaxDepth(DEPTH);
+			ai.setTable(1, ReplacementPolicy.AGED);
+		}
+
+		/**
+		 * Gives the AI a copy of the next position and clears its table.
+		 */
+		@Setup(Level.Invocation)
+		public void nextPosition() {
+			ai.getTable().clear();
+			ai.setModel(SerializationUtils.clone(list.get(next)));
+			next = (next + 1) % list.size();
+		}
+	}
+
+	/**
+	 * Times move generation: the moves of the player to move are found
+	 * again from the board, as they are after every move.
+	 * @param p Positions.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	public void findMoves(final Positions p, final Blackhole bh) {
+		bh.consume(p.next().regenerateMoves());
+	}
+
+	/**
+	 * Times making a move in place and taking it back, as the search
+	 * does at every node. Making the move also finds the moves of the
+	 * next player.
+	 * @param p Positions.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	public void applyAndUndoMove(final Positions p, final Blackhole bh) {
+		CheckersModel m = p.next();
+		m.applyMove(m.getMoveList().get(0));
+		bh.consume(m.getMoveList().size());
+		m.undoMove();
+	}
+
+	/**
+	 * Times the AI choosing a move at a fixed depth.
+	 * @param s AI and position.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void yourMove(final Search s, final Blackhole bh) {
+		s.ai.yourMove();
+		bh.consume(s.ai.getNodesSearched());
+	}
+
+	/**
+	 * Builds positions by seeded random play.
+	 * @return Positions where the player to move has moves.
+	 */
+	static List<CheckersModel> positions() {
+		List<CheckersModel> list = new ArrayList<CheckersModel>();
+		Random rand = new Random(SEED);
+		while (list.size() < POSITIONS) {
+			CheckersModel m = new CheckersModel();
+			for (int i = 0; i < OPENING_PLIES
+					&& !m.getMoveList().isEmpty(); i++) {
+				List<Move> moves = m.getMoveList();
+				m.makeMove(moves.get(rand.nextInt(moves.size())));
+			}
+			if (!m.getMoveList().isEmpty()) {
+				list.add(m);
+			}
+		}
+		return list;
+	}
+}
@@ -0,0 +1,218 @@
+package gamesuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.SerializationUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the Othello game and AI, run on positions reached by
+ * seeded random play so every run times the same positions. Each one
+ * runs on the 8 by 8 board, which uses bitboards, and on the 16 by 16
+ * board, which scans the frontier.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class OthelloBenchmark {
+
+	/** Seed for every position used. */
+	static final long SEED = 20170401;
+	/** Number of positions played into. */
+	static final int POSITIONS = 32;
+	/** Random moves played to reach a position. */
+	static final int OPENING_PLIES = 12;
+	/** Depth searched by the AI. */
+	static final int DEPTH = 6;
+
+	/**
+	 * Positions taken in turn by the benchmarks that leave them as
+	 * they were.
+	 */
+	@State(Scope.Thread)
+	public static class Positions {
+		/** Size of the board. */
+		@Param({"8", "16"})
+		int size;
+		/** Positions to play on. */
+		private List<Othello> list;
+		/** Index of the next position. */
+		private int next;
+
+		/**
+		 * Builds the positions.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			list = positions(size);
+		}
+
+		/**
+		 * Gets the next position, going round the list.
+		 * @return The position.
+		 */
+		Othello next() {
+			Othello o = list.get(next);
+			next = (next + 1) % list.size();
+			return o;
+		}
+	}
+
+	/**
+	 * A copy of one of the positions, played on to the end of its game.
+	 * The game has no way to take a move back, so the next position is
+	 * copied when a game ends. The copy is not timed, but its
+	 * allocation is counted by the gc profiler, spread over every move
+	 * of the game.
+	 */
+	@State(Scope.Thread)
+	public static class Games {
+		/** Size of the board. */
+		@Param({"8", "16"})
+		int size;
+		/** Positions copied. */
+		private List<Othello> list;
+		/** Index of the next position. */
+		private int next;
+		/** Copy being played on. */
+		private Othello game;
+
+		/**
+		 * Builds the positions.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			list = positions(size);
+		}
+
+		/**
+		 * Copies the next position if there is no game yet or the last
+		 * one has ended.
+		 */
+		@Setup(Level.Invocation)
+		public void nextGame() {
+			if (game == null || game.isGameOver()
+					|| game.getMoveList().isEmpty()) {
+				game = SerializationUtils.clone(list.get(next));
+				next = (next + 1) % list.size();
+			}
+		}
+	}
+
+	/**
+	 * The AI and a fresh copy of a position for each move it chooses.
+	 * The copy is not timed, but its allocation is counted by the gc
+	 * profiler with the search's.
+	 */
+	@State(Scope.Thread)
+	public static class Search {
+		/** Size of the board. */
+		@Param({"8", "16"})
+		int size;
+		/** Positions to search. */
+		private List<Othello> list;
+		/** Index of the next position. */
+		private int next;
+		/** AI searching to a fixed depth. */
+		private OthelloAI ai;
+
+		/**
+		 * Builds the positions and the AI.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			list = positions(size);
+			ai = new OthelloAI(list.get(0));
+			//The first move of the AI is random, so it is played here.
+			ai.setModel(SerializationUtils.clone(list.get(0)));
+			ai.yourMove();
+			ai.setTimeBudget(0);
+			ai.setMaxDepth(DEPTH);
+		}
+
+		/**
+		 * Gives the AI a copy of the next position.
+		 */
+		@Setup(Level.Invocation)
+		public void nextPosition() {
+			ai.setModel(SerializationUtils.clone(list.get(next)));
+			next = (next + 1) % list.size();
+		}
+	}
+
+	/**
+	 * Times move generation: the moves of the player to move are found
+	 * again from the board, as they are after every move.
+	 * @param p Positions.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	public void findMoves(final Positions p, final Blackhole bh) {
+		bh.consume(p.next().regenerateMoves());
+	}
+
+	/**
+	 * Times making a move, which also finds the moves of the next
+	 * player.
+	 * @param g Game to play on.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	public void makeMove(final Games g, final Blackhole bh) {
+		Othello o = g.game;
+		bh.consume(o.makeMove(o.getMoveList().get(0)));
+		bh.consume(o.getMoveList().size());
+	}
+
+	/**
+	 * Times the AI choosing a move at a fixed depth.
+	 * @param s AI and position.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void yourMove(final Search s, final Blackhole bh) {
+		s.ai.yourMove();
+		bh.consume(s.ai.getNodesSearched());
+	}
+
+	/**
+	 * Builds positions by seeded random play.
+	 * @param n Size of the board.
+	 * @return Positions where the player to move has moves.
+	 */
+	static List<Othello> positions(final int n) {
+		List<Othello> list = new ArrayList<Othello>();
+		Random rand = new Random(SEED);
+		while (list.size() < POSITIONS) {
+			Othello o = new Othello(n);
+			List<OthelloMove> moves = o.getMoveList();
+			for (int i = 0; i < OPENING_PLIES && !moves.isEmpty(); i++) {
+				o.makeMove(moves.get(rand.nextInt(moves.size())));
+				moves = o.getMoveList();
+			}
+			if (!o.getMoveList().isEmpty() && !o.isGameOver()) {
+				list.add(o);
+			}
+		}
+		return list;
+	}
+}
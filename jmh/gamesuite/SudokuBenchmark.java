@@ -0,0 +1,208 @@
+package gamesuite;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the sudoku generator, solvers and rater, run on
+ * puzzles generated from fixed seeds and on published hard puzzles.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SudokuBenchmark {
+
+	/** Seed for every puzzle generated. */
+	static final long SEED = 20170401;
+	/** Number of puzzles generated. */
+	static final int PUZZLES = 32;
+	/** Squares removed from the generated puzzles. */
+	static final int REMOVED = 50;
+	/** Squares removed from the generated hard puzzles. */
+	static final int HARD_REMOVED = 64;
+	/** Sudoku puzzle that singles cannot finish, row by row. */
+	static final String HARD = "100007090030020008009600500"
+			+ "005300900010080002600004000300000010040000007007000300";
+	/** Published puzzles made to be hard, row by row. */
+	static final String[] HARDEST = {HARD,
+		"800000000003600000070090200050007000000045700000100030001000068"
+			+ "008500010090000400",
+		"000000039000001005003050800008090006070002000100400000009080050"
+			+ "020000600400700000",
+		"000000012000000003002300400001800005060070800000009000008500000"
+			+ "900040500470006000",
+		"100000002090400050006000700050903000000070000000850040700000600"
+			+ "030009080002000001",
+		"000000010400000000020000000000050407008000300001090000300400200"
+			+ "050100000000806000"};
+
+	/**
+	 * Puzzles and solvers, with the puzzles taken in turn.
+	 */
+	@State(Scope.Thread)
+	public static class Puzzles {
+		/** Generated puzzles. */
+		private int[][][] generated;
+		/** Generated puzzles with more squares removed. */
+		private int[][][] hard;
+		/** Published hard puzzles. */
+		private int[][][] hardest;
+		/** Board the backtracking solver fills. */
+		private int[][] board;
+		/** Index of the next puzzle. */
+		private int next;
+		/** Backtracking solver. */
+		private SudokuSolver solver;
+		/** Dancing links solver. */
+		private SudokuDancingLinks links;
+		/** Technique based rater. */
+		private SudokuRater rater;
+		/** Seeded game generating puzzles. */
+		private SudokuLogic logic;
+
+		/**
+		 * Builds the puzzles and the solvers.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			generated = new int[PUZZLES][][];
+			hard = new int[PUZZLES][][];
+			for (int i = 0; i < PUZZLES; i++) {
+				generated[i] = puzzle(new SudokuLogic(REMOVED, SEED + i));
+				hard[i] = puzzle(new SudokuLogic(HARD_REMOVED, SEED + i));
+			}
+			hardest = new int[HARDEST.length][][];
+			for (int p = 0; p < hardest.length; p++) {
+				hardest[p] = board(HARDEST[p]);
+			}
+			board = new int[9][9];
+			solver = new SudokuSolver();
+			links = new SudokuDancingLinks();
+			rater = new SudokuRater();
+			logic = new SudokuLogic(REMOVED, SEED);
+		}
+
+		/**
+		 * Gets the index of the next puzzle, going round the list.
+		 * @param count Length of the list taken from.
+		 * @return The index.
+		 */
+		int next(final int count) {
+			next = (next + 1) % count;
+			return next;
+		}
+	}
+
+	/**
+	 * Times solving generated puzzles with singles alone.
+	 * @param p Puzzles.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	public void solveBoard(final Puzzles p, final Blackhole bh) {
+		bh.consume(SudokuLogic.solveBoard(p.generated[p.next(PUZZLES)]));
+	}
+
+	/**
+	 * Times solving a puzzle that needs backtracking. The solver fills
+	 * the board, so the puzzle is copied onto it first.
+	 * @param p Puzzles.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	public void backtrack(final Puzzles p, final Blackhole bh) {
+		for (int r = 0; r < 9; r++) {
+			System.arraycopy(p.hardest[0][r], 0, p.board[r], 0, 9);
+		}
+		bh.consume(p.solver.solve(p.board));
+		bh.consume(p.solver.getGuesses());
+	}
+
+	/**
+	 * Times checking that the hard puzzles have one solution with the
+	 * backtracking solver, which takes a full search of each.
+	 * @param p Puzzles.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	public void countSolutions(final Puzzles p, final Blackhole bh) {
+		bh.consume(p.solver.countSolutions(
+				p.hardest[p.next(HARDEST.length)], 2));
+	}
+
+	/**
+	 * Times checking that the hard puzzles have one solution with
+	 * dancing links.
+	 * @param p Puzzles.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	public void countSolutionsLinks(final Puzzles p, final Blackhole bh) {
+		bh.consume(p.links.countSolutions(
+				p.hardest[p.next(HARDEST.length)], 2));
+	}
+
+	/**
+	 * Times rating generated hard puzzles.
+	 * @param p Puzzles.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	public void rate(final Puzzles p, final Blackhole bh) {
+		bh.consume(p.rater.rate(p.hard[p.next(PUZZLES)]));
+	}
+
+	/**
+	 * Times generating a puzzle from a seeded game.
+	 * @param p Puzzles.
+	 * @param bh Consumer of the results.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void generateInitialBoard(final Puzzles p, final Blackhole bh) {
+		bh.consume(p.logic.generateInitialBoard(REMOVED));
+	}
+
+	/**
+	 * Copies the initial board of a game.
+	 * @param logic Game to copy.
+	 * @return The board, 0 for an empty square.
+	 */
+	static int[][] puzzle(final SudokuLogic logic) {
+		int[][] puzzle = new int[9][9];
+		for (int r = 0; r < 9; r++) {
+			for (int c = 0; c < 9; c++) {
+				puzzle[r][c] = logic.getNumber(r, c);
+			}
+		}
+		return puzzle;
+	}
+
+	/**
+	 * Reads a board written row by row.
+	 * @param s Digits of the board, 0 for an empty square.
+	 * @return The board.
+	 */
+	static int[][] board(final String s) {
+		int[][] board = new int[9][9];
+		for (int k = 0; k < s.length(); k++) {
+			board[k / 9][k % 9] = s.charAt(k) - '0';
+		}
+		return board;
+	}
+}
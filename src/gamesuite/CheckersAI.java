@@ -1,25 +1,34 @@
 package gamesuite;
 
 import java.util.ArrayList;
-import org.apache.commons.lang3.SerializationUtils;
+import java.util.List;
 
 /**
  * AI implementation for Checkers game. The class utilizes
- * Minimax algorithms to generate the appropriate move at the 
+ * an alpha-beta search, run on as many threads as there are
+ * processors, to generate the appropriate move at the 
  * designated skill level for the AI. 
  * @author Daniel Cummings
  * @version 0.1
  */
 public class CheckersAI {
 
-	/** MinMax tree for moves in checkers game. */
-	private Node<Move> minmax;
-	/** Determines the color of pieces for the AI. */
-	private static Player color = Player.BLACK;
+	/** Search used to pick the AI's moves. */
+	private CheckersParallelSearch search;
+	/** Number of threads the search runs on. */
+	private int threads;
+	/** Results of positions searched, kept between moves. */
+	private CheckersTranspositionTable table;
+	/** Default memory budget of the transposition table. */
+	private static final int TABLE_MEGABYTES = 16;
 	/** Model being used for evaluation. */
 	private CheckersModel model;
-	/** Sets the maximum depth the move search tree will go. */
-	private static int maxDepth = 4;
+	/** Sets the maximum depth the move search will go. */
+	private int maxDepth;
+	/** Time in milliseconds the AI may think about each move. */
+	private long timeBudget;
+	/** Default time the AI may think about each move. */
+	private static final long DEFAULT_BUDGET = 1000;
 	/** Whether the it is the first move of the game. */
 	private boolean firstMove;
 	
@@ -29,9 +38,13 @@ public class CheckersAI {
 	 * @param m Model for the AI to use.
 	 */
 	public CheckersAI(final CheckersModel m) {
-		this.minmax = new Node<Move>(null, null);
+		this.table = new CheckersTranspositionTable(TABLE_MEGABYTES);
+		this.threads = Runtime.getRuntime().availableProcessors();
+		this.search = new CheckersParallelSearch(this.table, this.threads);
 		this.model = m;
 		this.firstMove = true;
+		this.maxDepth = CheckersSearch.MAX_PLY;
+		this.timeBudget = DEFAULT_BUDGET;
 	}
 	
 	/**
@@ -44,281 +57,88 @@ public class CheckersAI {
 			int rand = (int) (Math.random() * (moves.size() - 1));
 			Move disMove = moves.get(rand);
 			this.model.makeMove(disMove);
-			minmax.clear();
 			this.firstMove = false;
 			return;
 		}
-		//Create the tree.
-		this.generateTree(1, minmax, model);
-		//Node to contain the best move.
-		Node<Move> disMove = new Node<Move>(null, null);
-		//List of all nodes connected to min-max.
-		ArrayList<Node<Move>> moves =
-				(ArrayList<Node<Move>>) minmax.getLeaves();
-		//Heads down each subtree evaluating for min-max and
-		//setting each nodes value to the max of that subtree.
-		moves.parallelStream().forEachOrdered(
-				e -> e.setValue(miniMaxDatTree(e, 1)));
-		int max = Integer.MIN_VALUE;
-		//Find the maximum for possible moves this turn.
-		for (Node<Move> m : moves) {
-			if (m.getValue() == max) {
-				if (Math.random() > .5) {
-					disMove = m;
-				}
-			} else if (m.getValue() > max) {
-				disMove = m;
-			}
+		//Searches deeper each pass until the time budget is spent.
+		this.search.search(this.model, this.maxDepth, this.timeBudget);
+		Move disMove = this.search.getBestMove();
+		if (disMove != null) {
+			this.model.makeMove(disMove);
 		}
-		this.model.makeMove(disMove.getData());
-		minmax.clear();
 	}
-	
+
 	/**
-	 * Helper method that implements a minimax algorithm
-	 * to evaluate the given tree for the best possible
-	 * move the AI has. Once the subtree has been evaluated the
-	 * nodes value is returned to the caller.
-	 * @param r Root node for the subtree being evaluated.
-	 * @param depth The depth of the current subtree.
-	 * @return The value of the node if r is a leaf or the depth has
-	 * been reached. Otherwise returns either the max or minimum value
-	 * of the nodes in the subtree of r depending on the depth.
+	 * Getter method for the line of play expected by the last search.
+	 * @return Principal variation, the AI's move first.
 	 */
-	private int miniMaxDatTree(final Node<Move> r, final int depth) {
-		if (r.isLeaf()) {
-			return r.getValue();
-		}
-		ArrayList<Node<Move>> evalList =
-				(ArrayList<Node<Move>>) r.getLeaves();
-		//max
-		if ((depth & 1) == 1) {
-			int value = Integer.MIN_VALUE;
-			int max = Integer.MIN_VALUE;
-			for (Node<Move> m : evalList) {
-				value = miniMaxDatTree(m, depth + 1);
-				if (value == max) {
-					if (Math.random() > 0.5) {
-						max = value;
-					}
-				} else if (value > max) {
-					max = value;
-				}
-			}
-			return max;
-		} else {
-			int value = Integer.MAX_VALUE;
-			int min = Integer.MAX_VALUE;
-			for (Node<Move> m : evalList) {
-				value = miniMaxDatTree(m, depth + 1);
-				if (value == min) {
-					if (Math.random() > 0.5) {
-						min = value;
-					}
-				} else if (value < min) {
-					min = value;
-				}
-			}
-			return min;
-		}
+	public List<Move> getPrincipalVariation() {
+		return this.search.getPrincipalVariation();
 	}
-	
+
 	/**
-	 * Constructs move tree for current turn.
-	 * @param depth Depth of the tree
-	 * @param r Root node of the tree
-	 * @param mod Game state.
+	 * Getter method for the depth the last search completed.
+	 * @return Number of moves looked ahead for the last move.
 	 */
-	private void generateTree(final int depth, final Node<Move> r,
-			final CheckersModel mod) {
-		CheckersModel hold;
-		ArrayList<Move> list = mod.getMoveList();
-		if (depth < CheckersAI.maxDepth) {
-			//Adds moves for the turn on the tree.
-			list.stream().forEach(e -> r.addleaf(e));
-			//Iterates over the list to evaluate response moves to
-			// each move in the list.
-			Move m = null;
-			for (int i = 0; i < list.size(); i++) {
-				hold = SerializationUtils.clone(mod);
-				m = list.get(i);
-				//Puts model in the status after the move.
-				hold.makeMove(m);
-				//Recursively moves to the next level in the
-				//tree.
-				this.generateTree(depth + 1,
-						r.getleaf(m), hold);
-				//Returns model to the status of before move.
-			}
-		} else if (depth == CheckersAI.maxDepth) {
-			list.stream().forEach(e -> r.addleaf(e));
-			//Applies static analysis to each board and sets the
-			//value of the board into the node.
-			list.stream().forEach(
-					e -> r.getleaf(e).setValue(
-							analyzeStaticBoard(
-					mod.getResultBoard(e))));
-			
-		} else {
-			return;
-		}
+	public int getDepthReached() {
+		return this.search.getDepthReached();
 	}
-	
+
 	/**
-	 * Method to analyze the given board on a function which returns the 
-	 * boards value to the caller.
-	 * @param board The board to apply the function against.
-	 * @return The derived value of the given board.
+	 * Setter method for the time the AI may think about each move.
+	 * The best move of the deepest search finished in time is played.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
 	 */
-	private int analyzeStaticBoard(final CheckersPiece[][] board) {
-		int posVal = 0;
-		int negVal = 0;
-		int locVal = 0;
-		CheckersPiece temp;
-		
-		for (int x = 0; x < board.length; x++) {
-			for (int y = 0; y < board.length; y++) {
-				if (board[x][y] != null) {
-					locVal = (Math.abs((x + 1) - 4)
-							+ Math.abs((y + 1) - 4))
-							/ 2;
-					//Average distance to the center.
-					temp = board[x][y];
-					if (temp.getOwner()
-							!= CheckersAI.color) {
-						posVal +=
-						calcPos(board, x, y);
-						posVal += locVal + x;
-						if (temp.isKinged()) {
-							posVal += 2;
-						} else {
-							posVal += 1;
-						}
-					} else {
-						negVal += locVal + (7 - x);
-						negVal += 
-						calcPos(board, x, y);
-						if (temp.isKinged()) {
-							negVal += 2;
-						} else {
-							negVal += 1;
-						}
-					}
-				}
-			}
-		}
-		return (posVal - negVal);
+	public void setTimeBudget(final long millis) {
+		this.timeBudget = millis;
 	}
-	
+
 	/**
-	 * Helper method to check whether the piece at that location
-	 * can be jumped.
-	 * @param board Current board state.
-	 * @param x Vertical position of the piece on the board.
-	 * @param y Horizontal position of the piece on the board.
-	 * @return Weighted value for whether the piece can be jumped.
+	 * Setter method for the deepest the AI will search.
+	 * @param depth Maximum number of moves to look ahead.
 	 */
-	private int calcPos(final CheckersPiece[][] 
-			board, final int x, final int y) {
-		//If piece is near the edges then it is safe.
-		if ((x < 1 || x > 6) || (y < 1 || y > 6)) {
-			return 4;
-		}
-		int total = 0;
-		if (board[x][y].getOwner() == CheckersAI.color) {
-			if (board[x - 1][y - 1] != null
-					&& board[x - 1][y - 1].getOwner()
-					== CheckersAI.color) {
-				total += 1;
-			} else {
-				if (board[x][y].isKinged()) {
-					total += 1;
-				} else {
-					total -= 2;
-				}
-			}
-			if (board[x - 1][y + 1] != null
-					&& board[x - 1][y + 1].getOwner()
-					== CheckersAI.color) {
-				total += 1;
-			} else {
-				if (board[x][y].isKinged()) {
-					total += 1;
-				} else {
-					total -= 2;
-				}
-			}
-			if (board[x + 1][y + 1] != null
-					&& board[x + 1][y + 1].getOwner()
-					== CheckersAI.color) {
-				total += 1;
-			} else {
-				if (board[x][y].isKinged()) {
-					total += 1;
-				} else {
-					total -= 1;
-				}
-			}
-			if (board[x + 1][y - 1] != null
-					&& board[x + 1][y - 1].getOwner()
-					== CheckersAI.color) {
-				total += 1;
-			} else {
-				if (board[x][y].isKinged()) {
-					total += 1;
-				} else {
-					total -= 1;
-				}
-			}
-		} else {
-			if (board[x + 1][y - 1] != null
-					&& board[x + 1][y - 1].getOwner()
-					!= CheckersAI.color) {
-				total += 1;
-			} else {
-				if (board[x][y].isKinged()) {
-					total += 1;
-				} else {
-					total -= 2;
-				}
-			}
-			if (board[x + 1][y + 1] != null
-					&& board[x + 1][y + 1].getOwner()
-					!= CheckersAI.color) {
-				total += 1;
-			} else {
-				if (board[x][y].isKinged()) {
-					total += 1;
-				} else {
-					total -= 2;
-				}
-			}
-			if (board[x - 1][y + 1] != null
-					&& board[x - 1][y + 1].getOwner()
-					!= CheckersAI.color) {
-				total += 1;
-			} else {
-				if (board[x][y].isKinged()) {
-					total += 1;
-				} else {
-					total -= 1;
-				}
-			}
-			if (board[x - 1][y - 1] != null
-					&& board[x - 1][y - 1].getOwner()
-					!= CheckersAI.color) {
-				total += 1;
-			} else {
-				if (board[x][y].isKinged()) {
-					total += 1;
-				} else {
-					total -= 1;
-				}
-			}
-		}
-		return total;
+	public void setMaxDepth(final int depth) {
+		this.maxDepth = depth;
 	}
-	
+
+	/**
+	 * Getter method for the amount of work done by the last search.
+	 * @return Number of positions searched for the last move.
+	 */
+	public long getNodesSearched() {
+		return this.search.getNodes();
+	}
+
+	/**
+	 * Replaces the transposition table with one of the given size
+	 * and replacement policy.
+	 * @param megabytes Memory budget for the table.
+	 * @param p How new results replace older ones.
+	 */
+	public void setTable(final int megabytes, final ReplacementPolicy p) {
+		this.table = new CheckersTranspositionTable(megabytes, p);
+		this.search = new CheckersParallelSearch(this.table, this.threads);
+	}
+
+	/**
+	 * Setter method for the number of threads the AI searches with.
+	 * The threads share the transposition table.
+	 * @param count Number of threads, at least one.
+	 */
+	public void setThreads(final int count) {
+		this.threads = Math.max(1, count);
+		this.search = new CheckersParallelSearch(this.table, this.threads);
+	}
+
+	/**
+	 * Getter method for the transposition table, giving access to
+	 * its hit rate and occupancy.
+	 * @return The AI's transposition table.
+	 */
+	public CheckersTranspositionTable getTable() {
+		return this.table;
+	}
+
 	/**
 	 * Setter method to allow the AI access to the
 	 * current game state.
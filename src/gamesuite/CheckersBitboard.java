@@ -0,0 +1,738 @@
+package gamesuite;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Bitboard representation of a checkers position. The 32 playable
+ * squares are held in three masks (white, black and kings) and moves
+ * are generated with shifts over whole masks, so generating a move list
+ * does not allocate. Square index is (x * 4) + (y / 2) for the dark
+ * squares where (x + y) is even, matching the board used by
+ * CheckersModel. The public surface mirrors CheckersModel so the two
+ * can be used interchangeably and checked against each other.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class CheckersBitboard implements Serializable {
+
+	/** Default serial coding. */
+	private static final long serialVersionUID = 1L;
+	/** Number of playable squares. */
+	public static final int SQUARES = 32;
+	/** Squares on even rows which are not in the first column. */
+	private static final int EVEN_NOT_FIRST = 0x0E0E0E0E;
+	/** Squares on odd rows which are not in the last column. */
+	private static final int ODD_NOT_LAST = 0x70707070;
+	/** Squares on the even rows. */
+	private static final int EVEN_ROWS = 0x0F0F0F0F;
+	/** Squares on the odd rows. */
+	private static final int ODD_ROWS = 0xF0F0F0F0;
+	/** Squares in the first column of each row. */
+	private static final int FIRST_COLUMN = 0x11111111;
+	/** Squares in the last column of each row. */
+	private static final int LAST_COLUMN = 0x88888888;
+	/** Row where black pieces are promoted. */
+	private static final int BLACK_KING_ROW = 0xF0000000;
+	/** Row where white pieces are promoted. */
+	private static final int WHITE_KING_ROW = 0x0000000F;
+	/** Black starting squares. */
+	private static final int BLACK_START = 0x00000FFF;
+	/** White starting squares. */
+	private static final int WHITE_START = 0xFFF00000;
+	/** Diagonal directions, down-left, down-right, up-left, up-right. */
+	private static final int[][] DIRECTIONS =
+		{{1, -1}, {1, 1}, {-1, -1}, {-1, 1}};
+	/** Neighbouring square in each direction, -1 when off the board. */
+	private static final int[][] STEP = new int[4][SQUARES];
+	/** Landing square of a jump in each direction, -1 when off board. */
+	private static final int[][] JUMP = new int[4][SQUARES];
+	/** Initial capacity of the move buffers. */
+	private static final int CAPACITY = 64;
+
+	static {
+		for (int s = 0; s < SQUARES; s++) {
+			int x = getX(s);
+			int y = getY(s);
+			for (int d = 0; d < DIRECTIONS.length; d++) {
+				STEP[d][s] = toSquare(x + DIRECTIONS[d][0],
+						y + DIRECTIONS[d][1]);
+				JUMP[d][s] = toSquare(x + 2 * DIRECTIONS[d][0],
+						y + 2 * DIRECTIONS[d][1]);
+			}
+		}
+	}
+
+	/** Squares holding white pieces. */
+	private int white;
+	/** Squares holding black pieces. */
+	private int black;
+	/** Squares holding kings of either colour. */
+	private int kings;
+	/** The player who is moving this turn. */
+	private Player player;
+	/** Tells whether the game is over or not. */
+	private boolean gameover;
+	/** Tells whether the game is in stalemate. */
+	private boolean stalemate;
+	/** Origin, destination and promotion flag of each move. */
+	private int[] moveData;
+	/** Squares captured by each move. */
+	private int[] moveCaptures;
+	/** Number of moves available on turn. */
+	private int moveCount;
+	/** Length of the longest jump chain found so far. */
+	private int chainLength;
+	/** Move objects for the moves available, built on request. */
+	private transient ArrayList<Move> moves;
+
+	/**
+	 * Constructor for the bitboard which places the pieces
+	 * in their starting squares.
+	 */
+	public CheckersBitboard() {
+		this(WHITE_START, BLACK_START, 0, Player.WHITE);
+	}
+
+	/**
+	 * Constructor for a bitboard holding the given position.
+	 * @param w Squares holding white pieces.
+	 * @param b Squares holding black pieces.
+	 * @param k Squares holding kings.
+	 * @param p Player to move.
+	 */
+	public CheckersBitboard(final int w, final int b, final int k,
+			final Player p) {
+		this.moveData = new int[CAPACITY];
+		this.moveCaptures = new int[CAPACITY];
+		setPosition(w, b, k, p);
+	}
+
+	/**
+	 * Constructor which copies the position held by a model.
+	 * @param m Model to copy the position from.
+	 */
+	public CheckersBitboard(final CheckersModel m) {
+		this.moveData = new int[CAPACITY];
+		this.moveCaptures = new int[CAPACITY];
+		int w = 0;
+		int b = 0;
+		int k = 0;
+		for (int s = 0; s < SQUARES; s++) {
+			CheckersPiece p = m.getPiece(getX(s), getY(s));
+			if (p != null) {
+				if (p.getOwner() == Player.WHITE) {
+					w |= 1 << s;
+				} else {
+					b |= 1 << s;
+				}
+				if (p.isKinged()) {
+					k |= 1 << s;
+				}
+			}
+		}
+		setPosition(w, b, k, m.getPlayer());
+	}
+
+	/**
+	 * Replaces the position and generates its moves.
+	 * @param w Squares holding white pieces.
+	 * @param b Squares holding black pieces.
+	 * @param k Squares holding kings.
+	 * @param p Player to move.
+	 */
+	private void setPosition(final int w, final int b, final int k,
+			final Player p) {
+		this.white = w;
+		this.black = b;
+		this.kings = k;
+		this.player = p;
+		this.gameover = false;
+		this.stalemate = false;
+		generateMoves();
+	}
+
+	/**
+	 * Gets the vertical position of a square.
+	 * @param s Square index.
+	 * @return Row of the square.
+	 */
+	public static int getX(final int s) {
+		return s >> 2;
+	}
+
+	/**
+	 * Gets the horizontal position of a square.
+	 * @param s Square index.
+	 * @return Column of the square.
+	 */
+	public static int getY(final int s) {
+		int x = s >> 2;
+		return ((s & 3) << 1) + (x & 1);
+	}
+
+	/**
+	 * Gets the square index of a board location.
+	 * @param x Vertical position.
+	 * @param y Horizontal position.
+	 * @return Square index, or -1 if the location is not playable.
+	 */
+	public static int toSquare(final int x, final int y) {
+		if (x < 0 || x > 7 || y < 0 || y > 7 || ((x + y) & 1) == 1) {
+			return -1;
+		}
+		return (x << 2) + (y >> 1);
+	}
+
+	/**
+	 * Generates every move for the player to move into the move
+	 * buffers. Jumps are forced and only the longest chains are kept.
+	 */
+	private void generateMoves() {
+		moveCount = 0;
+		moves = null;
+		int own;
+		int opp;
+		if (player == Player.WHITE) {
+			own = white;
+			opp = black;
+		} else {
+			own = black;
+			opp = white;
+		}
+		int empty = ~(white | black);
+		int jumpers = findJumpers(own, opp, empty);
+		if (jumpers != 0) {
+			chainLength = 0;
+			while (jumpers != 0) {
+				int s = Integer.numberOfTrailingZeros(jumpers);
+				jumpers &= jumpers - 1;
+				int bit = 1 << s;
+				jumpChain(s, s, (kings & bit) != 0, false, 0,
+						0, opp, empty | bit);
+			}
+			return;
+		}
+		//Black men move down the board and white men move up.
+		if (player == Player.WHITE) {
+			addDownMoves(own & kings, empty);
+			addUpMoves(own, empty);
+		} else {
+			addDownMoves(own, empty);
+			addUpMoves(own & kings, empty);
+		}
+	}
+
+	/**
+	 * Finds the pieces of the player to move which can jump.
+	 * @param own Squares of the player to move.
+	 * @param opp Squares of the opponent.
+	 * @param empty Empty squares.
+	 * @return Squares of pieces that have a jump available.
+	 */
+	private int findJumpers(final int own, final int opp,
+			final int empty) {
+		int down;
+		int up;
+		if (player == Player.WHITE) {
+			down = own & kings;
+			up = own;
+		} else {
+			down = own;
+			up = own & kings;
+		}
+		//Opponent squares seen from the square behind them.
+		int oppDown3 = opp >>> 3;
+		int oppDown4 = opp >>> 4;
+		int oppDown5 = opp >>> 5;
+		int oppUp3 = opp << 3;
+		int oppUp4 = opp << 4;
+		int oppUp5 = opp << 5;
+		int jumpers = 0;
+		//Jumps down to the left land seven squares on.
+		jumpers |= down & ~FIRST_COLUMN & (empty >>> 7)
+				& ((EVEN_ROWS & oppDown3) | (ODD_ROWS & oppDown4));
+		//Jumps down to the right land nine squares on.
+		jumpers |= down & ~LAST_COLUMN & (empty >>> 9)
+				& ((EVEN_ROWS & oppDown4) | (ODD_ROWS & oppDown5));
+		//Jumps up to the right land seven squares back.
+		jumpers |= up & ~LAST_COLUMN & (empty << 7)
+				& ((EVEN_ROWS & oppUp4) | (ODD_ROWS & oppUp3));
+		//Jumps up to the left land nine squares back.
+		jumpers |= up & ~FIRST_COLUMN & (empty << 9)
+				& ((EVEN_ROWS & oppUp5) | (ODD_ROWS & oppUp4));
+		return jumpers;
+	}
+
+	/**
+	 * Follows every jump chain from a square, recording the chains
+	 * which cannot be continued. Captured pieces leave the board
+	 * straight away and a man reaching the far row carries on as a
+	 * king, as in CheckersModel.
+	 * @param start Square the chain started from.
+	 * @param s Square the piece is on.
+	 * @param king Whether the piece moves as a king.
+	 * @param promoted Whether the piece was crowned during the chain.
+	 * @param length Number of jumps made so far.
+	 * @param captured Squares captured so far.
+	 * @param opp Opponent squares still on the board.
+	 * @param empty Empty squares.
+	 */
+	private void jumpChain(final int start, final int s,
+			final boolean king, final boolean promoted,
+			final int length, final int captured, final int opp,
+			final int empty) {
+		boolean extended = false;
+		int first;
+		int last;
+		if (king) {
+			first = 0;
+			last = 3;
+		} else if (player == Player.BLACK) {
+			first = 0;
+			last = 1;
+		} else {
+			first = 2;
+			last = 3;
+		}
+		int kingRow;
+		if (player == Player.WHITE) {
+			kingRow = WHITE_KING_ROW;
+		} else {
+			kingRow = BLACK_KING_ROW;
+		}
+		for (int d = first; d <= last; d++) {
+			int to = JUMP[d][s];
+			if (to < 0) {
+				continue;
+			}
+			int mid = 1 << STEP[d][s];
+			int land = 1 << to;
+			if ((opp & mid) != 0 && (empty & land) != 0) {
+				extended = true;
+				boolean crown = !king && (land & kingRow) != 0;
+				jumpChain(start, to, king || crown,
+						promoted || crown, length + 1,
+						captured | mid, opp & ~mid,
+						(empty | mid) & ~land);
+			}
+		}
+		if (!extended && length > 0 && length >= chainLength) {
+			if (length > chainLength) {
+				chainLength = length;
+				moveCount = 0;
+			}
+			addMove(start, s, captured, promoted);
+		}
+	}
+
+	/**
+	 * Adds the simple moves of pieces moving down the board.
+	 * @param pieces Squares of the pieces allowed to move down.
+	 * @param empty Empty squares.
+	 */
+	private void addDownMoves(final int pieces, final int empty) {
+		addShifted((pieces << 4) & empty, -4);
+		addShifted(((pieces & EVEN_NOT_FIRST) << 3) & empty, -3);
+		addShifted(((pieces & ODD_NOT_LAST) << 5) & empty, -5);
+	}
+
+	/**
+	 * Adds the simple moves of pieces moving up the board.
+	 * @param pieces Squares of the pieces allowed to move up.
+	 * @param empty Empty squares.
+	 */
+	private void addUpMoves(final int pieces, final int empty) {
+		addShifted((pieces >>> 4) & empty, 4);
+		addShifted(((pieces & EVEN_NOT_FIRST) >>> 5) & empty, 5);
+		addShifted(((pieces & ODD_NOT_LAST) >>> 3) & empty, 3);
+	}
+
+	/**
+	 * Adds a simple move for every destination in the mask.
+	 * @param targets Destination squares.
+	 * @param back Offset from a destination back to its origin.
+	 */
+	private void addShifted(final int targets, final int back) {
+		int kingRow;
+		if (player == Player.WHITE) {
+			kingRow = WHITE_KING_ROW;
+		} else {
+			kingRow = BLACK_KING_ROW;
+		}
+		int t = targets;
+		while (t != 0) {
+			int to = Integer.numberOfTrailingZeros(t);
+			t &= t - 1;
+			int from = to + back;
+			boolean crown = (kings & (1 << from)) == 0
+					&& (kingRow & (1 << to)) != 0;
+			addMove(from, to, 0, crown);
+		}
+	}
+
+	/**
+	 * Stores a move into the move buffers, growing them if needed.
+	 * @param from Origin square.
+	 * @param to Destination square.
+	 * @param captured Squares captured by the move.
+	 * @param crown Whether the moving piece is crowned.
+	 */
+	private void addMove(final int from, final int to,
+			final int captured, final boolean crown) {
+		if (moveCount == moveData.length) {
+			int[] data = new int[moveCount * 2];
+			int[] caps = new int[moveCount * 2];
+			System.arraycopy(moveData, 0, data, 0, moveCount);
+			System.arraycopy(moveCaptures, 0, caps, 0, moveCount);
+			moveData = data;
+			moveCaptures = caps;
+		}
+		int data = from | (to << 5);
+		if (crown) {
+			data |= 1 << 10;
+		}
+		moveData[moveCount] = data;
+		moveCaptures[moveCount] = captured;
+		moveCount++;
+	}
+
+	/**
+	 * Getter method for the number of moves available on turn.
+	 * @return Number of moves available.
+	 */
+	public int getMoveCount() {
+		return this.moveCount;
+	}
+
+	/**
+	 * Gets the origin square of a move in the move buffer.
+	 * @param i Index of the move.
+	 * @return Origin square.
+	 */
+	public int getMoveFrom(final int i) {
+		return moveData[i] & 31;
+	}
+
+	/**
+	 * Gets the destination square of a move in the move buffer.
+	 * @param i Index of the move.
+	 * @return Destination square.
+	 */
+	public int getMoveTo(final int i) {
+		return (moveData[i] >> 5) & 31;
+	}
+
+	/**
+	 * Gets the squares captured by a move in the move buffer.
+	 * @param i Index of the move.
+	 * @return Mask of captured squares.
+	 */
+	public int getMoveCaptures(final int i) {
+		return moveCaptures[i];
+	}
+
+	/**
+	 * Plays the move at the given index of the move buffer and
+	 * generates the moves of the next player.
+	 * @param i Index of the move.
+	 */
+	public void playMove(final int i) {
+		playMove(i, this);
+	}
+
+	/**
+	 * Plays the move at the given index of the move buffer into
+	 * another bitboard, which is given the resulting position and the
+	 * moves of the next player. The bitboard may be this one, otherwise
+	 * this position is left as it was.
+	 * @param i Index of the move.
+	 * @param into Bitboard to hold the resulting position.
+	 */
+	public void playMove(final int i, final CheckersBitboard into) {
+		int data = moveData[i];
+		int from = 1 << (data & 31);
+		int to = 1 << ((data >> 5) & 31);
+		int captured = moveCaptures[i];
+		int w = white;
+		int b = black;
+		int k = kings;
+		//A king may finish a chain on the square it started from.
+		int path = from ^ to;
+		if ((k & from) != 0) {
+			k ^= path;
+		} else if ((data & (1 << 10)) != 0) {
+			k |= to;
+		}
+		k &= ~captured;
+		if (player == Player.WHITE) {
+			w ^= path;
+			b &= ~captured;
+		} else {
+			b ^= path;
+			w &= ~captured;
+		}
+		into.setPosition(w, b, k, opponent(player));
+	}
+
+	/**
+	 * Method to check if a move exists. If it does
+	 * the move is made and the next turn is activated.
+	 * @param m Move that is being made.
+	 * @return True if move can be made.
+	 */
+	public boolean makeMove(final Move m) {
+		int i = findMove(m);
+		if (i < 0) {
+			return false;
+		}
+		playMove(i);
+		this.gameover = this.isGameOver();
+		if (!this.gameover) {
+			this.stalemate = this.isStalemate();
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the first move in the buffer matching the given move.
+	 * @param m Move being searched for.
+	 * @return Index of the move, or -1 if it is not available.
+	 */
+	private int findMove(final Move m) {
+		int from = toSquare(m.getFromX(), m.getFromY());
+		int to = toSquare(m.getToX(), m.getToY());
+		if (from < 0 || to < 0) {
+			return -1;
+		}
+		for (int i = 0; i < moveCount; i++) {
+			if (getMoveFrom(i) == from && getMoveTo(i) == to) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks whether the move list contains the move.
+	 * @param m The move being attempted.
+	 * @return True if the move is available this turn.
+	 */
+	public boolean checkMove(final Move m) {
+		return findMove(m) >= 0;
+	}
+
+	/**
+	 * Checks whether the current player has pieces left.
+	 * @return True if current player has no pieces, false otherwise.
+	 */
+	public boolean isGameOver() {
+		if (player == Player.WHITE) {
+			return white == 0;
+		}
+		return black == 0;
+	}
+
+	/**
+	 * Method returns boolean for whether the game is in stalemate.
+	 * @return True if board is in stalemate, false otherwise.
+	 */
+	private boolean isStalemate() {
+		return moveCount == 0;
+	}
+
+	/**
+	 * Getter method for the stalemate boolean.
+	 * @return True if the game is in stalemate, otherwise false.
+	 */
+	public boolean getStalemate() {
+		return this.stalemate;
+	}
+
+	/**
+	 * Switches the current player.
+	 */
+	public void nextTurn() {
+		if (player == Player.BLACK) {
+			player = Player.WHITE;
+		} else {
+			player = Player.BLACK;
+		}
+	}
+
+	/**
+	 * Method to get the checkers piece at provided index location.
+	 * A new piece object describing the square is returned.
+	 * @param x Vertical index for piece.
+	 * @param y Horizontal index for piece.
+	 * @return The piece at the location, or null if it is empty.
+	 */
+	public CheckersPiece getPiece(final int x, final int y) {
+		int s = toSquare(x, y);
+		if (s < 0) {
+			return null;
+		}
+		return makePiece(white, black, kings, 1 << s);
+	}
+
+	/**
+	 * Builds a piece object for a square of the given masks.
+	 * @param w Squares holding white pieces.
+	 * @param b Squares holding black pieces.
+	 * @param k Squares holding kings.
+	 * @param bit Mask of the square.
+	 * @return Piece on the square, or null if it is empty.
+	 */
+	private static CheckersPiece makePiece(final int w, final int b,
+			final int k, final int bit) {
+		CheckersPiece p;
+		if ((w & bit) != 0) {
+			p = new CheckersPiece(Player.WHITE);
+		} else if ((b & bit) != 0) {
+			p = new CheckersPiece(Player.BLACK);
+		} else {
+			return null;
+		}
+		p.setKinged((k & bit) != 0);
+		return p;
+	}
+
+	/**
+	 * Determines whether or not the piece at that position on
+	 * the board has a move this turn.
+	 * @param x vertical location of piece.
+	 * @param y horizontal location of piece.
+	 * @return True if the piece has a move, false otherwise.
+	 */
+	public boolean hasMove(final int x, final int y) {
+		int s = toSquare(x, y);
+		for (int i = 0; i < moveCount; i++) {
+			if (getMoveFrom(i) == s) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Getter method for the list of moves. The list is built from
+	 * the move buffers the first time it is asked for each turn.
+	 * @return ArrayList of Move objects.
+	 */
+	public ArrayList<Move> getMoveList() {
+		if (moves == null) {
+			moves = new ArrayList<Move>(moveCount);
+			for (int i = 0; i < moveCount; i++) {
+				int from = getMoveFrom(i);
+				int to = getMoveTo(i);
+				moves.add(new Move(getX(from), getY(from),
+						getX(to), getY(to)));
+			}
+		}
+		return moves;
+	}
+
+	/**
+	 * Getter method for the resulting board for the
+	 * provided Move.
+	 * @param m Move to be inspected.
+	 * @return Board for the provided Move object, or null if the
+	 * move is not available.
+	 */
+	public CheckersPiece[][] getResultBoard(final Move m) {
+		int i = findMove(m);
+		if (i < 0) {
+			return null;
+		}
+		CheckersBitboard next = new CheckersBitboard(white, black,
+				kings, player);
+		next.playMove(i);
+		CheckersPiece[][] board = new CheckersPiece[8][8];
+		for (int s = 0; s < SQUARES; s++) {
+			board[getX(s)][getY(s)] = makePiece(next.white,
+					next.black, next.kings, 1 << s);
+		}
+		return board;
+	}
+
+	/**
+	 * Getter method for the current player.
+	 * @return The current player.
+	 */
+	public Player getPlayer() {
+		return this.player;
+	}
+
+	/**
+	 * Getter method for the white pieces.
+	 * @return Mask of squares holding white pieces.
+	 */
+	public int getWhite() {
+		return this.white;
+	}
+
+	/**
+	 * Getter method for the black pieces.
+	 * @return Mask of squares holding black pieces.
+	 */
+	public int getBlack() {
+		return this.black;
+	}
+
+	/**
+	 * Getter method for the kings.
+	 * @return Mask of squares holding kings.
+	 */
+	public int getKings() {
+		return this.kings;
+	}
+
+	/**
+	 * Method for testing the bitboard, using the same test
+	 * positions as CheckersModel.
+	 * @param s String to decide which test type this is.
+	 */
+	public void testSetup(final String s) {
+		int w = 0;
+		int b = 0;
+		int k = 0;
+		Player p = this.player;
+		if (s.equals("Stalemate")) {
+			w = 1 << toSquare(0, 0);
+			b = 1 << toSquare(7, 7);
+		} else if (s.equals("MultiJump1")) {
+			p = opponent(p);
+			b = 1 << toSquare(0, 0);
+			w = (1 << toSquare(1, 1)) | (1 << toSquare(3, 3));
+		} else if (s.equals("MultiJump2")) {
+			p = opponent(p);
+			b = 1 << toSquare(0, 0);
+			k = b;
+			w = (1 << toSquare(1, 1)) | (1 << toSquare(1, 3));
+		} else if (s.equals("MultiJump3")) {
+			p = opponent(p);
+			b = 1 << toSquare(0, 0);
+			k = b;
+			w = (1 << toSquare(1, 1)) | (1 << toSquare(1, 3))
+				| (1 << toSquare(3, 3)) | (1 << toSquare(5, 5));
+		} else {
+			b = 1 << toSquare(0, 0);
+		}
+		setPosition(w, b, k, p);
+		if (s.equals("Stalemate")) {
+			stalemate = isStalemate();
+		}
+	}
+
+	/**
+	 * Gets the opposing player.
+	 * @param p A player.
+	 * @return The other player.
+	 */
+	private static Player opponent(final Player p) {
+		if (p == Player.WHITE) {
+			return Player.BLACK;
+		}
+		return Player.WHITE;
+	}
+}
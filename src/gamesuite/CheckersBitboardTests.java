@@ -0,0 +1,80 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class CheckersBitboardTests {
+	CheckersBitboard board;
+	
+	@Test
+	public void startMovesTest() {
+		board = new CheckersBitboard();
+		assertEquals(7, board.getMoveCount());
+		assertTrue(board.checkMove(new Move(5, 1, 4, 0)));
+		assertFalse(board.checkMove(new Move(2, 0, 3, 1)));
+	}
+	
+	@Test
+	public void forceJumpTest() {
+		board = new CheckersBitboard();
+		board.makeMove(new Move(5, 1, 4, 0));
+		board.makeMove(new Move(2, 2, 3, 1));
+		assertTrue(board.checkMove(new Move(4, 0, 2, 2)));
+		assertFalse(board.checkMove(new Move(5, 3, 4, 2)));
+	}
+	
+	@Test
+	public void multiJumpTest() {
+		board = new CheckersBitboard();
+		board.testSetup("MultiJump1");
+		assertTrue(board.checkMove(new Move(0, 0, 4, 4)));
+		assertEquals(1, board.getMoveCount());
+	}
+	
+	@Test
+	public void multiJumpTest2() {
+		board = new CheckersBitboard();
+		board.testSetup("MultiJump2");
+		assertTrue(board.checkMove(new Move(0, 0, 0, 4)));
+	}
+	
+	@Test
+	public void multiJumpTest3() {
+		board = new CheckersBitboard();
+		board.testSetup("MultiJump3");
+		assertFalse(board.checkMove(new Move(0, 0, 0, 4)));
+		assertTrue(board.checkMove(new Move(0, 0, 6, 6)));
+	}
+	
+	@Test
+	public void captureRemovesPieceTest() {
+		board = new CheckersBitboard();
+		board.testSetup("MultiJump1");
+		board.makeMove(new Move(0, 0, 4, 4));
+		assertNull(board.getPiece(1, 1));
+		assertNull(board.getPiece(3, 3));
+		assertTrue(board.getPiece(4, 4).getOwner() == Player.BLACK);
+		assertTrue(board.isGameOver());
+	}
+	
+	@Test
+	public void sameMovesAsModelTest() {
+		CheckersModel model = new CheckersModel();
+		model.makeMove(new Move(5, 1, 4, 0));
+		model.makeMove(new Move(2, 2, 3, 3));
+		board = new CheckersBitboard(model);
+		assertEquals(model.getMoveList().size(), board.getMoveCount());
+		for (Move m : model.getMoveList()) {
+			assertTrue(board.checkMove(m));
+		}
+	}
+	
+	@Test
+	public void stalemateTest() {
+		board = new CheckersBitboard();
+		board.testSetup("Stalemate");
+		assertTrue(board.getStalemate());
+	}
+}
+//CHECKSTYLE:ON
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Stack;
 import org.apache.commons.lang3.SerializationUtils;
 
@@ -17,12 +18,13 @@ import org.apache.commons.lang3.SerializationUtils;
  */
 public class CheckersModel implements Serializable {
 
-	/** Default serial coding. */
-	private static final long serialVersionUID = 1L;
+	/** Serial coding, raised when the move map became single jumps
+	 * and the hash was added, so older saves are refused on load. */
+	private static final long serialVersionUID = 2L;
 	/** Board represented as piece objects. */
 	private CheckersPiece[][] board;
-	/** Relates a move to a board state. */
-	private Map<Move, CheckersPiece[][]> move;
+	/** Relates a jump move to the single jumps it is made of. */
+	private Map<Move, Move[]> move;
 	/** Collection of moves available on turn. */
 	private List<Move> moves;
 	/** Tree structure to hold jump chains available. */
@@ -35,13 +37,36 @@ public class CheckersModel implements Serializable {
 	private Player player;
 	/** Holder for the last move tried on the board. */
 	private Move tried;
+	/** Records of the moves applied in place, most recent last. */
+	private transient Undo[] history;
+	/** Number of moves applied in place that can be taken back. */
+	private transient int historySize;
+	/** Zobrist hash of the pieces on the board and the player. */
+	private long hash;
+	/** Most pieces a single move can capture. */
+	private static final int MAX_CAPTURES = 12;
+	/** Random keys for each kind of piece on each square. */
+	private static final long[][] ZOBRIST = new long[4][64];
+	/** Random key added when black is to move. */
+	private static final long ZOBRIST_BLACK;
+
+	static {
+		//Fixed seed so positions hash the same way on every run.
+		Random r = new Random(0x5EED);
+		for (int k = 0; k < ZOBRIST.length; k++) {
+			for (int s = 0; s < ZOBRIST[k].length; s++) {
+				ZOBRIST[k][s] = r.nextLong();
+			}
+		}
+		ZOBRIST_BLACK = r.nextLong();
+	}
 
 	/**
 	 * Constructor for the Checkers model which generates
 	 * pieces and places them into location on the board.
 	 */
 	public CheckersModel() {
-		this.move = new HashMap<Move, CheckersPiece[][]>();
+		this.move = new HashMap<Move, Move[]>();
 		this.moves = new ArrayList<Move>();
 		this.gameover = false;
 		this.stalemate = false;
@@ -49,6 +74,55 @@ public class CheckersModel implements Serializable {
 		this.jumpTree = new Node<Move>(null, null);
 		createBoard();
 		findMoves();
+		this.hash = computeHash();
+	}
+
+	/**
+	 * Gets the Zobrist key of a piece on a square.
+	 * @param p Piece on the square.
+	 * @param x Vertical position of the square.
+	 * @param y Horizontal position of the square.
+	 * @return Key for that piece on that square.
+	 */
+	private static long pieceKey(final CheckersPiece p, final int x,
+			final int y) {
+		int kind = 0;
+		if (p.getOwner() == Player.BLACK) {
+			kind += 2;
+		}
+		if (p.isKinged()) {
+			kind += 1;
+		}
+		return ZOBRIST[kind][(x << 3) + y];
+	}
+
+	/**
+	 * Calculates the Zobrist hash of the board from scratch.
+	 * @return Hash of the pieces on the board and the player.
+	 */
+	private long computeHash() {
+		long h = 0;
+		for (int x = 0; x < 8; x++) {
+			for (int y = 0; y < 8; y++) {
+				if (board[x][y] != null) {
+					h ^= pieceKey(board[x][y], x, y);
+				}
+			}
+		}
+		if (player == Player.BLACK) {
+			h ^= ZOBRIST_BLACK;
+		}
+		return h;
+	}
+
+	/**
+	 * Getter method for the Zobrist hash of the position. The hash
+	 * is kept up to date as moves are made and taken back, so equal
+	 * positions reached by different moves share the same key.
+	 * @return Hash of the pieces on the board and the player.
+	 */
+	public long getHash() {
+		return this.hash;
 	}
 
 	/**
@@ -88,9 +162,23 @@ public class CheckersModel implements Serializable {
 		}
 	}
 	
+	/**
+	 * Finds the moves of the player to move again, as making a move
+	 * does, leaving the position as it is. Lets the benchmarks time
+	 * move generation on its own.
+	 * @return Number of moves found.
+	 */
+	int regenerateMoves() {
+		this.moves = new ArrayList<Move>();
+		this.move = new HashMap<Move, Move[]>();
+		this.findMoves();
+		return this.moves.size();
+	}
+
 	/**
 	 * Private helper method to concatenate a series of jumps
-	 * into a single move. Boards are stored into map.
+	 * into a single move. The jumps making up each move are
+	 * stored into the map.
 	 */
 	private void concatJumps() {
 		
@@ -103,36 +191,26 @@ public class CheckersModel implements Serializable {
 		//Adds nodes to the stack.
 		jumpTree.findAtDepth(max, stack);
 		
-		//ArrayList for new concatenated jumps.
-		Stack<Move> tempMoves = new Stack<Move>();
-		
-		//ArrayList to temporarily store boards.
-		Stack<CheckersPiece[][]> boards =
-				new Stack<CheckersPiece[][]>();
-
 		for (Node<Move> temp : stack) {
-			Move last = temp.getData();
-			while (temp.getRoot() != jumpTree) {
+			//Walks back up the tree collecting each jump.
+			Move[] steps = new Move[max];
+			for (int i = max - 1; i >= 0; i--) {
+				steps[i] = temp.getData();
 				temp = temp.getRoot();
-				}
-			Move first = temp.getData();
-			tempMoves.push(new Move(first.getFromX(),
-					first.getFromY(), last.getToX(),
-					last.getToY()));
-			boards.push(move.get(last));
-		}
-		//Clears possible moves on the board.
-		move.clear();
-		//Adds any moves generated from process to the 
-		moves.addAll(tempMoves);
-		while (!tempMoves.isEmpty()) {
-			move.put(tempMoves.pop(), boards.pop());
+			}
+			Move first = steps[0];
+			Move last = steps[max - 1];
+			Move m = new Move(first.getFromX(), first.getFromY(),
+					last.getToX(), last.getToY());
+			moves.add(m);
+			move.put(m, steps);
 		}
-		
 	}
+
 	/**
 	 * Helper method to calculate all of the possible jump moves including
-	 * jumps that move more than one space.
+	 * jumps that move more than one space. Each jump is made on the
+	 * board while the jumps following it are found and then taken back.
 	 * @param x Vertical position of checkers piece.
 	 * @param y Horizontal position of checkers piece.
 	 * @param root Root node of the subtree.
@@ -141,43 +219,63 @@ public class CheckersModel implements Serializable {
 	private void generateJumps(final int x, final int y,
 				final Node<Move> root,
 				final CheckersPiece[][] tboard) {
-		Node<Move> temp;
-		Move m = new Move(x, y, x + 2, y + 2);
 		//Checks down to the right.
-		if (isMove(m, tboard)) {
-			temp = new Node<Move>(m, root);
-			root.addleaf(temp);
-			move.put(m, commitMove(m, tboard));
-			generateJumps(m.getToX(), m.getToY(),
-					temp, commitMove(m, tboard));
-		}
+		tryJump(new Move(x, y, x + 2, y + 2), root, tboard);
 		//Checks up to the left.
-		m = new Move(x, y, x - 2, y - 2);
-		if (isMove(m, tboard)) {
-			temp = new Node<Move>(m, root);
-			root.addleaf(temp);
-			move.put(m, commitMove(m, tboard));
-			generateJumps(m.getToX(), m.getToY(),
-					temp, commitMove(m, tboard));
-		}
+		tryJump(new Move(x, y, x - 2, y - 2), root, tboard);
 		//Checks down to the left.
-		m = new Move(x, y, x + 2, y - 2);
-		if (isMove(m, tboard)) {
-			temp = new Node<Move>(m, root);
-			root.addleaf(temp);
-			move.put(m, commitMove(m, tboard));
-			generateJumps(m.getToX(), m.getToY(),
-					temp, commitMove(m, tboard));
-		}
+		tryJump(new Move(x, y, x + 2, y - 2), root, tboard);
 		//Checks  up to the right.
-		m = new Move(x, y, x - 2, y + 2);
-		if (isMove(m, tboard)) {
-			temp = new Node<Move>(m, root);
-			root.addleaf(temp);
-			move.put(m, commitMove(m, tboard));
-			generateJumps(m.getToX(), m.getToY(),
-					temp, commitMove(m, tboard));
+		tryJump(new Move(x, y, x - 2, y + 2), root, tboard);
+	}
+
+	/**
+	 * Adds a single jump to the jump tree if it can be made and
+	 * follows on with the jumps available after it.
+	 * @param m Jump being checked.
+	 * @param root Node the jump is added under.
+	 * @param tboard Board to be analyzed.
+	 */
+	private void tryJump(final Move m, final Node<Move> root,
+			final CheckersPiece[][] tboard) {
+		if (!isMove(m, tboard)) {
+			return;
+		}
+		Node<Move> temp = new Node<Move>(m, root);
+		root.addleaf(temp);
+		int mx = (m.getFromX() + m.getToX()) / 2;
+		int my = (m.getFromY() + m.getToY()) / 2;
+		CheckersPiece piece = tboard[m.getFromX()][m.getFromY()];
+		CheckersPiece taken = tboard[mx][my];
+		boolean crowned = !piece.isKinged()
+				&& isKingRow(piece, m.getToX());
+		tboard[m.getToX()][m.getToY()] = piece;
+		tboard[m.getFromX()][m.getFromY()] = null;
+		tboard[mx][my] = null;
+		if (crowned) {
+			piece.setKinged(true);
+		}
+		generateJumps(m.getToX(), m.getToY(), temp, tboard);
+		if (crowned) {
+			piece.setKinged(false);
+		}
+		tboard[mx][my] = taken;
+		tboard[m.getFromX()][m.getFromY()] = piece;
+		tboard[m.getToX()][m.getToY()] = null;
+	}
+
+	/**
+	 * Checks whether the row is the far row for the piece.
+	 * @param piece Piece being moved.
+	 * @param x Row the piece lands on.
+	 * @return True if the piece is crowned on that row.
+	 */
+	public static boolean isKingRow(final CheckersPiece piece,
+			final int x) {
+		if (piece.getOwner() == Player.BLACK) {
+			return x == 7;
 		}
+		return x == 0;
 	}
 
 	/**
@@ -192,25 +290,21 @@ public class CheckersModel implements Serializable {
 		Move m = new Move(x, y, x + 1, y + 1);
 		if (isMove(m, b)) {
 			moves.add(m);
-			move.put(m, commitMove(m, b));
 		}
 		//checks down to the left.
 		m = new Move(x, y, x + 1, y - 1);
 		if (isMove(m, b)) {
 			moves.add(m);
-			move.put(m, commitMove(m, b));
 		}
 		//checks up to the right.
 		m = new Move(x, y, x - 1, y + 1);
 		if (isMove(m, b)) {
 			moves.add(m);
-			move.put(m, commitMove(m, b));
 		}
 		//checks up to the left.
 		m = new Move(x, y, x - 1, y - 1);
 		if (isMove(m, b)) {
 			moves.add(m);
-			move.put(m, commitMove(m, b));
 		}
 	}
 
@@ -287,20 +381,180 @@ public class CheckersModel implements Serializable {
 	 */
 	public boolean makeMove(final Move m) {
 		if (this.checkMove(m)) {
-			this.board = this.move.get(this.tried);
-			this.nextTurn();
-			this.moves.clear();
-			this.move.clear();
-			this.findMoves();
-			this.gameover = this.isGameOver();
-			if (!this.gameover) {
-				this.stalemate = this.isStalemate();
-			}
+			this.play(this.tried, new Undo());
 			return true;
 		} else {
 			return false;
 		}
 	}
+
+	/**
+	 * Makes the move on this model in place, remembering what is
+	 * needed to take it back with undoMove. Used by the search so it
+	 * can walk the game on one model without copying it.
+	 * @param m Move that is being made.
+	 * @return True if move can be made.
+	 */
+	public boolean applyMove(final Move m) {
+		if (!this.checkMove(m)) {
+			return false;
+		}
+		if (history == null) {
+			history = new Undo[CheckersSearch.MAX_PLY];
+		}
+		if (historySize == history.length) {
+			Undo[] temp = new Undo[historySize * 2];
+			System.arraycopy(history, 0, temp, 0, historySize);
+			history = temp;
+		}
+		if (history[historySize] == null) {
+			history[historySize] = new Undo();
+		}
+		this.play(this.tried, history[historySize]);
+		historySize++;
+		return true;
+	}
+
+	/**
+	 * Takes back the last move made with applyMove, restoring
+	 * captured pieces, crowning, the player and the move list.
+	 */
+	public void undoMove() {
+		if (history == null || historySize == 0) {
+			return;
+		}
+		historySize--;
+		Undo u = history[historySize];
+		board[u.toX][u.toY] = null;
+		board[u.fromX][u.fromY] = u.piece;
+		for (int i = 0; i < u.count; i++) {
+			board[u.takenX[i]][u.takenY[i]] = u.taken[i];
+		}
+		if (u.crowned) {
+			u.piece.setKinged(false);
+		}
+		this.moves = u.moves;
+		this.move = u.chains;
+		this.gameover = u.gameover;
+		this.stalemate = u.stalemate;
+		this.tried = u.tried;
+		this.nextTurn();
+		this.hash = u.hash;
+		u.piece = null;
+		u.moves = null;
+		u.chains = null;
+		u.tried = null;
+		for (int i = 0; i < u.count; i++) {
+			u.taken[i] = null;
+		}
+	}
+
+	/**
+	 * Makes a move from the move list on the board, recording the
+	 * current state into the undo record first.
+	 * @param m Move from the move list.
+	 * @param u Record to store the previous state into.
+	 */
+	private void play(final Move m, final Undo u) {
+		u.fromX = m.getFromX();
+		u.fromY = m.getFromY();
+		u.toX = m.getToX();
+		u.toY = m.getToY();
+		u.piece = board[u.fromX][u.fromY];
+		u.crowned = false;
+		u.count = 0;
+		u.moves = this.moves;
+		u.chains = this.move;
+		u.gameover = this.gameover;
+		u.stalemate = this.stalemate;
+		u.tried = this.tried;
+		u.hash = this.hash;
+		Move[] steps = this.move.get(m);
+		if (steps == null) {
+			step(m, u);
+		} else {
+			for (Move jump : steps) {
+				step(jump, u);
+			}
+		}
+		this.nextTurn();
+		this.moves = new ArrayList<Move>();
+		this.move = new HashMap<Move, Move[]>();
+		this.findMoves();
+		this.gameover = this.isGameOver();
+		if (!this.gameover) {
+			this.stalemate = this.isStalemate();
+		}
+	}
+
+	/**
+	 * Moves a piece one step or one jump on the board, removing a
+	 * jumped piece and crowning the piece on the far row.
+	 * @param m Single step or jump.
+	 * @param u Record of the move the step belongs to.
+	 */
+	private void step(final Move m, final Undo u) {
+		int tx = m.getToX();
+		int ty = m.getToY();
+		int fx = m.getFromX();
+		int fy = m.getFromY();
+		CheckersPiece piece = board[fx][fy];
+		hash ^= pieceKey(piece, fx, fy);
+		if (Math.abs(tx - fx) == 2) {
+			int mx = (fx + tx) / 2;
+			int my = (fy + ty) / 2;
+			hash ^= pieceKey(board[mx][my], mx, my);
+			u.taken[u.count] = board[mx][my];
+			u.takenX[u.count] = mx;
+			u.takenY[u.count] = my;
+			u.count++;
+			board[mx][my] = null;
+		}
+		board[fx][fy] = null;
+		board[tx][ty] = piece;
+		if (!piece.isKinged() && isKingRow(piece, tx)) {
+			piece.setKinged(true);
+			u.crowned = true;
+		}
+		hash ^= pieceKey(piece, tx, ty);
+	}
+
+	/**
+	 * Record of a move made in place, holding what is needed to
+	 * take it back.
+	 */
+	private static final class Undo implements Serializable {
+		/** Default serial coding. */
+		private static final long serialVersionUID = 1L;
+		/** Origin of the moving piece. */
+		private int fromX, fromY;
+		/** Destination of the moving piece. */
+		private int toX, toY;
+		/** The piece that moved. */
+		private CheckersPiece piece;
+		/** Whether the piece was crowned by the move. */
+		private boolean crowned;
+		/** Pieces captured by the move. */
+		private CheckersPiece[] taken = new CheckersPiece[MAX_CAPTURES];
+		/** Vertical positions of the captured pieces. */
+		private int[] takenX = new int[MAX_CAPTURES];
+		/** Horizontal positions of the captured pieces. */
+		private int[] takenY = new int[MAX_CAPTURES];
+		/** Number of pieces captured. */
+		private int count;
+		/** Move list before the move. */
+		private List<Move> moves;
+		/** Jump chains before the move. */
+		private Map<Move, Move[]> chains;
+		/** Game over flag before the move. */
+		private boolean gameover;
+		/** Stalemate flag before the move. */
+		private boolean stalemate;
+		/** Last move tried before the move. */
+		private Move tried;
+		/** Hash of the position before the move. */
+		private long hash;
+	}
 	
 	/**
 	 * Generates the initial board for the beginning of the game.
@@ -363,10 +617,16 @@ public class CheckersModel implements Serializable {
 	
 	/**
 	 * Checks whether the moves list contains the instance of move.
+	 * The move itself is preferred when it came from the list, as
+	 * two jump chains can share the same start and end.
 	 * @param m The move being attempted.
 	 * @return True if the moves list contains the move.
 	 */
 	public boolean checkMove(final Move m) {
+		if (move.containsKey(m)) {
+			this.tried = m;
+			return true;
+		}
 		for (Move in : moves) {
 			if (m.getToX() == in.getToX()
 					&& m.getToY() == in.getToY()
@@ -388,6 +648,7 @@ public class CheckersModel implements Serializable {
 		} else {
 			player = Player.BLACK;
 		}
+		hash ^= ZOBRIST_BLACK;
 	}
 
 	/**
@@ -432,6 +693,15 @@ public class CheckersModel implements Serializable {
 		return false;
 	}
 	
+	/**
+	 * Checks whether the player to move has to jump. Jumps are
+	 * mandatory, so when this is true every move in the list is one.
+	 * @return True if the moves are jumps.
+	 */
+	public boolean hasJump() {
+		return !this.move.isEmpty();
+	}
+
 	/**
 	 * Getter method for the list of moves.
 	 * @return ArrayList of Move objects.
@@ -448,12 +718,28 @@ public class CheckersModel implements Serializable {
 	 */
 	public CheckersPiece[][] getResultBoard(final Move m) {
 		if (checkMove(m)) {
-			return this.move.get(m);
+			Move[] steps = this.move.get(this.tried);
+			if (steps == null) {
+				return commitMove(this.tried, this.board);
+			}
+			CheckersPiece[][] result = this.board;
+			for (Move jump : steps) {
+				result = commitMove(jump, result);
+			}
+			return result;
 		} else {
 			return null;
 		}
 	}
 
+	/**
+	 * Getter method for the current board.
+	 * @return Board represented as piece objects.
+	 */
+	public CheckersPiece[][] getBoard() {
+		return this.board;
+	}
+
 	/**
 	 * Getter method for the current player.
 	 * @return The current player.
@@ -513,5 +799,6 @@ public class CheckersModel implements Serializable {
 			board[0][0] = new CheckersPiece(Player.BLACK);
 			this.findMoves();
 		}
+		this.hash = computeHash();
 	}
 }
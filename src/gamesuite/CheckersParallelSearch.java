@@ -0,0 +1,127 @@
+package gamesuite;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.lang3.SerializationUtils;
+
+/**
+ * Multi-threaded checkers search in the lazy SMP style. Every thread
+ * runs its own iterative deepening search on its own copy of the
+ * position, and the threads share only the transposition table, so
+ * each one finds results the others stored and they drift apart into
+ * different parts of the tree. The main thread searches the real model
+ * and keeps time; when it finishes the helper threads are stopped and
+ * its move is the one played.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class CheckersParallelSearch {
+
+	/** One search for each thread, the main search first. */
+	private CheckersSearch[] searches;
+	/** Flag telling the helper searches to stop. */
+	private AtomicBoolean stop;
+	/** Transposition table shared by the threads. */
+	private CheckersTranspositionTable table;
+
+	/**
+	 * Constructor for a search running on the given number of threads.
+	 * @param t Transposition table shared by the threads.
+	 * @param threads Number of threads to search with, at least one.
+	 */
+	public CheckersParallelSearch(final CheckersTranspositionTable t,
+			final int threads) {
+		this.stop = new AtomicBoolean();
+		this.table = t;
+		this.searches = new CheckersSearch[Math.max(1, threads)];
+		for (int i = 0; i < searches.length; i++) {
+			searches[i] = new CheckersSearch(t, stop, i);
+		}
+	}
+
+	/**
+	 * Searches the position on every thread until the main search
+	 * reaches the depth or runs out of time.
+	 * @param m Model holding the position to search.
+	 * @param depth Deepest iteration to search.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
+	 * @return Score of the position for the player to move.
+	 */
+	public int search(final CheckersModel m, final int depth,
+			final long millis) {
+		stop.set(false);
+		//Aged before any thread stores, so none stamps the old age.
+		table.newSearch();
+		Thread[] helpers = new Thread[searches.length - 1];
+		for (int i = 0; i < helpers.length; i++) {
+			final CheckersSearch helper = searches[i + 1];
+			final CheckersModel copy = SerializationUtils.clone(m);
+			helpers[i] = new Thread(() -> helper.run(copy, depth, 0),
+					"checkers-search-" + (i + 1));
+			helpers[i].setDaemon(true);
+			helpers[i].start();
+		}
+		int score = searches[0].run(m, depth, millis);
+		stop.set(true);
+		for (Thread helper : helpers) {
+			try {
+				helper.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return score;
+	}
+
+	/**
+	 * Getter method for the best move of the last search.
+	 * @return Best move, or null if there were no moves.
+	 */
+	public Move getBestMove() {
+		return searches[0].getBestMove();
+	}
+
+	/**
+	 * Getter method for the principal variation of the last search.
+	 * @return Moves expected from both players, best move first.
+	 */
+	public List<Move> getPrincipalVariation() {
+		return searches[0].getPrincipalVariation();
+	}
+
+	/**
+	 * Getter method for the depth the main search completed.
+	 * @return Depth reached by the last search.
+	 */
+	public int getDepthReached() {
+		return searches[0].getDepthReached();
+	}
+
+	/**
+	 * Getter method for the score of the last search.
+	 * @return Score for the player to move at the root.
+	 */
+	public int getScore() {
+		return searches[0].getScore();
+	}
+
+	/**
+	 * Getter method for the nodes visited by all the threads.
+	 * @return Number of positions visited by the last search.
+	 */
+	public long getNodes() {
+		long total = 0;
+		for (CheckersSearch s : searches) {
+			total += s.getNodes();
+		}
+		return total;
+	}
+
+	/**
+	 * Getter method for the number of threads searching.
+	 * @return Number of threads.
+	 */
+	public int getThreads() {
+		return searches.length;
+	}
+}
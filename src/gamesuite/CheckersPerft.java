@@ -0,0 +1,148 @@
+package gamesuite;
+
+import java.util.ArrayList;
+
+/**
+ * Perft for the checkers move generators. Perft counts the positions
+ * reached after every sequence of moves to a given depth, which checks
+ * a move generator against known counts and measures its speed. The
+ * counts are taken with CheckersModel, making and taking back moves,
+ * and with CheckersBitboard, so a faster generator can be checked
+ * against the existing one.
+ * <p>
+ * Usage: CheckersPerft [depth] [test setup]
+ * <p>
+ * The test setup is one of the names taken by testSetup, such as
+ * MultiJump1, and the start position is used when it is left out.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public final class CheckersPerft {
+
+	/**
+	 * Positions reached from the start position at each depth,
+	 * depth 0 first. Only the longest jumps may be played, so from
+	 * depth 6 on the counts differ from those of standard checkers,
+	 * 36473 here against 36768; up to depth 5 they are the same.
+	 */
+	public static final long[] START_COUNTS = {
+		1, 7, 49, 302, 1469, 7361, 36473, 177532, 828783, 3860824
+	};
+	/** Depth counted when none is given. */
+	private static final int DEFAULT_DEPTH = 7;
+	/** Nanoseconds in a second. */
+	private static final double SECOND = 1e9;
+
+	/**
+	 * Private constructor, the class only has static methods.
+	 */
+	private CheckersPerft() {
+	}
+
+	/**
+	 * Counts the positions reached at the depth, making and taking
+	 * back the moves on the model.
+	 * @param m Model holding the position to count from.
+	 * @param depth Number of moves to play.
+	 * @return Number of positions at the depth.
+	 */
+	public static long perft(final CheckersModel m, final int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		ArrayList<Move> list = m.getMoveList();
+		if (depth == 1) {
+			return list.size();
+		}
+		long count = 0;
+		for (Move move : list) {
+			m.applyMove(move);
+			count += perft(m, depth - 1);
+			m.undoMove();
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the positions reached at the depth with the bitboard
+	 * generator. Moves are played into one bitboard per ply so the
+	 * count does not allocate.
+	 * @param b Bitboard holding the position to count from.
+	 * @param depth Number of moves to play.
+	 * @return Number of positions at the depth.
+	 */
+	public static long perft(final CheckersBitboard b, final int depth) {
+		CheckersBitboard[] plies = new CheckersBitboard[depth + 1];
+		plies[0] = b;
+		for (int i = 1; i <= depth; i++) {
+			plies[i] = new CheckersBitboard();
+		}
+		return perft(plies, 0, depth);
+	}
+
+	/**
+	 * Counts the positions reached from one ply of the bitboards.
+	 * @param plies Bitboard for each ply.
+	 * @param ply Ply holding the position to count from.
+	 * @param depth Number of moves left to play.
+	 * @return Number of positions at the depth.
+	 */
+	private static long perft(final CheckersBitboard[] plies,
+			final int ply, final int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		CheckersBitboard b = plies[ply];
+		int moves = b.getMoveCount();
+		if (depth == 1) {
+			return moves;
+		}
+		long count = 0;
+		for (int i = 0; i < moves; i++) {
+			b.playMove(i, plies[ply + 1]);
+			count += perft(plies, ply + 1, depth - 1);
+		}
+		return count;
+	}
+
+	/**
+	 * Prints the counts, times and positions per second of both
+	 * generators for each depth up to the one given. From the start
+	 * position the counts are checked against START_COUNTS.
+	 * @param args Depth and, optionally, the name of a test setup.
+	 */
+	public static void main(final String[] args) {
+		int depth = DEFAULT_DEPTH;
+		String setup = null;
+		if (args.length > 0) {
+			depth = Integer.parseInt(args[0]);
+		}
+		if (args.length > 1) {
+			setup = args[1];
+		}
+		CheckersModel model = new CheckersModel();
+		CheckersBitboard board = new CheckersBitboard();
+		if (setup != null) {
+			model.testSetup(setup);
+			board.testSetup(setup);
+		}
+		System.out.println("depth      nodes  model n/s  bitboard n/s");
+		for (int d = 1; d <= depth; d++) {
+			long start = System.nanoTime();
+			long nodes = perft(model, d);
+			double modelTime = (System.nanoTime() - start) / SECOND;
+			start = System.nanoTime();
+			long bitNodes = perft(board, d);
+			double bitTime = (System.nanoTime() - start) / SECOND;
+			String check = "";
+			if (bitNodes != nodes) {
+				check = "  MISMATCH bitboard " + bitNodes;
+			} else if (setup == null && d < START_COUNTS.length
+					&& nodes != START_COUNTS[d]) {
+				check = "  MISMATCH expected " + START_COUNTS[d];
+			}
+			System.out.printf("%5d %10d %10.0f %13.0f%s%n", d, nodes,
+					nodes / modelTime, bitNodes / bitTime, check);
+		}
+	}
+}
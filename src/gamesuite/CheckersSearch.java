@@ -0,0 +1,659 @@
+package gamesuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Depth-first alpha-beta search for the checkers AI. The search is
+ * written in negamax form, so every score is from the point of view of
+ * the player to move, and it never stores the game tree. Moves are made
+ * and taken back on the one model being searched, and positions reached
+ * again through other move orders are looked up in a transposition
+ * table. At the horizon jumps are searched until the position is quiet,
+ * so no position is scored in the middle of an exchange. Moves are
+ * ordered by the table's best move, killer moves and history. Alongside the
+ * best move it keeps the principal variation and the number of nodes
+ * visited.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class CheckersSearch {
+
+	/** Score of a position where the player to move has won. */
+	public static final int WIN = 1000000;
+	/** Deepest ply the search can reach. */
+	public static final int MAX_PLY = 64;
+	/** Scores beyond this are wins or losses a number of plies away. */
+	private static final int WIN_BOUND = WIN - MAX_PLY;
+	/** Nodes searched between checks of the clock, less one. */
+	private static final int CLOCK_MASK = 1023;
+	/** Ordering score of the best move stored in the table. */
+	private static final int HASH_SCORE = 1 << 30;
+	/** Ordering score of a move that crowns a man. */
+	private static final int CROWN_SCORE = 1 << 29;
+	/** Ordering score of the first killer move at a ply. */
+	private static final int KILLER_SCORE = 1 << 28;
+	/** History score at which the history table is halved. */
+	private static final int HISTORY_LIMIT = 1 << 20;
+	/** Number of packed moves, the size of a history table. */
+	private static final int MOVE_CODES = 1 << 12;
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS = 1000000L;
+	/** Results of positions already searched. */
+	private CheckersTranspositionTable table;
+	/** Moves of the principal variation found at each ply. */
+	private Move[][] pv;
+	/** Length of the principal variation found at each ply. */
+	private int[] pvLength;
+	/** Number of positions visited by the last search. */
+	private long nodes;
+	/** Number of those positions visited by the quiescence search. */
+	private long quietNodes;
+	/** Score of the last search. */
+	private int score;
+	/** Time the search must stop by, or 0 for no limit. */
+	private long deadline;
+	/** Whether the current iteration ran out of time. */
+	private boolean stopped;
+	/** Deepest iteration completed by the last search. */
+	private int depthReached;
+	/** Best move of the last completed iteration. */
+	private Move bestMove;
+	/** Principal variation of the last completed iteration. */
+	private List<Move> line;
+	/** Moves of each ply in the order they are tried. */
+	private Move[][] order;
+	/** Ordering score of each move in order. */
+	private int[][] orderScore;
+	/** Two quiet moves that caused cutoffs at each ply, packed. */
+	private int[][] killers;
+	/** Cutoff history of packed quiet moves for each player. */
+	private int[][] history;
+	/** Number of cutoffs in the last search. */
+	private long cutoffs;
+	/** Number of those cutoffs caused by the first move tried. */
+	private long firstCutoffs;
+	/** Flag shared with other searches telling them all to stop. */
+	private AtomicBoolean abort;
+	/** Index of the search among those sharing the table. */
+	private int id;
+
+	/**
+	 * Constructor for the search which allocates the principal
+	 * variation table.
+	 * @param t Transposition table shared by the searches.
+	 */
+	public CheckersSearch(final CheckersTranspositionTable t) {
+		this(t, null, 0);
+	}
+
+	/**
+	 * Constructor for one of several searches running at once on
+	 * copies of the same position. The first search keeps time; the
+	 * others search until told to stop, odd ones starting a ply
+	 * deeper so the threads spread over the tree.
+	 * @param t Transposition table shared by the searches.
+	 * @param flag Flag set when all the searches should stop.
+	 * @param index Index of this search, 0 for the main search.
+	 */
+	public CheckersSearch(final CheckersTranspositionTable t,
+			final AtomicBoolean flag, final int index) {
+		this.pv = new Move[MAX_PLY + 1][MAX_PLY + 1];
+		this.pvLength = new int[MAX_PLY + 1];
+		this.table = t;
+		this.line = new ArrayList<Move>();
+		this.order = new Move[MAX_PLY + 1][0];
+		this.orderScore = new int[MAX_PLY + 1][0];
+		this.killers = new int[MAX_PLY + 1][2];
+		this.history = new int[2][MOVE_CODES];
+		this.abort = flag;
+		this.id = index;
+	}
+
+	/**
+	 * Searches the position to the given depth.
+	 * @param m Model holding the position to search.
+	 * @param depth Number of moves to look ahead.
+	 * @return Score of the position for the player to move.
+	 */
+	public int search(final CheckersModel m, final int depth) {
+		return search(m, depth, 0);
+	}
+
+	/**
+	 * Searches the position with iterative deepening, one ply deeper
+	 * each iteration, until the depth is reached or the time runs out.
+	 * The result of an iteration cut short by the clock is thrown away
+	 * and the best move of the last completed iteration is kept. The
+	 * first iteration always completes so there is a move to play.
+	 * @param m Model holding the position to search.
+	 * @param depth Deepest iteration to search.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
+	 * @return Score of the position for the player to move.
+	 */
+	public int search(final CheckersModel m, final int depth,
+			final long millis) {
+		this.table.newSearch();
+		return run(m, depth, millis);
+	}
+
+	/**
+	 * Searches as search does, without starting a new search in the
+	 * table, for searches sharing a table that has already been told.
+	 * @param m Model holding the position to search.
+	 * @param depth Deepest iteration to search.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
+	 * @return Score of the position for the player to move.
+	 */
+	int run(final CheckersModel m, final int depth, final long millis) {
+		this.nodes = 0;
+		this.quietNodes = 0;
+		this.cutoffs = 0;
+		this.firstCutoffs = 0;
+		this.depthReached = 0;
+		for (int[] k : killers) {
+			k[0] = -1;
+			k[1] = -1;
+		}
+		ageHistory();
+		this.bestMove = null;
+		this.line = new ArrayList<Move>();
+		this.stopped = false;
+		if (millis > 0 && id == 0) {
+			this.deadline = System.nanoTime() + millis * NANOS;
+		} else {
+			this.deadline = 0;
+		}
+		int limit = Math.min(depth, MAX_PLY);
+		for (int d = 1 + id % 2; d <= limit; d++) {
+			int value = negamax(m, d, 0, -WIN - 1, WIN + 1);
+			if (stopped) {
+				break;
+			}
+			this.score = value;
+			this.depthReached = d;
+			this.bestMove = pv[0][0];
+			this.line = new ArrayList<Move>();
+			for (int i = 0; i < pvLength[0]; i++) {
+				this.line.add(pv[0][i]);
+			}
+			//A forced win or loss will not change with more depth.
+			if (Math.abs(value) > WIN_BOUND) {
+				break;
+			}
+		}
+		return this.score;
+	}
+
+	/**
+	 * Checks the clock and the shared stop flag every so many nodes,
+	 * flagging the search to stop when either says so. The clock is
+	 * only looked at once an iteration has completed.
+	 */
+	private void checkClock() {
+		if ((nodes & CLOCK_MASK) != 0) {
+			return;
+		}
+		if (abort != null && abort.get()) {
+			stopped = true;
+		} else if (deadline != 0 && depthReached > 0
+				&& System.nanoTime() > deadline) {
+			stopped = true;
+		}
+	}
+
+	/**
+	 * Negamax search with alpha-beta pruning. The principal variation
+	 * of each ply is copied up from the ply below whenever the window
+	 * is raised.
+	 * @param m Model holding the position.
+	 * @param depth Remaining depth to search.
+	 * @param ply Distance from the root.
+	 * @param alpha Lower bound of the window.
+	 * @param beta Upper bound of the window.
+	 * @return Score of the position for the player to move.
+	 */
+	private int negamax(final CheckersModel m, final int depth,
+			final int ply, final int alpha, final int beta) {
+		nodes++;
+		pvLength[ply] = 0;
+		checkClock();
+		ArrayList<Move> list = m.getMoveList();
+		if (list.isEmpty()) {
+			//No pieces or no moves, the player to move has lost.
+			return -WIN + ply;
+		}
+		if (depth == 0) {
+			return quiesce(m, ply, alpha, beta);
+		}
+		long key = m.getHash();
+		long entry = table.probe(key);
+		if (entry != 0 && ply > 0
+				&& CheckersTranspositionTable.getDepth(entry) >= depth) {
+			int stored = fromTable(
+					CheckersTranspositionTable.getScore(entry), ply);
+			int bound = CheckersTranspositionTable.getBound(entry);
+			if (bound == CheckersTranspositionTable.EXACT
+					|| (bound == CheckersTranspositionTable.LOWER
+					&& stored >= beta)
+					|| (bound == CheckersTranspositionTable.UPPER
+					&& stored <= alpha)) {
+				return stored;
+			}
+		}
+		int a = alpha;
+		int best = -WIN - 1;
+		Move bestMove = null;
+		boolean jumps = m.hasJump();
+		int count = orderMoves(m, list, entry, ply);
+		for (int i = 0; i < count; i++) {
+			Move move = nextMove(ply, i, count);
+			m.applyMove(move);
+			int value = -negamax(m, depth - 1, ply + 1, -beta, -a);
+			m.undoMove();
+			if (stopped) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				bestMove = move;
+				if (value > a) {
+					a = value;
+					updatePv(ply, move);
+				}
+				if (a >= beta) {
+					cutoffs++;
+					if (i == 0) {
+						firstCutoffs++;
+					}
+					if (!jumps) {
+						rememberCutoff(m.getPlayer(), move, depth, ply);
+					}
+					break;
+				}
+			}
+		}
+		int bound;
+		if (best >= beta) {
+			bound = CheckersTranspositionTable.LOWER;
+		} else if (best > alpha) {
+			bound = CheckersTranspositionTable.EXACT;
+		} else {
+			bound = CheckersTranspositionTable.UPPER;
+		}
+		table.store(key, depth, bound, toTable(best, ply), bestMove);
+		return best;
+	}
+
+	/**
+	 * Scores the moves of a ply for ordering. The best move stored in
+	 * the table is tried first, then moves that crown a man, then the
+	 * killer moves of the ply, then the rest by their history. Jumps
+	 * are mandatory, so a list holds either only jumps or none, and
+	 * crowning takes the place captures have in other games.
+	 * @param m Model holding the position.
+	 * @param list Moves of the position.
+	 * @param entry Table entry of the position, or 0.
+	 * @param ply Distance from the root.
+	 * @return Number of moves to try.
+	 */
+	private int orderMoves(final CheckersModel m, final List<Move> list,
+			final long entry, final int ply) {
+		int count = list.size();
+		if (order[ply].length < count) {
+			order[ply] = new Move[count * 2];
+			orderScore[ply] = new int[count * 2];
+		}
+		CheckersPiece[][] board = m.getBoard();
+		int[] past = history[side(m.getPlayer())];
+		for (int i = 0; i < count; i++) {
+			Move move = list.get(i);
+			int code = CheckersTranspositionTable.encode(move);
+			int value;
+			CheckersPiece piece = board[move.getFromX()][move.getFromY()];
+			if (CheckersTranspositionTable.isBestMove(entry, move)) {
+				value = HASH_SCORE;
+			} else if (!piece.isKinged()
+					&& CheckersModel.isKingRow(piece, move.getToX())) {
+				value = CROWN_SCORE;
+			} else if (code == killers[ply][0]) {
+				value = KILLER_SCORE;
+			} else if (code == killers[ply][1]) {
+				value = KILLER_SCORE - 1;
+			} else {
+				value = past[code];
+			}
+			order[ply][i] = move;
+			orderScore[ply][i] = value;
+		}
+		return count;
+	}
+
+	/**
+	 * Picks the best scored move left at a ply and swaps it into
+	 * place, so a cutoff leaves the remaining moves unsorted.
+	 * @param ply Distance from the root.
+	 * @param i Position of the move to try next.
+	 * @param count Number of moves at the ply.
+	 * @return Move to try next.
+	 */
+	private Move nextMove(final int ply, final int i, final int count) {
+		Move[] moves = order[ply];
+		int[] scores = orderScore[ply];
+		int top = i;
+		for (int j = i + 1; j < count; j++) {
+			if (scores[j] > scores[top]) {
+				top = j;
+			}
+		}
+		Move move = moves[top];
+		moves[top] = moves[i];
+		moves[i] = move;
+		int value = scores[top];
+		scores[top] = scores[i];
+		scores[i] = value;
+		return move;
+	}
+
+	/**
+	 * Records a quiet move that caused a cutoff as a killer of the ply
+	 * and in the player's history.
+	 * @param p Player who made the move.
+	 * @param move Move that caused the cutoff.
+	 * @param depth Remaining depth the move was searched to.
+	 * @param ply Distance from the root.
+	 */
+	private void rememberCutoff(final Player p, final Move move,
+			final int depth, final int ply) {
+		int code = CheckersTranspositionTable.encode(move);
+		if (killers[ply][0] != code) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = code;
+		}
+		int[] past = history[side(p)];
+		past[code] += depth * depth;
+		if (past[code] > HISTORY_LIMIT) {
+			ageHistory();
+		}
+	}
+
+	/**
+	 * Halves the history so newer cutoffs outweigh older ones.
+	 */
+	private void ageHistory() {
+		for (int[] past : history) {
+			for (int i = 0; i < past.length; i++) {
+				past[i] >>= 1;
+			}
+		}
+	}
+
+	/**
+	 * Gets the history table index of a player.
+	 * @param p Player to move.
+	 * @return 1 for black, 0 for white.
+	 */
+	private static int side(final Player p) {
+		if (p == Player.BLACK) {
+			return 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Quiescence search run at the horizon. While the player to move
+	 * has a jump the jumps are searched, and only once the position is
+	 * quiet is it scored. Jumps are mandatory, so the player cannot
+	 * stand pat on the static score and every jump must be tried.
+	 * @param m Model holding the position.
+	 * @param ply Distance from the root.
+	 * @param alpha Lower bound of the window.
+	 * @param beta Upper bound of the window.
+	 * @return Score of the position for the player to move.
+	 */
+	private int quiesce(final CheckersModel m, final int ply,
+			final int alpha, final int beta) {
+		ArrayList<Move> list = m.getMoveList();
+		if (list.isEmpty()) {
+			return -WIN + ply;
+		}
+		if (!m.hasJump() || ply >= MAX_PLY) {
+			return analyzeStaticBoard(m.getBoard(), m.getPlayer());
+		}
+		int a = alpha;
+		int best = -WIN - 1;
+		for (Move move : list) {
+			nodes++;
+			quietNodes++;
+			checkClock();
+			m.applyMove(move);
+			int value = -quiesce(m, ply + 1, -beta, -a);
+			m.undoMove();
+			if (stopped) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				if (value > a) {
+					a = value;
+				}
+				if (a >= beta) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Converts a score to be stored in the table. Wins and losses are
+	 * stored as the distance from the stored position rather than
+	 * from the root.
+	 * @param value Score at the given ply.
+	 * @param ply Distance from the root.
+	 * @return Score to store.
+	 */
+	private static int toTable(final int value, final int ply) {
+		if (value > WIN_BOUND) {
+			return value + ply;
+		} else if (value < -WIN_BOUND) {
+			return value - ply;
+		}
+		return value;
+	}
+
+	/**
+	 * Converts a score read from the table back to the given ply.
+	 * @param value Stored score.
+	 * @param ply Distance from the root.
+	 * @return Score at the given ply.
+	 */
+	private static int fromTable(final int value, final int ply) {
+		if (value > WIN_BOUND) {
+			return value - ply;
+		} else if (value < -WIN_BOUND) {
+			return value + ply;
+		}
+		return value;
+	}
+
+	/**
+	 * Puts the move in front of the variation found one ply deeper.
+	 * @param ply Ply of the move.
+	 * @param move Move that raised the window.
+	 */
+	private void updatePv(final int ply, final Move move) {
+		pv[ply][0] = move;
+		System.arraycopy(pv[ply + 1], 0, pv[ply], 1,
+				pvLength[ply + 1]);
+		pvLength[ply] = pvLength[ply + 1] + 1;
+	}
+
+	/**
+	 * Getter method for the best move of the last search.
+	 * @return Best move, or null if there were no moves.
+	 */
+	public Move getBestMove() {
+		return this.bestMove;
+	}
+
+	/**
+	 * Getter method for the principal variation of the last search.
+	 * @return Moves expected from both players, best move first.
+	 */
+	public List<Move> getPrincipalVariation() {
+		return new ArrayList<Move>(this.line);
+	}
+
+	/**
+	 * Getter method for the depth of the last completed iteration.
+	 * @return Depth reached by the last search.
+	 */
+	public int getDepthReached() {
+		return this.depthReached;
+	}
+
+	/**
+	 * Getter method for the nodes visited by the last search.
+	 * @return Number of positions visited.
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Getter method for the nodes visited by the quiescence search.
+	 * @return Number of positions visited past the horizon.
+	 */
+	public long getQuietNodes() {
+		return this.quietNodes;
+	}
+
+	/**
+	 * Getter method for the number of cutoffs in the last search.
+	 * @return Number of beta cutoffs.
+	 */
+	public long getCutoffs() {
+		return this.cutoffs;
+	}
+
+	/**
+	 * Getter method for the fraction of cutoffs caused by the first
+	 * move tried. The closer to 1, the better the moves are ordered
+	 * and the fewer moves are searched at each node.
+	 * @return First move cutoff rate between 0 and 1.
+	 */
+	public double getFirstMoveCutoffRate() {
+		if (cutoffs == 0) {
+			return 0;
+		}
+		return (double) firstCutoffs / cutoffs;
+	}
+
+	/**
+	 * Getter method for the score of the last search.
+	 * @return Score for the player to move at the root.
+	 */
+	public int getScore() {
+		return this.score;
+	}
+
+	/**
+	 * Method to analyze the given board on a function which returns the
+	 * boards value to the caller. Each piece is scored on its distance
+	 * to the center, its row, how well it is covered and whether it is
+	 * a king; the player's pieces count for and the opponent's against.
+	 * @param board The board to apply the function against.
+	 * @param p Player the value is given for.
+	 * @return The derived value of the given board.
+	 */
+	public static int analyzeStaticBoard(final CheckersPiece[][] board,
+			final Player p) {
+		int posVal = 0;
+		int negVal = 0;
+		int locVal = 0;
+		CheckersPiece temp;
+
+		for (int x = 0; x < board.length; x++) {
+			for (int y = 0; y < board.length; y++) {
+				if (board[x][y] != null) {
+					//Average distance to the center.
+					locVal = (Math.abs((x + 1) - 4)
+							+ Math.abs((y + 1) - 4))
+							/ 2;
+					temp = board[x][y];
+					int value = locVal + calcPos(board, x, y);
+					if (temp.getOwner() == Player.BLACK) {
+						value += 7 - x;
+					} else {
+						value += x;
+					}
+					if (temp.isKinged()) {
+						value += 2;
+					} else {
+						value += 1;
+					}
+					if (temp.getOwner() == p) {
+						posVal += value;
+					} else {
+						negVal += value;
+					}
+				}
+			}
+		}
+		return (posVal - negVal);
+	}
+
+	/**
+	 * Helper method to check whether the piece at that location
+	 * can be jumped. Squares behind a man weigh more than the
+	 * squares in front of it.
+	 * @param board Current board state.
+	 * @param x Vertical position of the piece on the board.
+	 * @param y Horizontal position of the piece on the board.
+	 * @return Weighted value for whether the piece can be jumped.
+	 */
+	private static int calcPos(final CheckersPiece[][]
+			board, final int x, final int y) {
+		//If piece is near the edges then it is safe.
+		if ((x < 1 || x > 6) || (y < 1 || y > 6)) {
+			return 4;
+		}
+		CheckersPiece piece = board[x][y];
+		//Black pieces start at the top, white at the bottom.
+		int back;
+		if (piece.getOwner() == Player.BLACK) {
+			back = -1;
+		} else {
+			back = 1;
+		}
+		return cover(board, piece, x + back, y - 1, 2)
+				+ cover(board, piece, x + back, y + 1, 2)
+				+ cover(board, piece, x - back, y + 1, 1)
+				+ cover(board, piece, x - back, y - 1, 1);
+	}
+
+	/**
+	 * Scores one neighbouring square of a piece.
+	 * @param board Current board state.
+	 * @param piece Piece being scored.
+	 * @param x Vertical position of the neighbour.
+	 * @param y Horizontal position of the neighbour.
+	 * @param penalty Amount lost if a man is uncovered there.
+	 * @return One if the square is covered or the piece is a king,
+	 * otherwise the negative penalty.
+	 */
+	private static int cover(final CheckersPiece[][] board,
+			final CheckersPiece piece, final int x, final int y,
+			final int penalty) {
+		if (board[x][y] != null
+				&& board[x][y].getOwner() == piece.getOwner()) {
+			return 1;
+		}
+		if (piece.isKinged()) {
+			return 1;
+		}
+		return -penalty;
+	}
+}
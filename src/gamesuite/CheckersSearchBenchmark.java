@@ -0,0 +1,120 @@
+package gamesuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.lang3.SerializationUtils;
+
+/**
+ * Measures how the parallel checkers search scales with threads. A set
+ * of positions, the start position and a few reached by seeded random
+ * play, is searched to a fixed depth with one thread, then two and so
+ * on, each time with an empty table. For every thread count the time
+ * to depth, the nodes per second and the speedup over one thread are
+ * printed.
+ * <p>
+ * Usage: CheckersSearchBenchmark [depth] [threads] [megabytes]
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public final class CheckersSearchBenchmark {
+
+	/** Depth searched when none is given. */
+	private static final int DEFAULT_DEPTH = 12;
+	/** Table size used when none is given. */
+	private static final int DEFAULT_MEGABYTES = 64;
+	/** Number of random positions searched besides the start. */
+	private static final int POSITIONS = 3;
+	/** Random moves played to reach each position. */
+	private static final int OPENING_PLIES = 10;
+	/** Seed for the random positions so every run searches the same. */
+	private static final long SEED = 42;
+	/** Nanoseconds in a millisecond. */
+	private static final double MILLIS = 1e6;
+
+	/**
+	 * Private constructor, the class only has a main method.
+	 */
+	private CheckersSearchBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * @param args Depth, largest thread count and table megabytes.
+	 */
+	public static void main(final String[] args) {
+		int depth = DEFAULT_DEPTH;
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		int megabytes = DEFAULT_MEGABYTES;
+		if (args.length > 0) {
+			depth = Integer.parseInt(args[0]);
+		}
+		if (args.length > 1) {
+			maxThreads = Integer.parseInt(args[1]);
+		}
+		if (args.length > 2) {
+			megabytes = Integer.parseInt(args[2]);
+		}
+		List<CheckersModel> positions = positions();
+		//Warms up the JIT so the first row is not penalised.
+		run(positions, Math.max(1, depth - 2), 1, megabytes);
+
+		System.out.println("threads   time(ms)      nodes   nodes/s  speedup");
+		double base = 0;
+		for (int t = 1; t <= maxThreads; t++) {
+			long[] result = run(positions, depth, t, megabytes);
+			double ms = result[0] / MILLIS;
+			if (t == 1) {
+				base = ms;
+			}
+			System.out.printf("%7d %10.1f %10d %9.0f %8.2f%n", t, ms,
+					result[1], result[1] / (ms / 1000), base / ms);
+		}
+	}
+
+	/**
+	 * Searches every position to the depth on the given threads.
+	 * @param positions Positions to search.
+	 * @param depth Depth to search to.
+	 * @param threads Number of threads to search with.
+	 * @param megabytes Table size for each position.
+	 * @return Total nanoseconds taken and total nodes searched.
+	 */
+	private static long[] run(final List<CheckersModel> positions,
+			final int depth, final int threads, final int megabytes) {
+		long time = 0;
+		long nodes = 0;
+		for (CheckersModel p : positions) {
+			CheckersModel m = SerializationUtils.clone(p);
+			CheckersParallelSearch search = new CheckersParallelSearch(
+					new CheckersTranspositionTable(megabytes), threads);
+			long start = System.nanoTime();
+			search.search(m, depth, 0);
+			time += System.nanoTime() - start;
+			nodes += search.getNodes();
+		}
+		return new long[] {time, nodes};
+	}
+
+	/**
+	 * Builds the positions searched by the benchmark.
+	 * @return Start position followed by the random positions.
+	 */
+	private static List<CheckersModel> positions() {
+		List<CheckersModel> list = new ArrayList<CheckersModel>();
+		list.add(new CheckersModel());
+		Random rand = new Random(SEED);
+		while (list.size() <= POSITIONS) {
+			CheckersModel m = new CheckersModel();
+			for (int i = 0; i < OPENING_PLIES && !m.isGameOver()
+					&& !m.getStalemate(); i++) {
+				List<Move> moves = m.getMoveList();
+				m.makeMove(moves.get(rand.nextInt(moves.size())));
+			}
+			if (!m.isGameOver() && !m.getStalemate()) {
+				list.add(m);
+			}
+		}
+		return list;
+	}
+}
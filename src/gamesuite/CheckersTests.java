@@ -127,5 +127,157 @@ public class CheckersTests {
 		game.setupTest("GameOver");
 		assertTrue(game.gameOver());
 	}
+	
+	@Test
+	public void applyUndoTest() {
+		CheckersModel model = new CheckersModel();
+		model.testSetup("MultiJump1");
+		Move jump = model.getMoveList().get(0);
+		assertTrue(model.applyMove(jump));
+		assertNull(model.getPiece(1, 1));
+		assertNull(model.getPiece(3, 3));
+		assertTrue(model.getPlayer() == Player.WHITE);
+		model.undoMove();
+		assertTrue(model.getPiece(1, 1).getOwner() == Player.WHITE);
+		assertTrue(model.getPiece(3, 3).getOwner() == Player.WHITE);
+		assertTrue(model.getPiece(0, 0).getOwner() == Player.BLACK);
+		assertNull(model.getPiece(4, 4));
+		assertTrue(model.getPlayer() == Player.BLACK);
+		assertTrue(model.getMoveList().get(0) == jump);
+	}
+	
+	@Test
+	public void hashTest() {
+		CheckersModel a = new CheckersModel();
+		CheckersModel b = new CheckersModel();
+		long start = a.getHash();
+		a.applyMove(new Move(5, 1, 4, 0));
+		a.applyMove(new Move(2, 0, 3, 1));
+		a.applyMove(new Move(5, 3, 4, 4));
+		b.applyMove(new Move(5, 3, 4, 4));
+		b.applyMove(new Move(2, 0, 3, 1));
+		b.applyMove(new Move(5, 1, 4, 0));
+		assertEquals(a.getHash(), b.getHash());
+		a.undoMove();
+		a.undoMove();
+		a.undoMove();
+		assertEquals(start, a.getHash());
+	}
+	
+	@Test
+	public void tableTest() {
+		CheckersTranspositionTable t = new CheckersTranspositionTable(1);
+		assertEquals(1 << 16, t.getCapacity());
+		Move m = new Move(5, 1, 4, 0);
+		t.store(12345L, 3, CheckersTranspositionTable.LOWER, -42, m);
+		long e = t.probe(12345L);
+		assertEquals(-42, CheckersTranspositionTable.getScore(e));
+		assertEquals(3, CheckersTranspositionTable.getDepth(e));
+		assertEquals(CheckersTranspositionTable.LOWER,
+				CheckersTranspositionTable.getBound(e));
+		assertTrue(CheckersTranspositionTable.isBestMove(e, m));
+		assertEquals(0, t.probe(54321L));
+		assertTrue(t.getHitRate() == 0.5);
+		assertTrue(t.getOccupancy() > 0);
+	}
+	
+	@Test
+	public void searchFindsJumpTest() {
+		CheckersModel model = new CheckersModel();
+		model.testSetup("MultiJump1");
+		CheckersSearch search =
+				new CheckersSearch(new CheckersTranspositionTable(1));
+		search.search(model, 4);
+		Move best = search.getBestMove();
+		assertTrue(best.getToX() == 4 && best.getToY() == 4);
+		assertTrue(search.getNodes() > 0);
+		assertFalse(search.getPrincipalVariation().isEmpty());
+	}
+	
+	@Test
+	public void quiescenceTest() {
+		CheckersModel model = new CheckersModel();
+		assertFalse(model.hasJump());
+		CheckersSearch search =
+				new CheckersSearch(new CheckersTranspositionTable(1));
+		search.search(model, 3);
+		assertTrue(search.getQuietNodes() > 0);
+		assertTrue(search.getQuietNodes() < search.getNodes());
+		model.testSetup("MultiJump1");
+		assertTrue(model.hasJump());
+	}
+
+	@Test
+	public void moveOrderingTest() {
+		CheckersModel model = new CheckersModel();
+		CheckersSearch search =
+				new CheckersSearch(new CheckersTranspositionTable(1));
+		search.search(model, 6);
+		assertTrue(search.getCutoffs() > 0);
+		assertTrue(search.getFirstMoveCutoffRate() > 0.5);
+		assertTrue(model.getMoveList().size() == 7);
+	}
+
+	@Test
+	public void perftTest() {
+		for (int d = 0; d <= 5; d++) {
+			assertTrue(CheckersPerft.perft(new CheckersModel(), d)
+					== CheckersPerft.START_COUNTS[d]);
+			assertTrue(CheckersPerft.perft(new CheckersBitboard(), d)
+					== CheckersPerft.START_COUNTS[d]);
+		}
+		String[] setups = {"MultiJump1", "MultiJump2", "MultiJump3"};
+		for (String s : setups) {
+			CheckersModel model = new CheckersModel();
+			CheckersBitboard board = new CheckersBitboard();
+			model.testSetup(s);
+			board.testSetup(s);
+			assertTrue(CheckersPerft.perft(model, 4)
+					== CheckersPerft.perft(board, 4));
+		}
+	}
+
+	@Test
+	public void parallelSearchTest() {
+		CheckersModel model = new CheckersModel();
+		model.testSetup("MultiJump1");
+		long hash = model.getHash();
+		CheckersParallelSearch search = new CheckersParallelSearch(
+				new CheckersTranspositionTable(1), 3);
+		search.search(model, 6, 0);
+		Move best = search.getBestMove();
+		assertTrue(best.getToX() == 4 && best.getToY() == 4);
+		assertTrue(search.getDepthReached() > 0);
+		assertTrue(search.getNodes() > 0);
+		assertTrue(model.getHash() == hash);
+	}
+
+	@Test
+	public void aiMoveTest() {
+		CheckersModel model = new CheckersModel();
+		CheckersAI ai = new CheckersAI(model);
+		model.makeMove(new Move(5, 1, 4, 0));
+		ai.yourMove();
+		model.makeMove(model.getMoveList().get(0));
+		ai.yourMove();
+		assertTrue(model.getPlayer() == Player.WHITE);
+		assertTrue(ai.getNodesSearched() > 0);
+	}
+
+	@Test
+	public void timeBudgetTest() {
+		CheckersModel model = new CheckersModel();
+		CheckersSearch search = new CheckersSearch(
+				new CheckersTranspositionTable(1));
+		long start = System.currentTimeMillis();
+		search.search(model, CheckersSearch.MAX_PLY, 100);
+		long spent = System.currentTimeMillis() - start;
+		assertTrue(spent < 1000);
+		assertTrue(search.getDepthReached() > 0);
+		assertTrue(search.getDepthReached() < CheckersSearch.MAX_PLY);
+		assertTrue(model.checkMove(search.getBestMove()));
+		assertTrue(search.getPrincipalVariation().get(0)
+				== search.getBestMove());
+	}
 }
 //CHECKSTYLE:ON
@@ -0,0 +1,310 @@
+package gamesuite;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed size transposition table for the checkers search. Results are
+ * stored by the Zobrist hash of CheckersModel in a power of two number
+ * of slots, one result per slot, packed into two longs so the table
+ * holds no objects. Each result keeps the depth searched, the kind of
+ * bound, the score and the best move. The table keeps counts of probes
+ * and hits so it can be sized for a given memory budget.
+ * <p>
+ * The table may be shared by several search threads without locking.
+ * Each slot's key is stored combined with its data, so a slot torn by
+ * two threads writing at once no longer matches its position and is
+ * read as a miss.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class CheckersTranspositionTable {
+
+	/** Score is the exact value of the position. */
+	public static final int EXACT = 0;
+	/** Score is a lower bound, the search failed high. */
+	public static final int LOWER = 1;
+	/** Score is an upper bound, the search failed low. */
+	public static final int UPPER = 2;
+	/** Bytes used by each slot. */
+	public static final int ENTRY_BYTES = 16;
+	/** Bytes in a megabyte. */
+	private static final int MEGABYTE = 1 << 20;
+	/** Bit marking a slot as used. */
+	private static final long USED = 1L << 63;
+	/** Position of the depth in an entry. */
+	private static final int DEPTH_SHIFT = 32;
+	/** Position of the bound in an entry. */
+	private static final int BOUND_SHIFT = 40;
+	/** Position of the move in an entry. */
+	private static final int MOVE_SHIFT = 42;
+	/** Bit marking that an entry has a move. */
+	private static final long HAS_MOVE = 1L << 54;
+	/** Position of the search age in an entry. */
+	private static final int AGE_SHIFT = 55;
+	/** Largest depth and age an entry can hold. */
+	private static final int BYTE = 0xFF;
+
+	/** Hash of each slot's position combined with its data. */
+	private long[] keys;
+	/** Packed result held in each slot. */
+	private long[] data;
+	/** Mask taking a hash to its slot. */
+	private int mask;
+	/** How new results replace older ones. */
+	private ReplacementPolicy policy;
+	/** Age of the current search, read by every searching thread. */
+	private volatile int age;
+	/** Number of slots in use. */
+	private LongAdder used;
+	/** Number of lookups made. */
+	private LongAdder probes;
+	/** Number of lookups that found their position. */
+	private LongAdder hits;
+	/** Number of results stored. */
+	private LongAdder stores;
+
+	/**
+	 * Constructor for a table using the aged replacement policy.
+	 * @param megabytes Memory budget for the table.
+	 */
+	public CheckersTranspositionTable(final int megabytes) {
+		this(megabytes, ReplacementPolicy.AGED);
+	}
+
+	/**
+	 * Constructor for a table with the largest power of two number
+	 * of slots that fits into the memory budget.
+	 * @param megabytes Memory budget for the table.
+	 * @param p Replacement policy for full slots.
+	 */
+	public CheckersTranspositionTable(final int megabytes,
+			final ReplacementPolicy p) {
+		long budget = Math.max(1L, megabytes) * MEGABYTE;
+		long slots = Long.highestOneBit(budget / ENTRY_BYTES);
+		slots = Math.min(slots, 1L << 30);
+		this.keys = new long[(int) slots];
+		this.data = new long[(int) slots];
+		this.mask = (int) slots - 1;
+		this.policy = p;
+		this.used = new LongAdder();
+		this.probes = new LongAdder();
+		this.hits = new LongAdder();
+		this.stores = new LongAdder();
+	}
+
+	/**
+	 * Looks up the position with the given hash.
+	 * @param key Zobrist hash of the position.
+	 * @return Packed entry for the position, or 0 if it is not held.
+	 */
+	public long probe(final long key) {
+		probes.increment();
+		int i = (int) key & mask;
+		long d = data[i];
+		if (d != 0 && (keys[i] ^ d) == key) {
+			hits.increment();
+			return d;
+		}
+		return 0;
+	}
+
+	/**
+	 * Stores a search result if the replacement policy allows it.
+	 * @param key Zobrist hash of the position.
+	 * @param depth Depth the position was searched to.
+	 * @param bound Kind of bound the score is.
+	 * @param score Score of the position.
+	 * @param best Best move found, or null.
+	 */
+	public void store(final long key, final int depth, final int bound,
+			final int score, final Move best) {
+		int i = (int) key & mask;
+		long old = data[i];
+		if (old == 0) {
+			used.increment();
+		} else if ((keys[i] ^ old) != key && !replaces(old, depth)) {
+			return;
+		}
+		long d = USED | (score & 0xFFFFFFFFL)
+				| ((long) Math.min(depth, BYTE) << DEPTH_SHIFT)
+				| ((long) bound << BOUND_SHIFT)
+				| ((long) age << AGE_SHIFT);
+		if (best != null) {
+			d |= HAS_MOVE | ((long) encode(best) << MOVE_SHIFT);
+		}
+		stores.increment();
+		data[i] = d;
+		keys[i] = key ^ d;
+	}
+
+	/**
+	 * Decides whether a new result may replace an entry held for a
+	 * different position.
+	 * @param old Entry in the slot.
+	 * @param depth Depth of the new result.
+	 * @return True if the slot should take the new result.
+	 */
+	private boolean replaces(final long old, final int depth) {
+		switch (policy) {
+		case ALWAYS:
+			return true;
+		case AGED:
+			if (getAge(old) != age) {
+				return true;
+			}
+			return depth >= getDepth(old);
+		default:
+			return depth >= getDepth(old);
+		}
+	}
+
+	/**
+	 * Packs a move into twelve bits, three bits for each coordinate.
+	 * @param m Move to pack.
+	 * @return Packed move.
+	 */
+	public static int encode(final Move m) {
+		return (m.getFromX() << 9) | (m.getFromY() << 6)
+				| (m.getToX() << 3) | m.getToY();
+	}
+
+	/**
+	 * Starts a new search, making entries from earlier searches
+	 * older than the ones that follow.
+	 */
+	public void newSearch() {
+		age = (age + 1) & BYTE;
+	}
+
+	/**
+	 * Empties the table and resets its counters.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, 0);
+		used.reset();
+		probes.reset();
+		hits.reset();
+		stores.reset();
+	}
+
+	/**
+	 * Gets the score held in an entry.
+	 * @param entry Packed entry.
+	 * @return Score of the position.
+	 */
+	public static int getScore(final long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Gets the depth held in an entry.
+	 * @param entry Packed entry.
+	 * @return Depth the position was searched to.
+	 */
+	public static int getDepth(final long entry) {
+		return (int) (entry >>> DEPTH_SHIFT) & BYTE;
+	}
+
+	/**
+	 * Gets the kind of bound held in an entry.
+	 * @param entry Packed entry.
+	 * @return EXACT, LOWER or UPPER.
+	 */
+	public static int getBound(final long entry) {
+		return (int) (entry >>> BOUND_SHIFT) & 3;
+	}
+
+	/**
+	 * Gets the age of the search that stored an entry.
+	 * @param entry Packed entry.
+	 * @return Search age.
+	 */
+	private static int getAge(final long entry) {
+		return (int) (entry >>> AGE_SHIFT) & BYTE;
+	}
+
+	/**
+	 * Checks whether the move is the best move held in an entry.
+	 * @param entry Packed entry.
+	 * @param m Move to compare.
+	 * @return True if the entry holds a best move equal to m.
+	 */
+	public static boolean isBestMove(final long entry, final Move m) {
+		if ((entry & HAS_MOVE) == 0) {
+			return false;
+		}
+		return ((entry >>> MOVE_SHIFT) & 0xFFF) == encode(m);
+	}
+
+	/**
+	 * Getter method for the number of slots.
+	 * @return Number of slots in the table.
+	 */
+	public int getCapacity() {
+		return this.mask + 1;
+	}
+
+	/**
+	 * Getter method for the memory held by the table.
+	 * @return Size of the table in bytes.
+	 */
+	public long getSizeBytes() {
+		return (long) getCapacity() * ENTRY_BYTES;
+	}
+
+	/**
+	 * Getter method for the fraction of slots in use.
+	 * @return Occupancy between 0 and 1.
+	 */
+	public double getOccupancy() {
+		return (double) used.sum() / getCapacity();
+	}
+
+	/**
+	 * Getter method for the fraction of lookups that found their
+	 * position.
+	 * @return Hit rate between 0 and 1.
+	 */
+	public double getHitRate() {
+		long p = probes.sum();
+		if (p == 0) {
+			return 0;
+		}
+		return (double) hits.sum() / p;
+	}
+
+	/**
+	 * Getter method for the number of lookups made.
+	 * @return Number of probes.
+	 */
+	public long getProbes() {
+		return this.probes.sum();
+	}
+
+	/**
+	 * Getter method for the number of lookups that found their
+	 * position.
+	 * @return Number of hits.
+	 */
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * Getter method for the number of results stored.
+	 * @return Number of stores.
+	 */
+	public long getStores() {
+		return this.stores.sum();
+	}
+
+	/**
+	 * Getter method for the replacement policy.
+	 * @return How new results replace older ones.
+	 */
+	public ReplacementPolicy getPolicy() {
+		return this.policy;
+	}
+}
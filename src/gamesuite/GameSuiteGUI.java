@@ -261,8 +261,9 @@ public class GameSuiteGUI extends JPanel {
 					checkersPanel.resetColor();
 					checkersPanel.showMoveablePieces();
 					checkersPanel.repaint();
-				} else if (game instanceof Othello) {
+				} else if (game instanceof OthelloController) {
 					othelloPanel.displayBoard();
+					othelloPanel.resetColor();
 					othelloPanel.showMoves();
 					othelloPanel.repaint();
 				} else if (game instanceof SudokuLogic) {
@@ -7,6 +7,8 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,6 +20,26 @@ import java.io.Serializable;
  */
 public class Othello implements IGameLogic, Serializable {
 	
+	/** Serial coding, set when the disc masks and the frontier were
+	 * added, so saves from before then are refused on load. */
+	private static final long serialVersionUID = 2L;
+	
+	/** Steps in x and y of the eight directions a disc can turn. */
+	private static final int[][] DIRECTIONS = {
+		{1, 0}, {-1, 0}, {0, 1}, {0, -1},
+		{1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+	};
+	
+	/** Board sizes the game can be played on. */
+	public static final int[] SIZES = {6, 8, 10, 12, 16};
+	
+	/** Largest board size whose rays are kept once built. */
+	private static final int MAX_CACHED_SIZE = 32;
+	
+	/** Rays of each board size built so far, indexed by size. */
+	private static final int[][][][][] RAYS =
+			new int[MAX_CACHED_SIZE + 1][][][][];
+	
 	/** Current board status of the game. */
 	private OthelloPiece[][] board;
 	
@@ -36,10 +58,21 @@ public class Othello implements IGameLogic, Serializable {
 	/** Count for the number of pieces for player. */
 	private int whiteCount, blackCount;
 	
+	/** Bitboard masks of each player's discs on an 8 by 8 board. */
+	private long whiteDiscs, blackDiscs;
+	
+	/** Empty squares next to a disc, square x * size + y, kept for
+	 * boards without bitboards since only they can be moves. */
+	private BitSet frontier;
+	
+	/** Rays of each square for this board size, built when needed. */
+	private transient int[][][][] rayTable;
+	
+	/** Collection of moves available on turn. */
 	private List<OthelloMove> moves;
 	
+	/** Result boards of this turn's moves, filled as they are asked for. */
 	private Map<OthelloMove, OthelloPiece[][]> move;
-	/** Collection of moves available on turn. */
 	
 	/** Computer player for the game. */
 	private OthelloAI comp;
@@ -52,14 +85,27 @@ public class Othello implements IGameLogic, Serializable {
 	 * Constructor for Othello, begins Othello game. 
 	 */
 	public Othello() {
+		this(OthelloBitboard.SIZE);
+	}
+	
+	/** 
+	 * Constructor for Othello on a board of the given size, with the
+	 * four starting discs in the centre.
+	 * @param n Width and height of the board, even and at least 4.
+	 */
+	public Othello(final int n) {
+		if (n < 4 || (n & 1) != 0) {
+			throw new IllegalArgumentException("Board size must be even"
+					+ " and at least 4.");
+		}
 		this.move = new HashMap<OthelloMove, OthelloPiece[][]>();
 		this.moves = new ArrayList<OthelloMove>();
-		this.size = 8;
+		this.size = n;
 		this.gameover = false;
 		this.createBoard();
 		this.player = Player.BLACK;
-		this.moves = new ArrayList<OthelloMove>();
 		this.countPieces();
+		this.updateMoves();
 	}
 	
 	/**
@@ -68,10 +114,12 @@ public class Othello implements IGameLogic, Serializable {
 	private void createBoard() {
 		this.board = new OthelloPiece[size][size];
 		// setup initial board conditions
-		board[4][4] = new OthelloPiece(Player.WHITE);
-		board[3][3] = new OthelloPiece(Player.WHITE);
-		board[3][4] = new OthelloPiece(Player.BLACK);
-		board[4][3] = new OthelloPiece(Player.BLACK);
+		int mid = size / 2;
+		board[mid][mid] = new OthelloPiece(Player.WHITE);
+		board[mid - 1][mid - 1] = new OthelloPiece(Player.WHITE);
+		board[mid - 1][mid] = new OthelloPiece(Player.BLACK);
+		board[mid][mid - 1] = new OthelloPiece(Player.BLACK);
+		this.syncDiscs();
 	}
 	
 	/** Allows user to set whether or not they are
@@ -90,12 +138,21 @@ public class Othello implements IGameLogic, Serializable {
 	 * subsequent board states.
 	 */
 	private void findMoves() {
-		for (int i = 0; i < size; i++){
-			for (int j = 0; j < size; j++){
-				if(validMove(i, j, player)){
-					OthelloMove m = new OthelloMove(i, j);
-					moves.add(m);
-				}
+		moves.clear();
+		if (size == OthelloBitboard.SIZE) {
+			long m = OthelloBitboard.moves(discs(player),
+					discs(opponent(player)));
+			while (m != 0) {
+				int sq = Long.numberOfTrailingZeros(m);
+				m &= m - 1;
+				moves.add(new OthelloMove(sq / size, sq % size));
+			}
+			return;
+		}
+		for (int sq = frontier.nextSetBit(0); sq >= 0;
+				sq = frontier.nextSetBit(sq + 1)) {
+			if (validMove(sq / size, sq % size, player)) {
+				moves.add(new OthelloMove(sq / size, sq % size));
 			}
 		}
 	}
@@ -117,9 +174,6 @@ public class Othello implements IGameLogic, Serializable {
 	public boolean makeMove(final OthelloMove m) {
 		if (this.validMove(m)) {
 			this.makeMove(m.getX(), m.getY());
-			this.moves.clear();
-			this.findMoves();
-			this.gameover = this.isGameOver();
 			return true;
 		} else {
 			return false;
@@ -145,6 +199,10 @@ public class Othello implements IGameLogic, Serializable {
 	public void setPiece(final int x, final int y, 
 			final Player p) {
 		board[x][y] = new OthelloPiece(p);
+		this.syncDiscs();
+		this.move.clear();
+		this.countPieces();
+		this.updateMoves();
 	}
 	
 	/**
@@ -154,16 +212,7 @@ public class Othello implements IGameLogic, Serializable {
 	 * False otherwise.
 	 */
 	public boolean isGameOver() {
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				if (validMove(i, j, Player.WHITE) 
-						|| 
-						validMove(i, j, Player.BLACK)) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return this.gameover;
 	}
 	
 	/**
@@ -173,279 +222,60 @@ public class Othello implements IGameLogic, Serializable {
 	 * False otherwise.
 	 */
 	public boolean isEndTurn() {
-		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				if (validMove(i, j, player)) {
-					return false;
-				}
-			}
-		}
-		return true;
-	}
-	
-	@Override
-	public final boolean isMove(final Move m) {
-		return false;
-	}
-	
-	@Override
-	public final boolean isMove(final int x, final int y) {
-		if (validMove(x, y, player)) {
-			return true;
-		}
-		return false;
+		return this.moves.isEmpty();
 	}
 	
 	/**
-	 * Adjusts the current board to represent the board
-	 * after the move has been made in the x++ directions.
-	 * @param x position of the move checking
-	 * @param y position of the move checking
+	 * Lists the moves of the player to move and works out from them
+	 * whether the game is over. Called whenever the board or the turn
+	 * changes, so the list and the flag are always current.
 	 */
-	public void makeMoveRight(final int x, final int y) {
-		int j;
-		OthelloPiece p = new OthelloPiece(player);
-		board[x][y] = p;
-		if (board[x + 1][y]  
-				!= null
-				&& board[x + 1][y].getOwner() != player) {
-			for (int i = x + 2; i < size; i++) {
-				if (board[i][y] == null) {
-					break;
-				}
-				if (board[i][y].getOwner() == player) {
-					for (j = i - 1; j > x; j--) {
-						board[j][y].switchOwner();
-					}
-					break;
-				}
-			}
-		}
-	}
-	
-	/**
-	 * Adjusts the current board to represent the board
-	 * after the move has been made in the x-- directions.
-	 * @param x position of the move checking
-	 * @param y position of the move checking
-	 */
-	public void makeMoveLeft(final int x, final int y) {
-		int j;
-		OthelloPiece p = new OthelloPiece(player);
-		board[x][y] = p;
-		if (board[x - 1][y] 
-				!= null && board[x - 1][y].getOwner() 
-				!= player) {
-			for (int i = x - 2; i >= 0; i--) {
-				if (board[i][y] == null) {
-					break;
-				}
-				if (board[i][y].getOwner() == player) {
-					for (j = i + 1; j < x; j++) {
-						board[j][y].switchOwner();
-					}
-					break;
-				}
-			}
-		}
-	}
-	
-	/**
-	 * Adjusts the current board to represent the board
-	 * after the move has been made in the y++ directions.
-	 * @param x position of the move checking
-	 * @param y position of the move checking
-	 */
-	public void makeMoveUp(final int x, final int y) {
-		int j;
-		OthelloPiece p = new OthelloPiece(player);
-		board[x][y] = p;
-		if (board[x][y - 1] 
-				!= null 
-				&& board[x][y - 1].getOwner() != player) {
-			for (int i = y - 2; i > 0; i--) {
-				if (board[x][i] == null) { 
-					break;
-				}
-				if (board[x][i].getOwner() == player) {
-					for (j = i + 1; j < y; j++) {
-						board[x][j].switchOwner();
-					}
-					break;
-				}
-			}
-		}
+	private void updateMoves() {
+		findMoves();
+		gameover = moves.isEmpty() && !hasAnyMove(opponent(player));
 	}
 	
 	/**
-	 * Adjusts the current board to represent the board
-	 * after the move has been made in the y++ directions.
-	 * @param x position of the move checking
-	 * @param y position of the move checking
+	 * Finds the moves of the player to move again, leaving the
+	 * position as it is. Lets the benchmarks time move generation on
+	 * its own.
+	 * @return Number of moves found.
 	 */
-	public void makeMoveDown(final int x, final int y) {
-		int j;
-		OthelloPiece p = new OthelloPiece(player);
-		board[x][y] = p;
-		if (board[x][y + 1] 
-				!= null 
-				&& board[x][y + 1].getOwner() != player) {
-			for (int i = y + 2; i < size; i++) {
-				if (board[x][i] == null) { 
-					break;
-				}
-				if (board[x][i].getOwner() == player) {
-					for (j = i - 1; j > y; j--) {
-						board[x][j].switchOwner();
-					}
-					break;
-				}
-			}
-		}
+	int regenerateMoves() {
+		this.move.clear();
+		findMoves();
+		return moves.size();
 	}
 	
 	/**
-	 * Adjusts the current board to represent the board
-	 * after the move has been made in the y-- directions.
-	 * @param x position of the move checking
-	 * @param y position of the move checking
+	 * Checks whether a player has any move, stopping at the first.
+	 * @param p Player to check.
+	 * @return True if the player can move.
 	 */
-	public void makeMoveDownRight(final int x, final int y) {
-		int j = y + 2, m, n;
-		OthelloPiece p = new OthelloPiece(player);
-		board[x][y] = p;
-		if (board[x + 1][y + 1]
-				!= null 
-				&& board[x + 1][y + 1].getOwner() != player) {
-			for (int i = x + 2; i < size; i++) {
-				if (j >= size) {
-					break;
-				}
-				if (board[i][j] == null) {
-					break;
-				}
-				if (board[i][j].getOwner() == player) {
-					m = i - 1;
-					for (n = j - 1; n > y; n--) {
-						if (m == x) {
-							break;
-						}
-						board[m][n].switchOwner();
-						m--;
-					}
-					break;
-				}
-				j++;
-			}
+	private boolean hasAnyMove(final Player p) {
+		if (size == OthelloBitboard.SIZE) {
+			return OthelloBitboard.moves(discs(p), discs(opponent(p))) != 0;
 		}
-	}
-	
-	/**
-	 * Adjusts the current board to represent the board
-	 * after the move has been made in the y-- directions.
-	 * @param x position of the move checking
-	 * @param y position of the move checking
-	 */
-	public void makeMoveDownLeft(final int x, final int y) {
-		int j = y + 2, m, n;
-		OthelloPiece p = new OthelloPiece(player);
-		board[x][y] = p;
-		if (board[x - 1][y + 1]
-				!= null 
-				&& board[x - 1][y + 1].getOwner() != player) {
-			for (int i = x - 2; i >= 0; i--) {
-				if (j >= size) {
-					break;
-				}
-				if (board[i][j] == null) {
-					break;
-				}
-				if (board[i][j].getOwner() == player) {
-					m = i + 1;
-					for (n = j - 1; n > y; n--) {
-						if (m == x) { 
-							break;
-						}
-						board[m][n].switchOwner();
-						m++;
-					}
-					break;
-				}
-				j++;
+		for (int sq = frontier.nextSetBit(0); sq >= 0;
+				sq = frontier.nextSetBit(sq + 1)) {
+			if (validMove(sq / size, sq % size, p)) {
+				return true;
 			}
 		}
+		return false;
 	}
 	
-	/**
-	 * Adjusts the current board to represent the board
-	 * after the move has been made in the y-- directions.
-	 * @param x position of the move checking
-	 * @param y position of the move checking
-	 */
-	public void makeMoveUpLeft(final int x, final int y) {
-		int j = y - 2, m, n;
-		OthelloPiece p = new OthelloPiece(player);
-		board[x][y] = p;
-		if (board[x - 1][y - 1]
-				!= null 
-				&& board[x - 1][y - 1].getOwner() != player) {
-			for (int i = x - 2; i >= 0; i--) {
-				if (j < 0) {
-					break;
-				}
-				if (board[i][j] == null) {
-					break;
-				}
-				if (board[i][j].getOwner() == player) {
-					m = i + 1;
-					for (n = j + 1; n < y; n++) {
-						if (m == x) {
-							break;
-						}
-						board[m][n].switchOwner();
-						m++;
-					}
-					break;
-				}
-				j--;
-			}
-		}
+	@Override
+	public final boolean isMove(final Move m) {
+		return false;
 	}
 	
-	/**
-	 * Adjusts the current board to represent the board
-	 * after the move has been made in the y-- directions.
-	 * @param x position of the move checking
-	 * @param y position of the move checking
-	 */
-	public void makeMoveUpRight(final int x, final int y) {
-		int j = y - 2, m, n;
-		OthelloPiece p = new OthelloPiece(player);
-		board[x][y] = p;
-		if (board[x + 1][y - 1] 
-				!= null 
-				&& board[x + 1][y - 1].getOwner() != player) {
-			for (int i = x + 2; i < board.length; i++) {
-				if (j < 0) {
-					break;
-				}
-				if (board[i][j] == null) {
-					break;
-				}
-				if (board[i][j].getOwner() == player) {
-					m = i - 1;
-					for (n = j + 1; n < y; n++) {
-						if (m == x) { 
-							break;
-						}
-						board[m][n].switchOwner();
-						m--;
-					}
-					break;
-				}
-				j--;
-			}
+	@Override
+	public final boolean isMove(final int x, final int y) {
+		if (validMove(x, y, player)) {
+			return true;
 		}
+		return false;
 	}
 	
 	/**
@@ -458,67 +288,98 @@ public class Othello implements IGameLogic, Serializable {
 		if (!isMove(x, y)) {
 			if (this.isEndTurn()) {
 				this.nextTurn();
+				this.updateMoves();
 			}
 			return;
 		}
 		
-		if (x < size - 2) {
-			if (validMoveRight(x, y, player)) {
-				makeMoveRight(x, y);
-			}
-		}
-		
-		if (x > 2) {
-			if (validMoveLeft(x, y, player)) {
-				makeMoveLeft(x, y);
-			}
+		int turned;
+		if (size == OthelloBitboard.SIZE) {
+			turned = flip(x, y);
+		} else {
+			turned = flipRays(x, y);
 		}
-		
-		if (y > 2) {
-			if (validMoveUp(x, y, player)) {
-				makeMoveUp(x, y);
-			}
+		if (player == Player.WHITE) {
+			whiteCount += turned + 1;
+			blackCount -= turned;
+		} else {
+			blackCount += turned + 1;
+			whiteCount -= turned;
 		}
 		
-		if (y < size - 2) {
-			if (validMoveDown(x, y, player)) {
-				makeMoveDown(x, y);
-			}
+		this.nextTurn();
+		this.updateMoves();
+		//A player without moves passes, and at the end of the game
+		//the turn goes back to the last player to move.
+		if (isEndTurn()) {
+			this.nextTurn();
+			this.updateMoves();
 		}
 		
-		if (y > 2 && x < size - 2) {
-			if (validMoveUpRight(x, y, player)) {
-				makeMoveUpRight(x, y);
-			}
-		}
+		this.move.clear();
 		
-		if (y > 2 && x > 2) {
-			if (validMoveUpLeft(x, y, player)) {
-				makeMoveUpLeft(x, y);
-			}
+		this.saved = false;
+	}
+	
+	/**
+	 * Places the player's disc and turns the discs it brackets,
+	 * using the bitboard flip generator.
+	 * @param x position of the move
+	 * @param y position of the move
+	 * @return number of discs turned
+	 */
+	private int flip(final int x, final int y) {
+		long move = OthelloBitboard.square(x, y);
+		long flipped = OthelloBitboard.flips(discs(player),
+				discs(opponent(player)), move);
+		if (player == Player.WHITE) {
+			whiteDiscs |= move | flipped;
+			blackDiscs &= ~flipped;
+		} else {
+			blackDiscs |= move | flipped;
+			whiteDiscs &= ~flipped;
 		}
-		
-		if (y < size - 2 && x > 2) {
-			if (validMoveDownLeft(x, y, player)) {
-				makeMoveDownLeft(x, y);
-			}
+		board[x][y] = new OthelloPiece(player);
+		int turned = Long.bitCount(flipped);
+		while (flipped != 0) {
+			int sq = Long.numberOfTrailingZeros(flipped);
+			flipped &= flipped - 1;
+			board[sq / size][sq % size].switchOwner();
 		}
-		
-		if (y < size - 2 && x < size - 2) {
-			if (validMoveDownRight(x, y, player)) {
-				makeMoveDownRight(x, y);
+		return turned;
+	}
+	
+	/**
+	 * Places the player's disc and turns the discs it brackets,
+	 * scanning the rays out from the move.
+	 * @param x position of the move
+	 * @param y position of the move
+	 * @return number of discs turned
+	 */
+	private int flipRays(final int x, final int y) {
+		board[x][y] = new OthelloPiece(player);
+		addToFrontier(x, y);
+		int turned = 0;
+		for (int[] ray : rayTable()[x][y]) {
+			int run = bracketed(board, ray, player);
+			for (int i = 0; i < 2 * run; i += 2) {
+				board[ray[i]][ray[i + 1]].switchOwner();
 			}
+			turned += run;
 		}
-		
-		this.nextTurn();
-		this.gameover = isGameOver();
-		if (gameover || isEndTurn()) {
-			this.nextTurn();
+		return turned;
+	}
+	
+	/**
+	 * Gets the rays of this game's board size, kept on the game so the
+	 * scans do not take the lock of the shared cache.
+	 * @return Rays of each square.
+	 */
+	private int[][][][] rayTable() {
+		if (rayTable == null) {
+			rayTable = rays(size);
 		}
-		
-		countPieces();
-		
-		this.saved = false;
+		return rayTable;
 	}
 	
 	@Override
@@ -549,8 +410,20 @@ public class Othello implements IGameLogic, Serializable {
 		try {
 			FileInputStream strm = new FileInputStream(filename);
 			ObjectInputStream ostrm = new ObjectInputStream(strm);
-			this.board = (OthelloPiece[][]) ostrm.readObject();
+			OthelloPiece[][] loaded = (OthelloPiece[][]) ostrm.readObject();
+			if (!isBoard(loaded)) {
+				ostrm.close();
+				throw new Exception("Error in read, file corrupted.");
+			}
+			//The save may be of another size than the game.
+			this.board = loaded;
+			this.size = loaded.length;
+			this.rayTable = null;
+			this.syncDiscs();
+			this.move.clear();
 			this.player = (Player) ostrm.readObject();
+			this.countPieces();
+			this.updateMoves();
 			ostrm.close();
 			strm.close();
 		} catch (FileNotFoundException e) {
@@ -569,6 +442,31 @@ public class Othello implements IGameLogic, Serializable {
 		}
 	}
 
+	/**
+	 * Checks that a loaded board is square and of a size the game
+	 * can be played on.
+	 * @param b Board read from a save.
+	 * @return True if the board can be played.
+	 */
+	private static boolean isBoard(final OthelloPiece[][] b) {
+		if (b == null) {
+			return false;
+		}
+		boolean sized = false;
+		for (int n : SIZES) {
+			sized |= n == b.length;
+		}
+		if (!sized) {
+			return false;
+		}
+		for (OthelloPiece[] row : b) {
+			if (row == null || row.length != b.length) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Getter method to inform the display about the status of
 	 * the piece at the given location.
@@ -617,252 +515,109 @@ public class Othello implements IGameLogic, Serializable {
 	}
 	
 	/**
-	 * Switches player after turn.
+	 * Rebuilds the bitboard masks, or on other sizes the frontier, from
+	 * the board after the board has been set other than by a move.
 	 */
-	private void nextTurn() {
-		if (player == Player.WHITE) {
-			player = Player.BLACK;
-		} else {
-			player = Player.WHITE;
-		}
-	}
-	
-	/**
-	 * Getter for whether or not the current game state has been saved.
-	 * @return True if the game has been saved this turn.
-	 */
-	public boolean isSaved() {
-		return this.saved;
-	}
-
-	/**
-	 *  Allows users to reset board after getting stalemate or gameover.
-	 */
-	public void reset() {
-		this.gameover = false;
-		this.createBoard();
-		this.player = Player.WHITE;
-		this.moves.clear();
-		this.countPieces();
-	}
-	
-	/**
-	 * Determines whether a player can place a piece at the 
-	 * intended location in the x++ direction.  
-	 * @return true if the move is to a valid location, false for invalid.
-	 * @param x parameter location of current move checking.
-	 * @param y parameter location of current move checking.
-	 * @param p current player of current move checking.
-	 */
-	public final boolean validMoveRight(final int x, final int y, 
-			final Player p) {
-		if (board[x + 1][y]	!= null) { 
-			if (board[x + 1][y].getOwner() != p) {
-				for (int i = x + 2; i < board.length; i++) {
-					if (board[i][y] == null) { 
-						break;
-					}
-					if (board[i][y].getOwner() == p) {
-						return true;
+	private void syncDiscs() {
+		whiteDiscs = 0;
+		blackDiscs = 0;
+		if (size != OthelloBitboard.SIZE) {
+			frontier = new BitSet(size * size);
+			for (int x = 0; x < size; x++) {
+				for (int y = 0; y < size; y++) {
+					if (board[x][y] != null) {
+						addToFrontier(x, y);
 					}
 				}
 			}
+			return;
 		}
-		return false;
-	}
-	
-	/**
-	 * Determines whether a player can place a piece at the 
-	 * intended location in the x-- direction.  
-	 * @return true if the move is to a valid location, false for invalid.
-	 * @param x parameter location of current move checking.
-	 * @param y parameter location of current move checking.
-	 * @param p current player of current move checking.
-	 */
-	public final boolean validMoveLeft(final int x, final int y, 
-			final Player p) {
-		if (board[x - 1][y]	!= null) {
-			if (board[x - 1][y].getOwner() != p) {
-
-				for (int i = x - 2; i >= 0; i--) {
-					if (board[i][y] == null) { 
-						break;
-					}
-					if (board[i][y].getOwner() == p) {
-						return true;
-					}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (board[x][y] == null) {
+					continue;
+				}
+				if (board[x][y].getOwner() == Player.WHITE) {
+					whiteDiscs |= OthelloBitboard.square(x, y);
+				} else {
+					blackDiscs |= OthelloBitboard.square(x, y);
 				}
 			}
 		}
-		return false;
 	}
 	
 	/**
-	 * Determines whether a player can place a piece at the 
-	 * intended location in the y++ direction.  
-	 * @return true if the move is to a valid location, false for invalid.
-	 * @param x parameter location of current move checking.
-	 * @param y parameter location of current move checking.
-	 * @param p current player of current move checking.
+	 * Updates the frontier for a disc placed on a square: the square
+	 * leaves it and its empty neighbours join it.
+	 * @param x position of the disc
+	 * @param y position of the disc
 	 */
-	public final boolean validMoveDown(final int x, final int y, 
-			final Player p) {
-		if (board[x][y + 1]	!= null 
-				&& board[x][y + 1].getOwner() != p) {
-			for (int i = y + 2; i < board.length; i++) {
-				if (board[x][i] == null) {
-					break;
-				}
-				if (board[x][i].getOwner() == p) {
-					return true;
-				}
+	private void addToFrontier(final int x, final int y) {
+		frontier.clear(x * size + y);
+		for (int[] d : DIRECTIONS) {
+			int i = x + d[0];
+			int j = y + d[1];
+			if (i >= 0 && i < size && j >= 0 && j < size
+					&& board[i][j] == null) {
+				frontier.set(i * size + j);
 			}
 		}
-		return false;
 	}
 	
 	/**
-	 * Determines whether a player can place a piece at the 
-	 * intended location in the y-- direction.  
-	 * @return true if the move is to a valid location, false for invalid.
-	 * @param x parameter location of current move checking.
-	 * @param y parameter location of current move checking.
-	 * @param p current player of current move checking.
+	 * Gets the squares holding a player's discs as a bitboard mask,
+	 * square (x * 8) + y for board[x][y].
+	 * @param p Player whose discs are wanted.
+	 * @return Mask of the player's discs.
 	 */
-	public final boolean validMoveUp(final int x, final int y, 
-			final Player p) {
-		if (board[x][y - 1]	!= null 
-				&& board[x][y - 1].getOwner() != p) {
-			for (int i = y - 2; i >= 0; i--) {
-				if (board[x][i] == null) {
-					break;
-				}
-				if (board[x][i].getOwner() == p) {
-					return true;
-				}
-			}
+	private long discs(final Player p) {
+		if (p == Player.WHITE) {
+			return whiteDiscs;
 		}
-		return false;
+		return blackDiscs;
 	}
 	
 	/**
-	 * Determines whether a player can place a piece at the intended
-	 *  location in the x++, y++ direction.  
-	 * @return true if the move is to a valid location, false for invalid.
-	 * @param x parameter location of current move checking.
-	 * @param y parameter location of current move checking.
-	 * @param p current player of current move checking.
+	 * Gets the other player.
+	 * @param p A player.
+	 * @return The player's opponent.
 	 */
-	public final boolean validMoveDownRight(final int x, final int y,
-			final Player p) {
-		int j = y + 2;
-		
-		if (board[x + 1][y + 1]	!= null 
-				&& board[x + 1][y + 1].getOwner() != p) {
-			for (int i = x + 2; i < board.length; i++) {
-				if (j >= board.length) {
-					break;
-				}
-				if (board[i][j] == null) {
-					break;
-				}
-				if (board[i][j].getOwner() == p) {
-					return true;
-				}
-				j++;
-			}
+	private static Player opponent(final Player p) {
+		if (p == Player.WHITE) {
+			return Player.BLACK;
 		}
-		return false;
+		return Player.WHITE;
 	}
 	
 	/**
-	 * Determines whether a player can place a piece at the 
-	 * intended location in the x--, y++ direction.  
-	 * @return true if the move is to a valid location, false for invalid.
-	 * @param x parameter location of current move checking.
-	 * @param y parameter location of current move checking. 
-	 * @param p current player of current move checking.
+	 * Switches player after turn.
 	 */
-	public final boolean validMoveDownLeft(final int x, final int y, 
-			final Player p) {
-		int j = y + 2;
-		
-		if (board[x - 1][y + 1]	!= null 
-				&& board[x - 1][y + 1].getOwner() != p) {
-			for (int i = x - 2; i >= 0; i--) {
-				if (j >= board.length) {
-					break;
-				}
-				if (board[i][j] == null) {
-					break;
-				}
-				if (board[i][j].getOwner() == p) {
-					return true;
-				}
-				j++;
-			}
+	private void nextTurn() {
+		if (player == Player.WHITE) {
+			player = Player.BLACK;
+		} else {
+			player = Player.WHITE;
 		}
-		return false;
 	}
 	
 	/**
-	 * Determines whether a player can place a piece at the 
-	 * intended location in the x--, y-- direction.  
-	 * @return true if the move is to a valid location, false for invalid.
-	 * @param x parameter location of current move checking.
-	 * @param y parameter location of current move checking. 
-	 * @param p current player of current move checking.
+	 * Getter for whether or not the current game state has been saved.
+	 * @return True if the game has been saved this turn.
 	 */
-	public final boolean validMoveUpLeft(final int x, final int y,
-			final Player p) {
-		int j = y - 2;
-		
-		if (board[x - 1][y - 1]	!= null 
-				&& board[x - 1][y - 1].getOwner() != p) {
-			for (int i = x - 2; i >= 0; i--) {
-				if (j < 0) {
-					break;
-				}
-				if (board[i][j] == null) {
-					break;
-				}
-				if (board[i][j].getOwner() == p) {
-					return true;
-				}
-				j--;
-			}
-		}
-		return false;
+	public boolean isSaved() {
+		return this.saved;
 	}
-	
+
 	/**
-	 * Determines whether a player can place a piece at the 
-	 * intended location in the x++, y-- direction.  
-	 * @return true if the move is to a valid location, false for invalid.
-	 * @param x parameter location of current move checking.
-	 * @param y parameter location of current move checking.
-	 * @param p current player of current move checking.
+	 *  Allows users to reset board after getting stalemate or gameover.
 	 */
-	public final boolean validMoveUpRight(final int x, final int y,
-			final Player p) {
-		int j = y - 2;
-		
-		if (board[x + 1][y - 1]	!= null 
-				&& board[x + 1][y - 1].getOwner() != p) {
-			for (int i = x + 2; i < board.length; i++) {
-				if (j < 0) {
-					break;
-				}
-				if (board[i][j] == null) {
-					break;
-				}
-				if (board[i][j].getOwner() == p) {
-					return true;
-				}
-				j--;
-			}
-		}
-		return false;
+	public void reset() {
+		this.gameover = false;
+		this.createBoard();
+		this.player = Player.WHITE;
+		this.move.clear();
+		this.countPieces();
+		this.updateMoves();
 	}
 	
 	/**
@@ -880,54 +635,11 @@ public class Othello implements IGameLogic, Serializable {
 			return false;
 		}
 		
-		if (x < size - 2) {
-			if (validMoveRight(x, y, p)) {
-				return true;
-			}
-		}
-		
-		if (x > 2) {
-			if (validMoveLeft(x, y, p)) {
-				return true;
-			}
-		}
-		
-		if (y > 2) {
-			if (validMoveUp(x, y, p)) {
-				return true;
-			}
-		}
-		
-		if (y < size - 2) {
-			if (validMoveDown(x, y, p)) {
-				return true;
-			}
-		}
-		
-		if (y > 2 && x < size - 2) {
-			if (validMoveUpRight(x, y, p)) {
-				return true;
-			}
-		}
-		
-		if (y > 2 && x > 2) {
-			if (validMoveUpLeft(x, y, p)) {
-				return true;
-			}
-		}
-		
-		if (y < size - 2 && x > 2) {
-			if (validMoveDownLeft(x, y, p)) {
-				return true;
-			}
-		}
-		
-		if (y < size - 2 && x < size - 2) {
-			if (validMoveDownRight(x, y, p)) {
+		for (int[] ray : rayTable()[x][y]) {
+			if (bracketed(board, ray, p) > 0) {
 				return true;
 			}
 		}
-		
 		return false;
 	}
 	/**
@@ -948,16 +660,141 @@ public class Othello implements IGameLogic, Serializable {
 	
 	/**
 	 * Getter method for the resulting board for the
-	 * provided Move.
+	 * provided Move. The board is worked out on a copy, leaving the
+	 * game as it is, and kept until the next move so asking again
+	 * for the same move is free.
 	 * @param m Move to be inspected.
-	 * @return Board for the provided Move object.
+	 * @return Board for the provided Move object, or null if the
+	 * move cannot be made.
 	 */
 	public OthelloPiece[][] getResultBoard(final OthelloMove m) {
-		if (validMove(m)) {
-			return this.move.get(m);
-		} else {
+		OthelloPiece[][] result = this.move.get(m);
+		if (result != null) {
+			return result;
+		}
+		if (!validMove(m)) {
 			return null;
 		}
+		result = new OthelloPiece[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (board[x][y] != null) {
+					result[x][y] = new OthelloPiece(board[x][y].getOwner());
+				}
+			}
+		}
+		result[m.getX()][m.getY()] = new OthelloPiece(player);
+		if (size == OthelloBitboard.SIZE) {
+			long flipped = OthelloBitboard.flips(discs(player),
+					discs(opponent(player)),
+					OthelloBitboard.square(m.getX(), m.getY()));
+			while (flipped != 0) {
+				int sq = Long.numberOfTrailingZeros(flipped);
+				flipped &= flipped - 1;
+				result[sq / size][sq % size].switchOwner();
+			}
+		} else {
+			flipRays(result, m.getX(), m.getY(), player);
+		}
+		this.move.put(m, result);
+		return result;
+	}
+
+	/**
+	 * Turns the discs bracketed by a disc just placed on the given
+	 * board, scanning each of the rays out from it.
+	 * @param b Board the disc was placed on.
+	 * @param x position of the disc
+	 * @param y position of the disc
+	 * @param p owner of the disc
+	 */
+	static void flipRays(final OthelloPiece[][] b, final int x,
+			final int y, final Player p) {
+		for (int[] ray : rays(b.length)[x][y]) {
+			int run = bracketed(b, ray, p);
+			for (int i = 0; i < 2 * run; i += 2) {
+				b[ray[i]][ray[i + 1]].switchOwner();
+			}
+		}
+	}
+	
+	/**
+	 * Counts the opponent discs a player would turn along one ray:
+	 * the run of opponent discs from the start of the ray, if the
+	 * player's own disc closes it.
+	 * @param b Board to scan.
+	 * @param ray Squares of the ray as x, y pairs, nearest first.
+	 * @param p Player placing the disc.
+	 * @return Number of discs bracketed, or 0 if the run is not closed.
+	 */
+	static int bracketed(final OthelloPiece[][] b, final int[] ray,
+			final Player p) {
+		for (int i = 0; i < ray.length; i += 2) {
+			OthelloPiece piece = b[ray[i]][ray[i + 1]];
+			if (piece == null) {
+				return 0;
+			}
+			if (piece.getOwner() == p) {
+				return i / 2;
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Gets the rays of every square of a board of the given size,
+	 * building them the first time that size is asked for. The rays
+	 * of board[x][y] are at [x][y]; each holds the squares out from it
+	 * in one direction as x, y pairs, and only rays long enough to
+	 * bracket a disc are kept, so the scans need no bounds checks.
+	 * @param n Width and height of the board.
+	 * @return Rays of each square.
+	 */
+	static synchronized int[][][][] rays(final int n) {
+		if (n >= RAYS.length) {
+			return buildRays(n);
+		}
+		if (RAYS[n] == null) {
+			RAYS[n] = buildRays(n);
+		}
+		return RAYS[n];
+	}
+	
+	/**
+	 * Builds the rays of every square of a board.
+	 * @param n Width and height of the board.
+	 * @return Rays of each square.
+	 */
+	private static int[][][][] buildRays(final int n) {
+		int[][][][] result = new int[n][n][][];
+		int[][] found = new int[DIRECTIONS.length][];
+		for (int x = 0; x < n; x++) {
+			for (int y = 0; y < n; y++) {
+				int count = 0;
+				for (int[] d : DIRECTIONS) {
+					int length = 0;
+					int i = x + d[0];
+					int j = y + d[1];
+					while (i >= 0 && i < n && j >= 0 && j < n) {
+						length++;
+						i += d[0];
+						j += d[1];
+					}
+					//A run needs a disc to turn and one to close it.
+					if (length < 2) {
+						continue;
+					}
+					int[] ray = new int[2 * length];
+					for (int k = 0; k < length; k++) {
+						ray[2 * k] = x + (k + 1) * d[0];
+						ray[2 * k + 1] = y + (k + 1) * d[1];
+					}
+					found[count++] = ray;
+				}
+				result[x][y] = Arrays.copyOf(found, count);
+			}
+		}
+		return result;
 	}
 	
 	/**
@@ -1,25 +1,45 @@
 package gamesuite;
 
 import java.util.ArrayList;
-import org.apache.commons.lang3.SerializationUtils;
 
 /**
- * AI implementation for Checkers game. The class utilizes
- * Minimax algorithms to generate the appropriate move at the 
- * designated skill level for the AI. 
+ * AI implementation for Othello game. The class utilizes
+ * an alpha-beta search over a bitboard copy of the game to
+ * generate the appropriate move at the designated skill level
+ * for the AI.
  * @author Jaden Sella
  * @version 0.1
  */
 public class OthelloAI {
 
-	/** MinMax tree for moves in checkers game. */
-	private Node<OthelloMove> minmax;
-	/** Determines the color of pieces for the AI. */
-	private static Player color = Player.WHITE;
+	/** Search used to pick the AI's moves. */
+	private OthelloSearch search;
+	/** Solver used near the end of the game, made when first needed. */
+	private OthelloEndgame endgame;
+	/** Search used on boards other than 8 by 8, made when first needed. */
+	private OthelloGridSearch grid;
+	/** Opening book played from while it knows the position, or null. */
+	private OthelloBook book;
+	/** Tree search used in place of alpha-beta, or null. */
+	private OthelloMCTS mcts;
+	/** Playouts the tree search runs for each move, or 0 for no limit. */
+	private long playouts;
 	/** Model being used for evaluation. */
 	private Othello model;
-	/** Sets the maximum depth the move search tree will go. */
-	private static int maxDepth = 3;
+	/** Sets the maximum depth the move search will go. */
+	private int maxDepth;
+	/** Time in milliseconds the AI may think about each move. */
+	private long timeBudget;
+	/** Default time the AI may think about each move. */
+	private static final long DEFAULT_BUDGET = 1000;
+	/** Empty squares at which the AI starts solving the game. */
+	private int endgameEmpties;
+	/** Default empty squares at which the AI starts solving. */
+	private static final int ENDGAME_EMPTIES = 14;
+	/** Depth looked ahead for the last move. */
+	private int depthReached;
+	/** Positions visited for the last move. */
+	private long nodesSearched;
 	/** Whether the it is the first move of the game. */
 	private boolean firstMove;
 	
@@ -29,9 +49,12 @@ public class OthelloAI {
 	 * @param m Model for the AI to use.
 	 */
 	public OthelloAI(final Othello m) {
-		this.minmax = new Node<OthelloMove>(null, null);
+		this.search = new OthelloSearch();
 		this.model = m;
 		this.firstMove = true;
+		this.maxDepth = OthelloSearch.MAX_PLY;
+		this.timeBudget = DEFAULT_BUDGET;
+		this.endgameEmpties = ENDGAME_EMPTIES;
 	}
 	
 	/**
@@ -39,166 +62,160 @@ public class OthelloAI {
 	 * for the AI. When one is found, the move is executed.
 	 */
 	public void yourMove() {
+		if (this.book != null
+				&& this.model.getSize() == OthelloBitboard.SIZE) {
+			OthelloMove bookMove = this.book.getBestMove(
+					new OthelloBitboard(this.model));
+			if (bookMove != null) {
+				this.firstMove = false;
+				this.depthReached = 0;
+				this.nodesSearched = 0;
+				this.model.makeMove(bookMove);
+				return;
+			}
+		}
 		if (firstMove) {
 			ArrayList<OthelloMove> moves = this.model.getMoveList();
-			int rand = (int) (Math.random() * (moves.size() - 1));
-			OthelloMove disMove = moves.get(rand);
-			this.model.makeMove(disMove);
-			minmax.clear();
 			this.firstMove = false;
-			return;
+			if (!moves.isEmpty()) {
+				int rand = (int) (Math.random() * (moves.size() - 1));
+				this.model.makeMove(moves.get(rand));
+				return;
+			}
 		}
-		//Create the tree.
-		this.generateTree(1, minmax, model);
-		//Node to contain the best move.
-		Node<OthelloMove> disMove = new Node<OthelloMove>(null, null);
-		//List of all nodes connected to min-max.
-		ArrayList<Node<OthelloMove>> moves =
-				(ArrayList<Node<OthelloMove>>) minmax.getLeaves();
-		//Heads down each subtree evaluating for min-max and
-		//setting each nodes value to the max of that subtree.
-		moves.parallelStream().forEachOrdered(
-				e -> e.setValue(miniMaxDatTree(e, 1)));
-		int max = Integer.MIN_VALUE;
-		//Find the maximum for possible moves this turn.
-		for (Node<OthelloMove> m : moves) {
-			if (m.getValue() == max) {
-				if (Math.random() > .5) {
-					disMove = m;
-				}
-			} else if (m.getValue() > max) {
-				disMove = m;
+		if (this.model.getSize() != OthelloBitboard.SIZE) {
+			//Other sizes do not fit a bitboard and are searched on a grid.
+			if (this.grid == null) {
+				this.grid = new OthelloGridSearch();
+			}
+			this.grid.search(this.model, this.maxDepth, this.timeBudget);
+			this.depthReached = this.grid.getDepthReached();
+			this.nodesSearched = this.grid.getNodes();
+			if (this.grid.getBestMove() != null) {
+				this.model.makeMove(this.grid.getBestMove());
 			}
+			return;
 		}
-		this.model.makeMove(disMove.getData());
-		minmax.clear();
-	}
-	
-	/**
-	 * Helper method that implements a minimax algorithm
-	 * to evaluate the given tree for the best possible
-	 * move the AI has. Once the subtree has been evaluated the
-	 * nodes value is returned to the caller.
-	 * @param r Root node for the subtree being evaluated.
-	 * @param depth The depth of the current subtree.
-	 * @return The value of the node if r is a leaf or the depth has
-	 * been reached. Otherwise returns either the max or minimum value
-	 * of the nodes in the subtree of r depending on the depth.
-	 */
-	private int miniMaxDatTree(final Node<OthelloMove> r, final int depth) {
-		if (r.isLeaf()) {
-			return r.getValue();
+		OthelloBitboard board = new OthelloBitboard(this.model);
+		int empties = Long.bitCount(~(board.getBlack() | board.getWhite()));
+		long start = System.currentTimeMillis();
+		OthelloMove disMove = null;
+		boolean solved = false;
+		this.nodesSearched = 0;
+		if (empties <= this.endgameEmpties) {
+			//Near the end the game is solved for perfect play.
+			if (this.endgame == null) {
+				this.endgame = new OthelloEndgame();
+			}
+			solved = this.endgame.solve(board, this.timeBudget);
+			disMove = this.endgame.getBestMove();
+			this.depthReached = empties;
+			this.nodesSearched = this.endgame.getNodes();
 		}
-		ArrayList<Node<OthelloMove>> evalList =
-				(ArrayList<Node<OthelloMove>>) r.getLeaves();
-		//max
-		if ((depth & 1) == 1) {
-			int value = Integer.MIN_VALUE;
-			int max = Integer.MIN_VALUE;
-			for (Node<OthelloMove> m : evalList) {
-				value = miniMaxDatTree(m, depth + 1);
-				if (value == max) {
-					if (Math.random() > 0.5) {
-						max = value;
-					}
-				} else if (value > max) {
-					max = value;
-				}
+		if (!solved) {
+			long budget = this.timeBudget;
+			if (budget > 0) {
+				//What is left of the budget, the first pass always ends.
+				budget = Math.max(1, budget
+						- (System.currentTimeMillis() - start));
 			}
-			return max;
-		} else {
-			int value = Integer.MAX_VALUE;
-			int min = Integer.MAX_VALUE;
-			for (Node<OthelloMove> m : evalList) {
-				value = miniMaxDatTree(m, depth + 1);
-				if (value == min) {
-					if (Math.random() > 0.5) {
-						min = value;
-					}
-				} else if (value < min) {
-					min = value;
-				}
+			if (this.mcts != null) {
+				this.mcts.search(board, this.playouts, budget);
+				disMove = this.mcts.getBestMove();
+				this.depthReached = 0;
+				this.nodesSearched += this.mcts.getPlayouts();
+			} else {
+				//Searches deeper each pass until the budget is spent.
+				this.search.search(board, this.maxDepth, budget);
+				disMove = this.search.getBestMove();
+				this.depthReached = this.search.getDepthReached();
+				this.nodesSearched += this.search.getNodes();
 			}
-			return min;
+		}
+		if (disMove != null) {
+			this.model.makeMove(disMove);
 		}
 	}
-	
+
 	/**
-	 * Constructs move tree for current turn.
-	 * @param depth Depth of the tree
-	 * @param r Root node of the tree
-	 * @param mod Game state.
+	 * Getter method for the depth the last search completed. A solved
+	 * endgame counts as looking ahead to every empty square.
+	 * @return Number of moves looked ahead for the last move.
 	 */
-	private void generateTree(final int depth, final Node<OthelloMove> r,
-			final Othello mod) {
-		Othello hold;
-		ArrayList<OthelloMove> list = mod.getMoveList();
-		if (depth < OthelloAI.maxDepth) {
-			//Adds moves for the turn on the tree.
-			list.stream().forEach(e -> r.addleaf(e));
-			//Iterates over the list to evaluate response moves to
-			// each move in the list.
-			OthelloMove m = null;
-			for (int i = 0; i < list.size(); i++) {
-				hold = SerializationUtils.clone(mod);
-				m = list.get(i);
-				//Puts model in the status after the move.
-				hold.makeMove(m);
-				//Recursively moves to the next level in the
-				//tree.
-				this.generateTree(depth + 1,
-						r.getleaf(m), hold);
-				//Returns model to the status of before move.
-			}
-		} else if (depth == OthelloAI.maxDepth) {
-			list.stream().forEach(e -> r.addleaf(e));
-			//Applies static analysis to each board and sets the
-			//value of the board into the node.
-			list.stream().forEach(
-					e -> r.getleaf(e).setValue(
-							analyzeStaticBoard(
-					mod.getResultBoard(e))));
-			
+	public int getDepthReached() {
+		return this.depthReached;
+	}
+
+	/**
+	 * Getter method for the amount of work done by the last search.
+	 * @return Number of positions searched, or of playouts run, for
+	 * the last move.
+	 */
+	public long getNodesSearched() {
+		return this.nodesSearched;
+	}
+
+	/**
+	 * Setter method for the time the AI may think about each move.
+	 * The best move of the deepest search finished in time is played.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
+	 */
+	public void setTimeBudget(final long millis) {
+		this.timeBudget = millis;
+	}
+
+	/**
+	 * Setter method for the empty squares at which the AI stops
+	 * estimating and solves the game to the end. If a solve does not
+	 * finish in the time budget the AI searches as before.
+	 * @param empties Empty squares left, or 0 to never solve.
+	 */
+	public void setEndgameEmpties(final int empties) {
+		this.endgameEmpties = empties;
+	}
+
+	/**
+	 * Setter method to play with Monte Carlo tree search instead of
+	 * alpha-beta. The endgame is still solved exactly.
+	 * @param threads Threads running playouts, or 0 for alpha-beta.
+	 * @param limit Playouts for each move, or 0 to use only the time
+	 * budget.
+	 */
+	public void setMonteCarlo(final int threads, final long limit) {
+		if (threads > 0) {
+			this.mcts = new OthelloMCTS(threads);
 		} else {
-			return;
+			this.mcts = null;
 		}
+		this.playouts = limit;
 	}
-	
+
 	/**
-	 * Method to analyze the given board on a function which returns the 
-	 * boards value to the caller.
-	 * @param board The board to apply the function against.
-	 * @return The derived value of the given board.
+	 * Setter method for the opening book. While the position is in the
+	 * book its best move is played without searching, in place of the
+	 * random first move.
+	 * @param b Opening book, or null to search every move.
 	 */
-	private int analyzeStaticBoard(OthelloPiece[][] board) {
-		int posVal = 0;
-		int negVal = 0;
-		int locVal = 0;
-		OthelloPiece temp;
-		
-		if(board == null) return 0;
-		
-		for (int x = 0; x < board.length; x++) {
-			for (int y = 0; y < board.length; y++) {
-				if (board[x][y] != null) {
-					locVal = (Math.abs((x + 1) - 4)
-							+ Math.abs((y + 1) - 4))
-							/ 2;
-					//Average distance to the center.
-					temp = board[x][y];
-					if (temp.getOwner()
-							!= OthelloAI.color) {
-						posVal += locVal + x;
+	public void setBook(final OthelloBook b) {
+		this.book = b;
+	}
 
-					} else {
-						negVal += locVal + (7 - x);
-					}
-				}
-			}
-		}
-		return (posVal - negVal);
+	/**
+	 * Setter method for the evaluation used by the alpha-beta search.
+	 * @param p Trained pattern evaluation, or null for the hand written
+	 * one.
+	 */
+	public void setPatterns(final OthelloPatterns p) {
+		this.search.setPatterns(p);
+	}
+
+	/**
+	 * Setter method for the deepest the AI will search.
+	 * @param depth Maximum number of moves to look ahead.
+	 */
+	public void setMaxDepth(final int depth) {
+		this.maxDepth = depth;
 	}
-	
 
 	/**
 	 * Setter method to allow the AI access to the
@@ -0,0 +1,319 @@
+package gamesuite;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * Bitboard representation of an 8 by 8 Othello position. The discs of
+ * each player are held in a 64 bit mask, square (x * 8) + y for the
+ * square at board[x][y], and legal moves and flips are found for all
+ * eight directions with Kogge-Stone fills: each direction takes three
+ * shifts of the whole board instead of a walk from every square.
+ * The static methods work on plain masks so the searches can use them
+ * without creating objects.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloBitboard implements Serializable {
+
+	/** Default serial code. */
+	private static final long serialVersionUID = 1L;
+	/** Width and height of the board. */
+	public static final int SIZE = 8;
+	/** Number of squares on the board. */
+	public static final int SQUARES = SIZE * SIZE;
+	/** Squares in the first column, y == 0. */
+	private static final long FIRST_COLUMN = 0x0101010101010101L;
+	/** Squares in the last column, y == 7. */
+	private static final long LAST_COLUMN = 0x8080808080808080L;
+	/** Shift of each direction, positive for a left shift. */
+	private static final int[] SHIFTS = {1, -1, 8, -8, 9, 7, -7, -9};
+	/** Squares a disc may land on after a shift in each direction. */
+	private static final long[] MASKS = {
+		~FIRST_COLUMN, ~LAST_COLUMN, -1L, -1L,
+		~FIRST_COLUMN, ~LAST_COLUMN, ~FIRST_COLUMN, ~LAST_COLUMN
+	};
+
+	/** Squares holding black discs. */
+	private long black;
+	/** Squares holding white discs. */
+	private long white;
+	/** Player to move. */
+	private Player player;
+
+	/**
+	 * Constructor for the bitboard which places the four discs of
+	 * the start position, black to move.
+	 */
+	public OthelloBitboard() {
+		this(square(3, 4) | square(4, 3), square(3, 3) | square(4, 4),
+				Player.BLACK);
+	}
+
+	/**
+	 * Constructor for a bitboard holding the given position.
+	 * @param b Squares holding black discs.
+	 * @param w Squares holding white discs.
+	 * @param p Player to move.
+	 */
+	public OthelloBitboard(final long b, final long w, final Player p) {
+		this.black = b;
+		this.white = w;
+		this.player = p;
+	}
+
+	/**
+	 * Constructor which copies the position held by a game.
+	 * @param o Game to copy, which must have an 8 by 8 board.
+	 */
+	public OthelloBitboard(final Othello o) {
+		for (int x = 0; x < SIZE; x++) {
+			for (int y = 0; y < SIZE; y++) {
+				OthelloPiece p = o.getPiece(x, y);
+				if (p != null) {
+					if (p.getOwner() == Player.BLACK) {
+						black |= square(x, y);
+					} else {
+						white |= square(x, y);
+					}
+				}
+			}
+		}
+		this.player = o.getPlayer();
+	}
+
+	/**
+	 * Gets the mask of a single square.
+	 * @param x Vertical position of the square.
+	 * @param y Horizontal position of the square.
+	 * @return Mask with only that square set.
+	 */
+	public static long square(final int x, final int y) {
+		return 1L << (x * SIZE + y);
+	}
+
+	/**
+	 * Shifts a mask one or more squares in a direction.
+	 * @param b Mask to shift.
+	 * @param s Shift, positive to the left and negative to the right.
+	 * @return Shifted mask.
+	 */
+	private static long shift(final long b, final int s) {
+		if (s > 0) {
+			return b << s;
+		}
+		return b >>> -s;
+	}
+
+	/**
+	 * Finds the legal moves of a player. For each direction the
+	 * player's discs are filled along runs of the opponent's, and the
+	 * empty squares just past those runs are moves.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Squares the player may play.
+	 */
+	public static long moves(final long own, final long opp) {
+		long empty = ~(own | opp);
+		long moves = 0;
+		for (int d = 0; d < SHIFTS.length; d++) {
+			int s = SHIFTS[d];
+			long mask = MASKS[d];
+			long gen = fill(own, opp & mask, s);
+			moves |= shift(gen & ~own, s) & mask & empty;
+		}
+		return moves;
+	}
+
+	/**
+	 * Finds the discs turned by a move. For each direction the move
+	 * is filled along the run of the opponent's discs next to it, and
+	 * the run is turned if the player's disc is just past it.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @param move Mask of the square played.
+	 * @return Opponent discs turned by the move.
+	 */
+	public static long flips(final long own, final long opp,
+			final long move) {
+		long flipped = 0;
+		for (int d = 0; d < SHIFTS.length; d++) {
+			int s = SHIFTS[d];
+			long mask = MASKS[d];
+			long gen = fill(move, opp & mask, s);
+			if ((shift(gen, s) & mask & own) != 0) {
+				flipped |= gen & ~move;
+			}
+		}
+		return flipped;
+	}
+
+	/**
+	 * Kogge-Stone occluded fill. The generator squares are spread in
+	 * one direction through the propagator squares in three steps of
+	 * one, two and four squares.
+	 * @param generator Squares to fill from.
+	 * @param propagator Squares the fill may pass through.
+	 * @param s Shift of the direction.
+	 * @return Generator squares and the squares filled from them.
+	 */
+	private static long fill(final long generator, final long propagator,
+			final int s) {
+		long gen = generator;
+		long pro = propagator;
+		gen |= pro & shift(gen, s);
+		pro &= shift(pro, s);
+		gen |= pro & shift(gen, 2 * s);
+		pro &= shift(pro, 2 * s);
+		gen |= pro & shift(gen, 4 * s);
+		return gen;
+	}
+
+	/**
+	 * Getter method for the legal moves of the player to move.
+	 * @return Squares the player may play.
+	 */
+	public long getMoves() {
+		if (player == Player.BLACK) {
+			return moves(black, white);
+		}
+		return moves(white, black);
+	}
+
+	/**
+	 * Getter method for the list of moves.
+	 * @return ArrayList of moves in board order.
+	 */
+	public ArrayList<OthelloMove> getMoveList() {
+		ArrayList<OthelloMove> list = new ArrayList<OthelloMove>();
+		long m = getMoves();
+		while (m != 0) {
+			int sq = Long.numberOfTrailingZeros(m);
+			m &= m - 1;
+			list.add(new OthelloMove(sq / SIZE, sq % SIZE));
+		}
+		return list;
+	}
+
+	/**
+	 * Plays a disc for the player to move and turns the discs it
+	 * brackets, then passes the turn. The square must be a legal move.
+	 * @param sq Square index of the move.
+	 * @return Discs turned by the move.
+	 */
+	public long makeMove(final int sq) {
+		long move = 1L << sq;
+		long flipped;
+		if (player == Player.BLACK) {
+			flipped = flips(black, white, move);
+			black |= move | flipped;
+			white &= ~flipped;
+		} else {
+			flipped = flips(white, black, move);
+			white |= move | flipped;
+			black &= ~flipped;
+		}
+		nextTurn();
+		return flipped;
+	}
+
+	/**
+	 * Method to check if a move exists. If it does
+	 * the move is made and the next turn is activated.
+	 * @param m Move that is being made.
+	 * @return True if move can be made.
+	 */
+	public boolean makeMove(final OthelloMove m) {
+		if (!validMove(m)) {
+			return false;
+		}
+		makeMove(m.getX() * SIZE + m.getY());
+		return true;
+	}
+
+	/**
+	 * Method to check if a move exists.
+	 * @param m Move that is being made.
+	 * @return True if move can be made.
+	 */
+	public boolean validMove(final OthelloMove m) {
+		return (getMoves() & square(m.getX(), m.getY())) != 0;
+	}
+
+	/**
+	 * Switches player, used when the player to move has to pass.
+	 */
+	public void nextTurn() {
+		if (player == Player.WHITE) {
+			player = Player.BLACK;
+		} else {
+			player = Player.WHITE;
+		}
+	}
+
+	/**
+	 * Checks whether the game is over. If there are no
+	 * moves for either player on the board.
+	 * @return True if no player can make a move.
+	 */
+	public boolean isGameOver() {
+		return moves(black, white) == 0 && moves(white, black) == 0;
+	}
+
+	/**
+	 * Getter method to inform the display about the status of
+	 * the piece at the given location.
+	 * @param x Vertical position of the piece.
+	 * @param y Horizontal position of the piece.
+	 * @return New piece for the square, or null if it is empty.
+	 */
+	public OthelloPiece getPiece(final int x, final int y) {
+		long sq = square(x, y);
+		if ((black & sq) != 0) {
+			return new OthelloPiece(Player.BLACK);
+		} else if ((white & sq) != 0) {
+			return new OthelloPiece(Player.WHITE);
+		}
+		return null;
+	}
+
+	/**
+	 * Getter method for the squares holding black discs.
+	 * @return Mask of black discs.
+	 */
+	public long getBlack() {
+		return this.black;
+	}
+
+	/**
+	 * Getter method for the squares holding white discs.
+	 * @return Mask of white discs.
+	 */
+	public long getWhite() {
+		return this.white;
+	}
+
+	/**
+	 * Getter method for the number of black discs.
+	 * @return Number of black discs on the board.
+	 */
+	public int getBlackCount() {
+		return Long.bitCount(black);
+	}
+
+	/**
+	 * Getter method for the number of white discs.
+	 * @return Number of white discs on the board.
+	 */
+	public int getWhiteCount() {
+		return Long.bitCount(white);
+	}
+
+	/**
+	 * returns the current player.
+	 * @return returns the current player
+	 */
+	public Player getPlayer() {
+		return this.player;
+	}
+}
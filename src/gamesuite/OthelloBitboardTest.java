@@ -0,0 +1,62 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.Test;
+
+public class OthelloBitboardTest {
+
+	@Test
+	public void testStartMoves() {
+		OthelloBitboard b = new OthelloBitboard();
+		assertEquals(4, b.getMoveList().size());
+		assertTrue(b.validMove(new OthelloMove(2, 3)));
+		assertFalse(b.validMove(new OthelloMove(2, 2)));
+	}
+
+	@Test
+	public void testFlips() {
+		OthelloBitboard b = new OthelloBitboard();
+		long flipped = b.makeMove(2 * 8 + 3);
+		assertEquals(OthelloBitboard.square(3, 3), flipped);
+		assertEquals(4, b.getBlackCount());
+		assertEquals(1, b.getWhiteCount());
+		assertTrue(b.getPlayer() == Player.WHITE);
+	}
+
+	@Test
+	public void testEdgesDoNotWrap() {
+		//White at the end of row 0 and black at the start of row 1
+		//must not bracket across the edge of the board.
+		long black = OthelloBitboard.square(1, 0);
+		long white = OthelloBitboard.square(0, 7) | OthelloBitboard.square(0, 6);
+		assertEquals(0, OthelloBitboard.moves(black, white)
+				& OthelloBitboard.square(0, 5));
+	}
+
+	@Test
+	public void testMatchesOthello() {
+		Random r = new Random(7);
+		Othello o = new Othello();
+		OthelloBitboard b = new OthelloBitboard(o);
+		o.makeMove(new OthelloMove(2, 3));
+		b.makeMove(new OthelloMove(2, 3));
+		while (!o.isGameOver()) {
+			ArrayList<OthelloMove> moves = o.getMoveList();
+			if (b.getPlayer() != o.getPlayer()) {
+				b.nextTurn();
+			}
+			assertEquals(moves.size(), b.getMoveList().size());
+			OthelloMove m = moves.get(r.nextInt(moves.size()));
+			o.makeMove(m);
+			b.makeMove(m);
+			assertEquals(o.getBlackCount(), b.getBlackCount());
+			assertEquals(o.getWhiteCount(), b.getWhiteCount());
+		}
+		assertTrue(b.isGameOver());
+	}
+}
+//CHECKSTYLE:ON
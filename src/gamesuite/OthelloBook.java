@@ -0,0 +1,292 @@
+package gamesuite;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Opening book for 8 by 8 Othello: a file of scored moves for known
+ * positions. The file is mapped into memory rather than read, so
+ * opening a book costs nothing on the heap and only the pages a lookup
+ * touches are read from disk.
+ * <p>
+ * The file holds a header of a magic number, a version and the entry
+ * count, then fixed size entries of a position key, a square and a
+ * score, sorted by key and, for each key, best score first. A lookup
+ * is a binary search for the first entry of its key. Positions are
+ * folded over the eight symmetries of the board before they are
+ * hashed, so a line and its reflections share their entries, and the
+ * squares are turned back to the board asked about.
+ * <p>
+ * Books are written by OthelloBookBuilder.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloBook {
+
+	/** First four bytes of a book file, "OTHB". */
+	private static final int MAGIC = 0x4F544842;
+	/** Version of the file layout. */
+	private static final int VERSION = 1;
+	/** Bytes before the first entry. */
+	private static final int HEADER_BYTES = 12;
+	/** Bytes taken by one entry: key, square and score. */
+	private static final int ENTRY_BYTES = 12;
+	/** Number of symmetries of the square board. */
+	private static final int SYMMETRIES = 8;
+	/** Multiplier used to hash the player's discs. */
+	private static final long HASH_OWN = 0x9E3779B97F4A7C15L;
+	/** Multiplier used to hash the opponent's discs. */
+	private static final long HASH_OPP = 0xC2B2AE3D27D4EB4FL;
+	/** Square each square is taken to by each symmetry. */
+	private static final int[][] SYMMETRY = buildSymmetries(false);
+	/** Square each square is taken back to by each symmetry. */
+	private static final int[][] INVERSE = buildSymmetries(true);
+
+	/** Contents of the book file. */
+	private final MappedByteBuffer buffer;
+	/** Number of entries in the book. */
+	private final int entries;
+
+	/**
+	 * Opens a book file by mapping it into memory.
+	 * @param filename Name of the book file.
+	 * @throws IOException If the file cannot be read or is not a book.
+	 */
+	public OthelloBook(final String filename) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(filename),
+				StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+				throw new IOException("File is not an opening book.");
+			}
+			this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					length);
+		}
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			throw new IOException("File is not an opening book.");
+		}
+		this.entries = buffer.getInt(8);
+		if (entries < 0 || HEADER_BYTES
+				+ (long) entries * ENTRY_BYTES != buffer.capacity()) {
+			throw new IOException("Opening book is corrupted.");
+		}
+	}
+
+	/**
+	 * Finds the book moves of a position, best first.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @param squares Filled with the square index of each move.
+	 * @param scores Filled with the score of each move.
+	 * @return Number of moves found, 0 if the position is not in the
+	 * book.
+	 */
+	public int lookup(final long own, final long opp, final int[] squares,
+			final int[] scores) {
+		int t = canonical(own, opp);
+		long key = key(transform(own, t), transform(opp, t));
+		int lo = 0;
+		int hi = entries;
+		//First entry whose key is not below the one searched for.
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (keyAt(mid) < key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		int n = 0;
+		for (int i = lo; i < entries && keyAt(i) == key
+				&& n < squares.length; i++) {
+			int offset = HEADER_BYTES + i * ENTRY_BYTES;
+			squares[n] = INVERSE[t][buffer.getShort(offset + 8)];
+			scores[n] = buffer.getShort(offset + 10);
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Gets the best book move of a position that is legal in it. The
+	 * check guards against two positions sharing a key.
+	 * @param b Position to look up.
+	 * @return Best legal book move, or null if there is none.
+	 */
+	public OthelloMove getBestMove(final OthelloBitboard b) {
+		long own = b.getBlack();
+		long opp = b.getWhite();
+		if (b.getPlayer() == Player.WHITE) {
+			own = b.getWhite();
+			opp = b.getBlack();
+		}
+		int[] squares = new int[OthelloBitboard.SQUARES];
+		int[] scores = new int[OthelloBitboard.SQUARES];
+		int n = lookup(own, opp, squares, scores);
+		long legal = OthelloBitboard.moves(own, opp);
+		for (int i = 0; i < n; i++) {
+			if ((legal & 1L << squares[i]) != 0) {
+				return new OthelloMove(squares[i] / OthelloBitboard.SIZE,
+						squares[i] % OthelloBitboard.SIZE);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Getter method for the number of entries in the book.
+	 * @return Number of scored moves the book holds.
+	 */
+	public int size() {
+		return this.entries;
+	}
+
+	/**
+	 * Gets the key of an entry.
+	 * @param i Index of the entry.
+	 * @return Key of the entry.
+	 */
+	private long keyAt(final int i) {
+		return buffer.getLong(HEADER_BYTES + i * ENTRY_BYTES);
+	}
+
+	/**
+	 * Writes a book file. The entries are given in any order and are
+	 * sorted as lookups need them. Positions are keyed with key after
+	 * being turned by canonical, and squares turned with transform.
+	 * @param filename Name of the file to write.
+	 * @param keys Key of the position of each entry.
+	 * @param squares Square of the move of each entry.
+	 * @param scores Score of each entry, which must fit in a short.
+	 * @param count Number of entries.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void write(final String filename, final long[] keys,
+			final int[] squares, final int[] scores, final int count)
+			throws IOException {
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> {
+			if (keys[a] != keys[b]) {
+				return Long.compare(keys[a], keys[b]);
+			}
+			return Integer.compare(scores[b], scores[a]);
+		});
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(filename)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(count);
+			for (int i : order) {
+				out.writeLong(keys[i]);
+				out.writeShort(squares[i]);
+				out.writeShort(scores[i]);
+			}
+		}
+	}
+
+	/**
+	 * Hashes a position that has already been turned to its canonical
+	 * symmetry.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Key of the position.
+	 */
+	static long key(final long own, final long opp) {
+		long h = own * HASH_OWN + Long.rotateLeft(opp * HASH_OPP, 29);
+		//Mixes the high bits down so nearby positions spread out.
+		h ^= h >>> 31;
+		h *= HASH_OWN;
+		return h ^ h >>> 29;
+	}
+
+	/**
+	 * Finds the symmetry that takes a position to the one its
+	 * reflections share: the one with the lowest key.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Index of the symmetry.
+	 */
+	static int canonical(final long own, final long opp) {
+		int best = 0;
+		long bestKey = key(own, opp);
+		for (int t = 1; t < SYMMETRIES; t++) {
+			long k = key(transform(own, t), transform(opp, t));
+			if (k < bestKey) {
+				bestKey = k;
+				best = t;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Turns a mask of squares by a symmetry of the board.
+	 * @param mask Squares to turn.
+	 * @param t Index of the symmetry.
+	 * @return Turned squares.
+	 */
+	static long transform(final long mask, final int t) {
+		long result = 0;
+		for (long m = mask; m != 0; m &= m - 1) {
+			result |= 1L << SYMMETRY[t][Long.numberOfTrailingZeros(m)];
+		}
+		return result;
+	}
+
+	/**
+	 * Turns a square by a symmetry of the board.
+	 * @param sq Square index.
+	 * @param t Index of the symmetry.
+	 * @return Turned square index.
+	 */
+	static int transform(final int sq, final int t) {
+		return SYMMETRY[t][sq];
+	}
+
+	/**
+	 * Builds where each symmetry takes each square: the reflections
+	 * of the rows and of the columns, each with and without swapping
+	 * rows for columns.
+	 * @param inverse True for where each symmetry takes squares back.
+	 * @return Table of squares indexed by symmetry and square.
+	 */
+	private static int[][] buildSymmetries(final boolean inverse) {
+		int n = OthelloBitboard.SIZE;
+		int[][] table = new int[SYMMETRIES][OthelloBitboard.SQUARES];
+		for (int t = 0; t < SYMMETRIES; t++) {
+			for (int x = 0; x < n; x++) {
+				for (int y = 0; y < n; y++) {
+					int tx = x;
+					int ty = y;
+					if ((t & 1) != 0) {
+						tx = n - 1 - tx;
+					}
+					if ((t & 2) != 0) {
+						ty = n - 1 - ty;
+					}
+					if ((t & 4) != 0) {
+						int swap = tx;
+						tx = ty;
+						ty = swap;
+					}
+					if (inverse) {
+						table[t][tx * n + ty] = x * n + y;
+					} else {
+						table[t][x * n + y] = tx * n + ty;
+					}
+				}
+			}
+		}
+		return table;
+	}
+}
@@ -0,0 +1,290 @@
+package gamesuite;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds an Othello opening book from self-play or from game records.
+ * Every move made in the first plies of a game is counted with the
+ * disc difference the game ended with, from the side of the player who
+ * made it. A move's score is the total over its games divided by one
+ * more than the number of games, in hundredths of a disc, which pulls
+ * moves seen only a few times towards an even result.
+ * <p>
+ * Self-play games use the alpha-beta search at a fixed depth and solve
+ * the endgame exactly. Inside the book plies a random move is played
+ * now and then so the games spread over many openings. Game records
+ * are read one game a line as squares such as "f5d6c3", column letter
+ * then row; blank lines and lines starting with # are skipped, and
+ * games that do not reach the end are left out.
+ * <p>
+ * Usage: OthelloBookBuilder book selfplay [games] [depth] [plies]
+ * <br>
+ * Usage: OthelloBookBuilder book import records [plies]
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public final class OthelloBookBuilder {
+
+	/** Games played when none is given. */
+	private static final int DEFAULT_GAMES = 200;
+	/** Search depth of self-play when none is given. */
+	private static final int DEFAULT_DEPTH = 4;
+	/** Plies counted into the book when none is given. */
+	private static final int DEFAULT_PLIES = 12;
+	/** Chance of a random move inside the book plies of self-play. */
+	private static final double RANDOM_RATE = 0.25;
+	/** Empty squares at which self-play solves the game. */
+	private static final int SOLVE_EMPTIES = 14;
+	/** Scores are kept in hundredths of a disc. */
+	private static final int SCALE = 100;
+	/** Seed of self-play so every run builds the same book. */
+	private static final long SEED = 42;
+
+	/** Games and total disc difference of each move of each position,
+	 * by position key and then square. */
+	private final Map<Long, Map<Integer, long[]>> stats;
+	/** Plies of each game counted into the book. */
+	private final int plies;
+
+	/**
+	 * Creates a builder that counts the first plies of each game.
+	 * @param p Plies counted into the book.
+	 */
+	OthelloBookBuilder(final int p) {
+		this.stats = new HashMap<Long, Map<Integer, long[]>>();
+		this.plies = p;
+	}
+
+	/**
+	 * Runs the builder.
+	 * @param args Book file, source and the options of the source.
+	 * @throws IOException If a file cannot be read or written.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: OthelloBookBuilder book selfplay"
+					+ " [games] [depth] [plies]");
+			System.out.println("       OthelloBookBuilder book import"
+					+ " records [plies]");
+			return;
+		}
+		OthelloBookBuilder builder;
+		if ("import".equals(args[1]) && args.length > 2) {
+			int p = DEFAULT_PLIES;
+			if (args.length > 3) {
+				p = Integer.parseInt(args[3]);
+			}
+			builder = new OthelloBookBuilder(p);
+			int skipped = builder.importGames(args[2]);
+			System.out.printf("%d games left out%n", skipped);
+		} else {
+			int games = DEFAULT_GAMES;
+			int depth = DEFAULT_DEPTH;
+			int p = DEFAULT_PLIES;
+			if (args.length > 2) {
+				games = Integer.parseInt(args[2]);
+			}
+			if (args.length > 3) {
+				depth = Integer.parseInt(args[3]);
+			}
+			if (args.length > 4) {
+				p = Integer.parseInt(args[4]);
+			}
+			builder = new OthelloBookBuilder(p);
+			builder.selfPlay(games, depth);
+		}
+		int count = builder.write(args[0]);
+		System.out.printf("%d moves of %d positions written to %s%n",
+				count, builder.stats.size(), args[0]);
+	}
+
+	/**
+	 * Plays games against itself and counts their openings.
+	 * @param games Number of games.
+	 * @param depth Search depth of each move.
+	 */
+	void selfPlay(final int games, final int depth) {
+		OthelloSearch search = new OthelloSearch();
+		OthelloEndgame endgame = new OthelloEndgame();
+		Random rand = new Random(SEED);
+		for (int g = 0; g < games; g++) {
+			OthelloBitboard b = new OthelloBitboard();
+			int[] line = new int[OthelloBitboard.SQUARES];
+			int n = 0;
+			while (!b.isGameOver()) {
+				long moves = b.getMoves();
+				if (moves == 0) {
+					b.nextTurn();
+					continue;
+				}
+				int empties = Long.bitCount(~(b.getBlack() | b.getWhite()));
+				int sq;
+				if (n < plies && rand.nextDouble() < RANDOM_RATE) {
+					int pick = rand.nextInt(Long.bitCount(moves));
+					for (int i = 0; i < pick; i++) {
+						moves &= moves - 1;
+					}
+					sq = Long.numberOfTrailingZeros(moves);
+				} else {
+					OthelloMove m;
+					if (empties <= SOLVE_EMPTIES) {
+						endgame.solve(b, 0);
+						m = endgame.getBestMove();
+					} else {
+						search.search(b, depth, 0);
+						m = search.getBestMove();
+					}
+					sq = m.getX() * OthelloBitboard.SIZE + m.getY();
+				}
+				line[n++] = sq;
+				b.makeMove(sq);
+			}
+			addGame(line, n);
+		}
+	}
+
+	/**
+	 * Reads game records and counts their openings.
+	 * @param filename File with one game a line.
+	 * @return Number of games left out as unreadable or unfinished.
+	 * @throws IOException If the file cannot be read.
+	 */
+	int importGames(final String filename) throws IOException {
+		int skipped = 0;
+		try (BufferedReader in = new BufferedReader(
+				new FileReader(filename))) {
+			String text;
+			while ((text = in.readLine()) != null) {
+				text = text.trim();
+				if (text.isEmpty() || text.startsWith("#")) {
+					continue;
+				}
+				int[] line = parse(text);
+				if (line == null) {
+					skipped++;
+				} else {
+					addGame(line, line.length);
+				}
+			}
+		}
+		return skipped;
+	}
+
+	/**
+	 * Reads a game record and checks it is a finished legal game.
+	 * @param text Squares of the game, column letter then row.
+	 * @return Square index of each move, or null if the record is not
+	 * a finished legal game.
+	 */
+	static int[] parse(final String text) {
+		if ((text.length() & 1) != 0
+				|| text.length() > 2 * OthelloBitboard.SQUARES) {
+			return null;
+		}
+		OthelloBitboard b = new OthelloBitboard();
+		int[] line = new int[text.length() / 2];
+		for (int i = 0; i < line.length; i++) {
+			int y = Character.toLowerCase(text.charAt(2 * i)) - 'a';
+			int x = text.charAt(2 * i + 1) - '1';
+			if (x < 0 || x >= OthelloBitboard.SIZE || y < 0
+					|| y >= OthelloBitboard.SIZE) {
+				return null;
+			}
+			if (b.getMoves() == 0) {
+				b.nextTurn();
+			}
+			line[i] = x * OthelloBitboard.SIZE + y;
+			if (!b.makeMove(new OthelloMove(x, y))) {
+				return null;
+			}
+		}
+		if (!b.isGameOver()) {
+			return null;
+		}
+		return line;
+	}
+
+	/**
+	 * Replays a finished game and counts the moves of its first plies
+	 * with the result of the game.
+	 * @param line Square index of each move, passes left out.
+	 * @param n Number of moves.
+	 */
+	void addGame(final int[] line, final int n) {
+		OthelloBitboard b = new OthelloBitboard();
+		long[] own = new long[n];
+		long[] opp = new long[n];
+		Player[] mover = new Player[n];
+		for (int i = 0; i < n; i++) {
+			if (b.getMoves() == 0) {
+				b.nextTurn();
+			}
+			mover[i] = b.getPlayer();
+			own[i] = b.getBlack();
+			opp[i] = b.getWhite();
+			if (mover[i] == Player.WHITE) {
+				own[i] = b.getWhite();
+				opp[i] = b.getBlack();
+			}
+			b.makeMove(line[i]);
+		}
+		int result = b.getBlackCount() - b.getWhiteCount();
+		for (int i = 0; i < Math.min(n, plies); i++) {
+			int t = OthelloBook.canonical(own[i], opp[i]);
+			long key = OthelloBook.key(OthelloBook.transform(own[i], t),
+					OthelloBook.transform(opp[i], t));
+			Map<Integer, long[]> moves = stats.get(key);
+			if (moves == null) {
+				moves = new HashMap<Integer, long[]>();
+				stats.put(key, moves);
+			}
+			int sq = OthelloBook.transform(line[i], t);
+			long[] count = moves.get(sq);
+			if (count == null) {
+				count = new long[2];
+				moves.put(sq, count);
+			}
+			count[0]++;
+			if (mover[i] == Player.BLACK) {
+				count[1] += result;
+			} else {
+				count[1] -= result;
+			}
+		}
+	}
+
+	/**
+	 * Scores the counted moves and writes them as a book.
+	 * @param filename Name of the book file.
+	 * @return Number of moves written.
+	 * @throws IOException If the file cannot be written.
+	 */
+	int write(final String filename) throws IOException {
+		int size = 0;
+		for (Map<Integer, long[]> moves : stats.values()) {
+			size += moves.size();
+		}
+		long[] keys = new long[size];
+		int[] squares = new int[size];
+		int[] scores = new int[size];
+		int i = 0;
+		for (Map.Entry<Long, Map<Integer, long[]>> position
+				: stats.entrySet()) {
+			for (Map.Entry<Integer, long[]> move
+					: position.getValue().entrySet()) {
+				long[] count = move.getValue();
+				keys[i] = position.getKey();
+				squares[i] = move.getKey();
+				scores[i] = (int) (count[1] * SCALE / (count[0] + 1));
+				i++;
+			}
+		}
+		OthelloBook.write(filename, keys, squares, scores, size);
+		return size;
+	}
+}
@@ -0,0 +1,113 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests for the Othello opening book and its builder.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloBookTest {
+
+	/**
+	 * Tests that every reflection of a position gets the same key and
+	 * that a square turned to the canonical board turns back.
+	 */
+	@Test
+	public void testSymmetry() {
+		OthelloBitboard b = new OthelloBitboard();
+		b.makeMove(new OthelloMove(2, 3));
+		b.makeMove(new OthelloMove(2, 2));
+		long own = b.getBlack();
+		long opp = b.getWhite();
+		int t = OthelloBook.canonical(own, opp);
+		long key = OthelloBook.key(OthelloBook.transform(own, t),
+				OthelloBook.transform(opp, t));
+		for (int s = 0; s < 8; s++) {
+			long o = OthelloBook.transform(own, s);
+			long p = OthelloBook.transform(opp, s);
+			int u = OthelloBook.canonical(o, p);
+			assertEquals(key, OthelloBook.key(OthelloBook.transform(o, u),
+					OthelloBook.transform(p, u)));
+			assertEquals(Long.bitCount(own), Long.bitCount(o));
+		}
+	}
+
+	/**
+	 * Tests that a built book gives the moves of its games back, best
+	 * first and turned to the board asked about, and nothing for a
+	 * position it does not hold.
+	 * @throws IOException If the book cannot be written or read.
+	 */
+	@Test
+	public void testBuildAndLookup() throws IOException {
+		File file = File.createTempFile("othello", ".book");
+		file.deleteOnExit();
+		OthelloBookBuilder builder = new OthelloBookBuilder(4);
+		builder.selfPlay(20, 1);
+		assertTrue(builder.write(file.getPath()) > 0);
+		OthelloBook book = new OthelloBook(file.getPath());
+		assertTrue(book.size() > 0);
+
+		OthelloBitboard start = new OthelloBitboard();
+		int[] squares = new int[64];
+		int[] scores = new int[64];
+		int n = book.lookup(start.getBlack(), start.getWhite(), squares,
+				scores);
+		assertTrue(n > 0);
+		for (int i = 0; i < n; i++) {
+			assertTrue((start.getMoves() & 1L << squares[i]) != 0);
+			if (i > 0) {
+				assertTrue(scores[i] <= scores[i - 1]);
+			}
+		}
+		assertNotNull(book.getBestMove(start));
+
+		OthelloBitboard late = new OthelloBitboard(0xFFFFFFFFL, 0x0F00000000L,
+				Player.WHITE);
+		assertEquals(0, book.lookup(late.getWhite(), late.getBlack(),
+				squares, scores));
+		assertNull(book.getBestMove(late));
+	}
+
+	/**
+	 * Tests that a file that is not a book is refused.
+	 * @throws IOException If the file cannot be written.
+	 */
+	@Test
+	public void testNotABook() throws IOException {
+		File file = File.createTempFile("othello", ".book");
+		file.deleteOnExit();
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+		}
+		try {
+			new OthelloBook(file.getPath());
+			fail("File accepted as a book");
+		} catch (IOException e) {
+			assertNotNull(e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests that game records are read and unfinished ones refused.
+	 */
+	@Test
+	public void testParse() {
+		assertNull(OthelloBookBuilder.parse("f5d6c3"));
+		assertNull(OthelloBookBuilder.parse("a1"));
+		//A game that ends after nine moves with no discs left to one.
+		int[] line = OthelloBookBuilder.parse("d3c3b3d2e1d6d7e3f4");
+		assertNotNull(line);
+		assertEquals(9, line.length);
+		assertEquals(2 * 8 + 3, line[0]);
+	}
+}
+//CHECKSTYLE:ON
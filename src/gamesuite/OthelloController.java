@@ -46,6 +46,29 @@ public class OthelloController implements IGameLogic {
 		this.store();
 	}
 	
+	/**
+	 * Starts a new game on a board of the given size, one of
+	 * Othello.SIZES. Earlier states can no longer be undone.
+	 * @param n Width and height of the board.
+	 */
+	public void setBoardSize(final int n) {
+		this.model = new Othello(n);
+		if (this.isComp) {
+			this.comp = new OthelloAI(this.model);
+		}
+		undo.clear();
+		redo.clear();
+		this.store();
+	}
+
+	/**
+	 * Getter for the width and height of the board.
+	 * @return Number of squares along each side.
+	 */
+	public int getSize() {
+		return this.model.getSize();
+	}
+
 	/** Allows user to set whether or not they are
 	 * playing against an AI.
 	 * @param ai True if this is an AI game.
@@ -271,7 +294,7 @@ public class OthelloController implements IGameLogic {
 	 *  Allows users to reset board after getting stalemate or gameover.
 	 */
 	public void reset() {
-		this.model = new Othello();
+		this.model = new Othello(this.model.getSize());
 		if (this.isComp) {
 			comp = new OthelloAI(this.model);
 		}
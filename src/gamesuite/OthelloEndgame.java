@@ -0,0 +1,411 @@
+package gamesuite;
+
+import java.util.Arrays;
+
+/**
+ * Exact endgame solver for Othello. Near the end of the game the whole
+ * tree can be searched to the last move, which plays perfectly where
+ * the heuristic search only estimates. The solver first finds whether
+ * the player to move wins, loses or draws with a null window around
+ * zero, then searches again beyond the bound it found for the exact
+ * disc difference. Both passes share a transposition table of
+ * score bounds.
+ * <p>
+ * Moves are ordered fastest first while many squares are empty, trying
+ * the moves that leave the opponent fewest replies, and by parity near
+ * the end: squares in quadrants with an odd number of empties come
+ * first, since the last move in such a region tends to be ours.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloEndgame {
+
+	/** Table size used when none is given. */
+	public static final int DEFAULT_MEGABYTES = 16;
+	/** Bytes taken by one table entry. */
+	private static final int ENTRY_BYTES = 19;
+	/** Fewest empty squares at which the table is used. */
+	private static final int TABLE_EMPTIES = 7;
+	/** Empty squares above which moves are ordered fastest first. */
+	private static final int SORT_EMPTIES = 6;
+	/** Largest disc difference a game can end with. */
+	private static final int MAX_SCORE = 64;
+	/** Deepest ply a solve can reach, counting passes. */
+	private static final int MAX_PLY = 2 * OthelloBitboard.SQUARES + 2;
+	/** The four quadrants of the board, used for parity. */
+	private static final long[] QUADRANTS = {
+		0x000000000F0F0F0FL, 0x00000000F0F0F0F0L,
+		0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+	};
+	/** Multiplier used to hash the player's discs. */
+	private static final long HASH_OWN = 0x9E3779B97F4A7C15L;
+	/** Multiplier used to hash the opponent's discs. */
+	private static final long HASH_OPP = 0xC2B2AE3D27D4EB4FL;
+	/** Nodes searched between checks of the clock, less one. */
+	private static final int CLOCK_MASK = 1023;
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS = 1000000L;
+
+	/** Discs of the player to move for each entry. */
+	private final long[] tableOwn;
+	/** Discs of the opponent for each entry. */
+	private final long[] tableOpp;
+	/** Lowest the score of each entry can be. */
+	private final byte[] tableLower;
+	/** Highest the score of each entry can be. */
+	private final byte[] tableUpper;
+	/** Best square of each entry. */
+	private final byte[] tableMove;
+	/** Mask taking a hash to a table index. */
+	private final int mask;
+	/** Shift taking the top bits of a hash to an index. */
+	private final int shift;
+	/** Moves of each ply, in the order they are tried. */
+	private final int[][] moveBuffer;
+	/** Sort keys of the moves of each ply. */
+	private final int[][] keyBuffer;
+	/** Number of positions visited by the last solve. */
+	private long nodes;
+	/** Score of the last solve for the player to move. */
+	private int score;
+	/** Best square found by the last finished pass, or -1. */
+	private int bestSquare;
+	/** Best square of the pass being searched. */
+	private int rootBest;
+	/** Whether the last solve found the win, loss or draw. */
+	private boolean solved;
+	/** Whether the last solve found the exact disc difference. */
+	private boolean exact;
+	/** Time the solve must stop by, or 0 for no limit. */
+	private long deadline;
+	/** Whether the current pass ran out of time. */
+	private boolean stopped;
+
+	/**
+	 * Constructor for a solver with a table of the default size.
+	 */
+	public OthelloEndgame() {
+		this(DEFAULT_MEGABYTES);
+	}
+
+	/**
+	 * Constructor for a solver with a table of about the given size.
+	 * The number of entries is rounded down to a power of two.
+	 * @param megabytes Memory to use for the table.
+	 */
+	public OthelloEndgame(final int megabytes) {
+		long wanted = Math.max(1, ((long) megabytes << 20) / ENTRY_BYTES);
+		int bits = Math.min(30, 63 - Long.numberOfLeadingZeros(wanted));
+		int entries = 1 << bits;
+		this.mask = entries - 1;
+		this.shift = Long.SIZE - Math.max(1, bits);
+		this.tableOwn = new long[entries];
+		this.tableOpp = new long[entries];
+		this.tableLower = new byte[entries];
+		this.tableUpper = new byte[entries];
+		this.tableMove = new byte[entries];
+		this.moveBuffer = new int[MAX_PLY][OthelloBitboard.SQUARES];
+		this.keyBuffer = new int[MAX_PLY][OthelloBitboard.SQUARES];
+		clear();
+	}
+
+	/**
+	 * Empties the table. The bounds it holds stay true between solves,
+	 * so this is only needed to time a solve from scratch.
+	 */
+	public void clear() {
+		//No position has both masks full, so no lookup can match.
+		Arrays.fill(tableOwn, -1L);
+		Arrays.fill(tableOpp, -1L);
+	}
+
+	/**
+	 * Solves the position for the exact disc difference.
+	 * @param b Position to solve.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
+	 * @return True if at least the win, loss or draw was found.
+	 */
+	public boolean solve(final OthelloBitboard b, final long millis) {
+		return solve(b, true, millis);
+	}
+
+	/**
+	 * Solves the position. The win, loss or draw is found first, and
+	 * if asked the exact disc difference after it. If time runs out
+	 * during the second pass the move of the first is kept.
+	 * @param b Position to solve.
+	 * @param wantExact Whether to find the exact disc difference.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
+	 * @return True if at least the win, loss or draw was found.
+	 */
+	public boolean solve(final OthelloBitboard b, final boolean wantExact,
+			final long millis) {
+		long own;
+		long opp;
+		if (b.getPlayer() == Player.BLACK) {
+			own = b.getBlack();
+			opp = b.getWhite();
+		} else {
+			own = b.getWhite();
+			opp = b.getBlack();
+		}
+		this.nodes = 0;
+		this.bestSquare = -1;
+		this.solved = false;
+		this.exact = false;
+		this.stopped = false;
+		if (millis > 0) {
+			this.deadline = System.nanoTime() + millis * NANOS;
+		} else {
+			this.deadline = 0;
+		}
+		rootBest = -1;
+		int wld = negamax(own, opp, -1, 1, false, 0);
+		if (stopped) {
+			return false;
+		}
+		this.solved = true;
+		this.score = wld;
+		this.bestSquare = rootBest;
+		if (wld == 0) {
+			this.exact = true;
+		} else if (wantExact) {
+			//A score outside the null window is a bound, so the exact
+			//score lies beyond it.
+			rootBest = -1;
+			int value;
+			if (wld > 0) {
+				value = negamax(own, opp, wld - 1, MAX_SCORE, false, 0);
+			} else {
+				value = negamax(own, opp, -MAX_SCORE, wld + 1, false, 0);
+			}
+			if (!stopped) {
+				this.exact = true;
+				this.score = value;
+				this.bestSquare = rootBest;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Negamax search with alpha-beta pruning to the end of the game.
+	 * Scores are disc differences, and scores outside the window are
+	 * bounds of the true score.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @param alpha Lower bound of the window.
+	 * @param beta Upper bound of the window.
+	 * @param passed Whether the last player passed.
+	 * @param ply Distance from the root.
+	 * @return Score of the position for the player to move.
+	 */
+	private int negamax(final long own, final long opp, final int alpha,
+			final int beta, final boolean passed, final int ply) {
+		nodes++;
+		if ((nodes & CLOCK_MASK) == 0 && deadline != 0
+				&& System.nanoTime() > deadline) {
+			stopped = true;
+		}
+		long moves = OthelloBitboard.moves(own, opp);
+		if (moves == 0) {
+			if (passed) {
+				return Long.bitCount(own) - Long.bitCount(opp);
+			}
+			return -negamax(opp, own, -beta, -alpha, true, ply + 1);
+		}
+		long empty = ~(own | opp);
+		int empties = Long.bitCount(empty);
+		int slot = -1;
+		int hashMove = -1;
+		int lower = -MAX_SCORE;
+		int upper = MAX_SCORE;
+		if (empties >= TABLE_EMPTIES) {
+			slot = index(own, opp);
+			if (tableOwn[slot] == own && tableOpp[slot] == opp) {
+				lower = tableLower[slot];
+				upper = tableUpper[slot];
+				hashMove = tableMove[slot];
+				//The root needs a move, so it is always searched. The
+				//window is not narrowed, as a score inside the narrowed
+				//window would look exact to the parent.
+				if (ply > 0) {
+					if (lower >= beta || lower == upper) {
+						return lower;
+					}
+					if (upper <= alpha) {
+						return upper;
+					}
+				}
+			}
+		}
+		int[] list = moveBuffer[ply];
+		int n = orderMoves(own, opp, moves, empty, empties, hashMove, ply);
+		int best = -MAX_SCORE - 1;
+		int bestSq = -1;
+		for (int i = 0; i < n; i++) {
+			int sq = list[i];
+			long move = 1L << sq;
+			long flipped = OthelloBitboard.flips(own, opp, move);
+			int value = -negamax(opp & ~flipped, own | move | flipped, -beta,
+					-Math.max(alpha, best), false, ply + 1);
+			if (stopped) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				bestSq = sq;
+				if (ply == 0) {
+					rootBest = sq;
+				}
+				if (best >= beta) {
+					break;
+				}
+			}
+		}
+		if (slot >= 0) {
+			if (tableOwn[slot] != own || tableOpp[slot] != opp) {
+				lower = -MAX_SCORE;
+				upper = MAX_SCORE;
+			}
+			if (best <= alpha) {
+				upper = best;
+			} else if (best >= beta) {
+				lower = best;
+			} else {
+				lower = best;
+				upper = best;
+			}
+			tableOwn[slot] = own;
+			tableOpp[slot] = opp;
+			tableLower[slot] = (byte) lower;
+			tableUpper[slot] = (byte) upper;
+			tableMove[slot] = (byte) bestSq;
+		}
+		return best;
+	}
+
+	/**
+	 * Fills the move list of the ply in the order the moves will be
+	 * tried: the table move, then fastest first or by parity.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @param moves Legal moves of the player.
+	 * @param empty Empty squares.
+	 * @param empties Number of empty squares.
+	 * @param hashMove Best square from the table, or -1.
+	 * @param ply Distance from the root.
+	 * @return Number of moves in the list.
+	 */
+	private int orderMoves(final long own, final long opp, final long moves,
+			final long empty, final int empties, final int hashMove,
+			final int ply) {
+		int[] list = moveBuffer[ply];
+		int n = 0;
+		long rest = moves;
+		if (hashMove >= 0 && (rest & (1L << hashMove)) != 0) {
+			list[n++] = hashMove;
+			rest &= ~(1L << hashMove);
+		}
+		long odd = 0;
+		for (long q : QUADRANTS) {
+			if ((Long.bitCount(empty & q) & 1) != 0) {
+				odd |= q;
+			}
+		}
+		if (empties > SORT_EMPTIES) {
+			int[] keys = keyBuffer[ply];
+			int first = n;
+			while (rest != 0) {
+				int sq = Long.numberOfTrailingZeros(rest);
+				long move = rest & -rest;
+				rest &= rest - 1;
+				long flipped = OthelloBitboard.flips(own, opp, move);
+				long replies = OthelloBitboard.moves(opp & ~flipped,
+						own | move | flipped);
+				int key = 2 * Long.bitCount(replies);
+				if ((odd & move) == 0) {
+					key++;
+				}
+				//Insertion sort, the lists are short.
+				int j = n++;
+				while (j > first && keys[j - 1] > key) {
+					keys[j] = keys[j - 1];
+					list[j] = list[j - 1];
+					j--;
+				}
+				keys[j] = key;
+				list[j] = sq;
+			}
+			return n;
+		}
+		for (int sq : OthelloSearch.ORDER) {
+			if ((rest & odd & (1L << sq)) != 0) {
+				list[n++] = sq;
+			}
+		}
+		for (int sq : OthelloSearch.ORDER) {
+			if ((rest & ~odd & (1L << sq)) != 0) {
+				list[n++] = sq;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Finds the table index of a position.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Index into the table.
+	 */
+	private int index(final long own, final long opp) {
+		long h = own * HASH_OWN ^ opp * HASH_OPP;
+		return (int) (h >>> shift) & mask;
+	}
+
+	/**
+	 * Getter method for the best move of the last solve.
+	 * @return Best move, or null if the player has to pass or the
+	 * solve did not finish.
+	 */
+	public OthelloMove getBestMove() {
+		if (bestSquare < 0) {
+			return null;
+		}
+		return new OthelloMove(bestSquare / OthelloBitboard.SIZE,
+				bestSquare % OthelloBitboard.SIZE);
+	}
+
+	/**
+	 * Getter method for the score of the last solve. If the solve was
+	 * not exact only the sign of the score is known.
+	 * @return Disc difference for the player to move at the root.
+	 */
+	public int getScore() {
+		return this.score;
+	}
+
+	/**
+	 * Getter method for whether the last solve found the outcome.
+	 * @return True if the win, loss or draw is known.
+	 */
+	public boolean isSolved() {
+		return this.solved;
+	}
+
+	/**
+	 * Getter method for whether the last solve found the exact score.
+	 * @return True if the disc difference is known.
+	 */
+	public boolean isExact() {
+		return this.exact;
+	}
+
+	/**
+	 * Getter method for the nodes visited by the last solve.
+	 * @return Number of positions visited.
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+}
@@ -0,0 +1,118 @@
+package gamesuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how long the Othello endgame solver takes for each number
+ * of empty squares. For every count a set of positions is reached by
+ * seeded random play and solved from an empty table, first for the
+ * win, loss or draw alone and then for the exact disc difference. The
+ * mean time and nodes of each are printed, which shows where the AI
+ * can afford to switch to the solver.
+ * <p>
+ * Usage: OthelloEndgameBenchmark [fewest empties] [most empties]
+ * [positions]
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public final class OthelloEndgameBenchmark {
+
+	/** Fewest empties solved when none is given. */
+	private static final int DEFAULT_MIN = 8;
+	/** Most empties solved when none is given. */
+	private static final int DEFAULT_MAX = 18;
+	/** Positions solved for each count when none is given. */
+	private static final int DEFAULT_POSITIONS = 10;
+	/** Seed for the random positions so every run solves the same. */
+	private static final long SEED = 42;
+	/** Nanoseconds in a millisecond. */
+	private static final double MILLIS = 1e6;
+
+	/**
+	 * Private constructor, the class only has a main method.
+	 */
+	private OthelloEndgameBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * @param args Fewest and most empties, and positions per count.
+	 */
+	public static void main(final String[] args) {
+		int min = DEFAULT_MIN;
+		int max = DEFAULT_MAX;
+		int count = DEFAULT_POSITIONS;
+		if (args.length > 0) {
+			min = Integer.parseInt(args[0]);
+		}
+		if (args.length > 1) {
+			max = Integer.parseInt(args[1]);
+		}
+		if (args.length > 2) {
+			count = Integer.parseInt(args[2]);
+		}
+		OthelloEndgame solver = new OthelloEndgame();
+		//Warms up the JIT so the first row is not penalised.
+		for (OthelloBitboard b : positions(min, count)) {
+			solver.solve(b, 0);
+		}
+
+		System.out.println("empties  wld(ms)   wld nodes  exact(ms)"
+				+ " exact nodes");
+		for (int e = min; e <= max; e++) {
+			List<OthelloBitboard> positions = positions(e, count);
+			long wldTime = 0;
+			long wldNodes = 0;
+			long exactTime = 0;
+			long exactNodes = 0;
+			for (OthelloBitboard b : positions) {
+				solver.clear();
+				long start = System.nanoTime();
+				solver.solve(b, false, 0);
+				wldTime += System.nanoTime() - start;
+				wldNodes += solver.getNodes();
+
+				solver.clear();
+				start = System.nanoTime();
+				solver.solve(b, true, 0);
+				exactTime += System.nanoTime() - start;
+				exactNodes += solver.getNodes();
+			}
+			int n = positions.size();
+			System.out.printf("%7d %8.2f %11d %10.2f %11d%n", e,
+					wldTime / MILLIS / n, wldNodes / n,
+					exactTime / MILLIS / n, exactNodes / n);
+		}
+	}
+
+	/**
+	 * Builds positions with the given number of empty squares by
+	 * seeded random play.
+	 * @param empties Empty squares in each position.
+	 * @param count Number of positions.
+	 * @return Positions where the player to move has moves.
+	 */
+	private static List<OthelloBitboard> positions(final int empties,
+			final int count) {
+		List<OthelloBitboard> list = new ArrayList<OthelloBitboard>();
+		Random rand = new Random(SEED + empties);
+		while (list.size() < count) {
+			OthelloBitboard b = new OthelloBitboard();
+			while (!b.isGameOver() && Long.bitCount(
+					~(b.getBlack() | b.getWhite())) > empties) {
+				List<OthelloMove> moves = b.getMoveList();
+				if (moves.isEmpty()) {
+					b.nextTurn();
+				} else {
+					b.makeMove(moves.get(rand.nextInt(moves.size())));
+				}
+			}
+			if (!b.isGameOver() && b.getMoves() != 0) {
+				list.add(b);
+			}
+		}
+		return list;
+	}
+}
@@ -0,0 +1,137 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the Othello endgame solver.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloEndgameTest {
+
+	/**
+	 * Plain minimax to the end of the game, used as the reference.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @param passed Whether the last player passed.
+	 * @return Disc difference for the player to move.
+	 */
+	private static int minimax(long own, long opp, boolean passed) {
+		long moves = OthelloBitboard.moves(own, opp);
+		if (moves == 0) {
+			if (passed) {
+				return Long.bitCount(own) - Long.bitCount(opp);
+			}
+			return -minimax(opp, own, true);
+		}
+		int best = -65;
+		while (moves != 0) {
+			long move = moves & -moves;
+			moves &= moves - 1;
+			long flipped = OthelloBitboard.flips(own, opp, move);
+			best = Math.max(best, -minimax(opp & ~flipped,
+					own | move | flipped, false));
+		}
+		return best;
+	}
+
+	/**
+	 * Plays seeded random moves until the given number of squares is
+	 * left empty.
+	 * @param rand Source of the moves.
+	 * @param empties Empty squares wanted.
+	 * @return Position with those empties, or null if the game ended.
+	 */
+	private static OthelloBitboard randomPosition(Random rand, int empties) {
+		OthelloBitboard b = new OthelloBitboard();
+		while (Long.bitCount(~(b.getBlack() | b.getWhite())) > empties) {
+			if (b.isGameOver()) {
+				return null;
+			}
+			long moves = b.getMoves();
+			if (moves == 0) {
+				b.nextTurn();
+				continue;
+			}
+			int pick = rand.nextInt(Long.bitCount(moves));
+			for (int i = 0; i < pick; i++) {
+				moves &= moves - 1;
+			}
+			b.makeMove(Long.numberOfTrailingZeros(moves));
+		}
+		return b;
+	}
+
+	/**
+	 * Tests the solver against plain minimax, for the outcome alone and
+	 * for the exact score, and that the move it picks reaches the score.
+	 */
+	@Test
+	public void testMatchesMinimax() {
+		Random rand = new Random(7);
+		OthelloEndgame solver = new OthelloEndgame(1);
+		for (int i = 0; i < 40; i++) {
+			OthelloBitboard b = randomPosition(rand, 9);
+			if (b == null || b.getMoves() == 0) {
+				continue;
+			}
+			long own = b.getPlayer() == Player.BLACK ? b.getBlack()
+					: b.getWhite();
+			long opp = b.getPlayer() == Player.BLACK ? b.getWhite()
+					: b.getBlack();
+			int expected = minimax(own, opp, false);
+
+			assertTrue(solver.solve(b, false, 0));
+			assertEquals(Integer.signum(expected),
+					Integer.signum(solver.getScore()));
+
+			assertTrue(solver.solve(b, 0));
+			assertTrue(solver.isExact());
+			assertEquals(expected, solver.getScore());
+			OthelloMove m = solver.getBestMove();
+			long move = OthelloBitboard.square(m.getX(), m.getY());
+			long flipped = OthelloBitboard.flips(own, opp, move);
+			assertEquals(expected, -minimax(opp & ~flipped,
+					own | move | flipped, false));
+		}
+	}
+
+	/**
+	 * Tests that the AI switches to the solver near the end of the game
+	 * and plays the move the solver finds.
+	 */
+	@Test
+	public void testAIUsesSolver() {
+		Random rand = new Random(11);
+		Othello o = new Othello();
+		OthelloBitboard b = new OthelloBitboard(o);
+		while (Long.bitCount(~(b.getBlack() | b.getWhite())) > 10) {
+			OthelloMove m = b.getMoveList().get(
+					rand.nextInt(b.getMoveList().size()));
+			o.makeMove(m);
+			b = new OthelloBitboard(o);
+		}
+		assertFalse(o.isGameOver());
+		Othello first = new Othello();
+		first.makeMove(new OthelloMove(2, 3));
+		OthelloAI ai = new OthelloAI(first);
+		//The first move of the AI is random, so it is played here.
+		ai.yourMove();
+		ai.setModel(o);
+		ai.setTimeBudget(0);
+		ai.yourMove();
+		assertEquals(10, ai.getDepthReached());
+
+		OthelloEndgame solver = new OthelloEndgame(1);
+		assertTrue(solver.solve(b, 0));
+		OthelloMove m = solver.getBestMove();
+		assertTrue(o.getPiece(m.getX(), m.getY()).getOwner()
+				== b.getPlayer());
+	}
+}
+//CHECKSTYLE:ON
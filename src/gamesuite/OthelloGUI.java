@@ -4,6 +4,7 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.GridLayout;
+import java.awt.Image;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import javax.swing.ImageIcon;
@@ -38,8 +39,14 @@ implements MouseListener {
 	/** integer values for location of move. */
 	private int toX, toY;
 
-	/** Size of each square. */
-	private final int size, sqSize;
+	/** Size of the board drawn and of each square. */
+	private int size, sqSize;
+
+	/** Width of the largest board drawn at the full square size. */
+	private static final int BOARD_PIXELS = 600;
+
+	/** Largest size of each square. */
+	private static final int MAX_SQUARE = 75;
 
 	/** Panel to hold JPanel pieces. */
 	private JPanel boardPanel;
@@ -58,34 +65,16 @@ implements MouseListener {
 	 * @param gamel Othello game logic.
 	 */
 	public OthelloGUI(final OthelloController gamel) {
-		// Get game images.
-		this.getImages();
-		
 		// instantiate game objects
 		this.game = gamel;
 		this.gameOption();
-		this.size = 8;
-		this.sqSize = 75;
-		// Creating size of panels.
-		Dimension panelSize =
-				new Dimension(size * sqSize,
-						size * sqSize);
 		// Layout setup
 		this.setLayout(new BorderLayout(30, 15));
 		
 		//Instantiates layered pane.
 		pane = new JLayeredPane();
-		pane.setPreferredSize(panelSize);
 		pane.addMouseListener(this);
-		
-		// Create panel to store board with grid layout of
-		// board size.
-		boardPanel = new JPanel(new GridLayout(size, size));
-		boardPanel.setPreferredSize(panelSize);
-		boardPanel.setBounds(0, 0, panelSize.width, panelSize.height);
-		this.board = new JPanel[size][size];
-		this.createBoard();
-		pane.add(boardPanel, JLayeredPane.DEFAULT_LAYER);
+		this.layoutBoard();
 		this.add(pane, BorderLayout.CENTER);
 		this.displayBoard();
 		this.showMoves();
@@ -112,6 +101,20 @@ implements MouseListener {
 		} else {
 			this.game.setAI(false);
 		}
+		Object[] sizes = new Object[Othello.SIZES.length];
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = Othello.SIZES[i] + " x " + Othello.SIZES[i];
+		}
+		Object choice = JOptionPane.showInputDialog(this,
+				"Please select a board size:",
+				"Board Size",
+				JOptionPane.PLAIN_MESSAGE,
+				null, sizes, sizes[1]);
+		for (int i = 0; i < sizes.length; i++) {
+			if (sizes[i].equals(choice)) {
+				this.game.setBoardSize(Othello.SIZES[i]);
+			}
+		}
 	}
 
 	@Override
@@ -144,11 +147,44 @@ implements MouseListener {
 		this.showMoves();
 	}
 	
+	/**
+	 * Builds the board panel for the size of the game, replacing the
+	 * one drawn before, so a loaded game of another size fits.
+	 */
+	private void layoutBoard() {
+		this.size = game.getSize();
+		//Squares shrink so large boards still fit on the screen.
+		this.sqSize = Math.min(MAX_SQUARE, BOARD_PIXELS / size);
+		// Get game images.
+		this.getImages();
+		// Creating size of panels.
+		Dimension panelSize =
+				new Dimension(size * sqSize,
+						size * sqSize);
+		pane.setPreferredSize(panelSize);
+		if (boardPanel != null) {
+			pane.remove(boardPanel);
+		}
+		// Create panel to store board with grid layout of
+		// board size.
+		boardPanel = new JPanel(new GridLayout(size, size));
+		boardPanel.setPreferredSize(panelSize);
+		boardPanel.setBounds(0, 0, panelSize.width, panelSize.height);
+		this.board = new JPanel[size][size];
+		this.createBoard();
+		pane.add(boardPanel, JLayeredPane.DEFAULT_LAYER);
+		pane.revalidate();
+	}
+
 	/**
 	 * Creates label for the pieces and places them into the
-	 * proper position on the board.
+	 * proper position on the board, first building the board
+	 * again if the game has changed size.
 	 */
 	public void displayBoard() {
+		if (game.getSize() != size) {
+			this.layoutBoard();
+		}
 		for (int x = 0; x < size; x++) {
 			for (int y = 0; y < size; y++) {
 				board[x][y].removeAll();
@@ -228,6 +264,14 @@ implements MouseListener {
 				.getResource("/BlackReg.png"));
 		rReg = new ImageIcon(this.getClass()
 				.getResource("/RedReg.png"));
+		if (sqSize < MAX_SQUARE) {
+			//Smaller squares on large boards need smaller pieces.
+			int piece = bReg.getIconWidth() * sqSize / MAX_SQUARE;
+			bReg = new ImageIcon(bReg.getImage().getScaledInstance(
+					piece, piece, Image.SCALE_SMOOTH));
+			rReg = new ImageIcon(rReg.getImage().getScaledInstance(
+					piece, piece, Image.SCALE_SMOOTH));
+		}
 	}
 	
 
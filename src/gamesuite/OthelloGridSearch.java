@@ -0,0 +1,566 @@
+package gamesuite;
+
+import java.util.Arrays;
+
+/**
+ * Alpha-beta search for Othello boards of any size. Boards larger than
+ * 8 by 8 do not fit a 64 bit mask, so this search keeps its own copy
+ * of the board as a padded grid: a border of blocked cells around the
+ * board lets a scan walk in any direction without bounds checks. Moves
+ * are made and taken back in place, with the turned discs kept on a
+ * stack. Each cell keeps a count of occupied neighbours, and the empty
+ * cells next to a disc, the frontier, are kept as a set updated by
+ * every move, so finding moves and counting mobility only look at the
+ * frontier. The cost of a node grows with the frontier of the discs
+ * rather than the area of the board.
+ * <p>
+ * The search and the evaluation follow OthelloSearch: negamax with
+ * iterative deepening under a time budget, scored on mobility,
+ * corners, stable edge discs, squares next to empty corners and the
+ * disc count.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloGridSearch {
+
+	/** Cell holding no disc. */
+	private static final byte EMPTY = 0;
+	/** Cell holding a black disc. */
+	private static final byte BLACK = 1;
+	/** Cell holding a white disc. */
+	private static final byte WHITE = 2;
+	/** Cell outside the board. */
+	private static final byte BORDER = 3;
+	/** Move ordering classes: corners, edges, inner and risky. */
+	private static final int CLASSES = 4;
+	/** Nodes searched between checks of the clock, less one. */
+	private static final int CLOCK_MASK = 1023;
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS = 1000000L;
+
+	/** Width and height of the board searched. */
+	private int size;
+	/** Width of the padded grid. */
+	private int width;
+	/** Contents of each cell of the grid. */
+	private byte[] cells;
+	/** Number of occupied neighbours of each cell. */
+	private int[] neighbours;
+	/** Empty cells next to a disc, in no particular order. */
+	private int[] frontier;
+	/** Position of each cell in the frontier, or -1 if not in it. */
+	private int[] frontierPos;
+	/** Number of cells in the frontier. */
+	private int frontierCount;
+	/** Moves found by generate before they are put in order. */
+	private int[] found;
+	/** Moves of each ordering class found by generate. */
+	private int[] classCounts;
+	/** Move ordering class of each cell. */
+	private int[] order;
+	/** Step to each of the eight neighbours of a cell. */
+	private int[] steps;
+	/** The four corner cells. */
+	private int[] corners;
+	/** Cells diagonal to each corner. */
+	private int[] xCells;
+	/** Each edge as its first corner, the step along it and its last
+	 * corner. */
+	private int[][] edges;
+	/** Moves of each ply. */
+	private int[][] moveBuffer;
+	/** Discs turned by the moves being searched. */
+	private int[] flipStack;
+	/** Entries in use on the flip stack. */
+	private int flipTop;
+	/** Discs of each colour, indexed by cell value. */
+	private int[] discs;
+	/** Number of positions visited by the last search. */
+	private long nodes;
+	/** Score of the last search. */
+	private int score;
+	/** Best cell found by the last completed iteration, or -1. */
+	private int bestCell;
+	/** Best cell of the iteration being searched. */
+	private int rootBest;
+	/** Deepest iteration completed by the last search. */
+	private int depthReached;
+	/** Time the search must stop by, or 0 for no limit. */
+	private long deadline;
+	/** Whether the current iteration ran out of time. */
+	private boolean stopped;
+
+	/**
+	 * Searches the game's position with iterative deepening until the
+	 * depth is reached or the time runs out. The first iteration
+	 * always completes so there is a move to play.
+	 * @param o Game to search, which is not changed.
+	 * @param depth Deepest iteration to search.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
+	 * @return Score of the position for the player to move.
+	 */
+	public int search(final Othello o, final int depth, final long millis) {
+		setUp(o);
+		byte color = BLACK;
+		if (o.getPlayer() == Player.WHITE) {
+			color = WHITE;
+		}
+		this.nodes = 0;
+		this.depthReached = 0;
+		this.bestCell = -1;
+		this.stopped = false;
+		if (millis > 0) {
+			this.deadline = System.nanoTime() + millis * NANOS;
+		} else {
+			this.deadline = 0;
+		}
+		int empties = size * size - discs[BLACK] - discs[WHITE];
+		int limit = Math.min(depth, OthelloSearch.MAX_PLY);
+		for (int d = 1; d <= limit; d++) {
+			rootBest = -1;
+			int value = negamax(color, d, 0, -Integer.MAX_VALUE,
+					Integer.MAX_VALUE, false);
+			if (stopped) {
+				break;
+			}
+			this.score = value;
+			this.depthReached = d;
+			this.bestCell = rootBest;
+			//Past the end of the game more depth changes nothing.
+			if (d >= empties) {
+				break;
+			}
+		}
+		return this.score;
+	}
+
+	/**
+	 * Copies the game into the grid, building the tables for its size
+	 * if it differs from the last search.
+	 * @param o Game to copy.
+	 */
+	private void setUp(final Othello o) {
+		if (o.getSize() != size) {
+			buildTables(o.getSize());
+		}
+		Arrays.fill(cells, BORDER);
+		Arrays.fill(neighbours, 0);
+		Arrays.fill(discs, 0);
+		Arrays.fill(frontierPos, -1);
+		frontierCount = 0;
+		flipTop = 0;
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				int c = cell(x, y);
+				OthelloPiece p = o.getPiece(x, y);
+				if (p == null) {
+					cells[c] = EMPTY;
+				} else if (p.getOwner() == Player.BLACK) {
+					cells[c] = BLACK;
+				} else {
+					cells[c] = WHITE;
+				}
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				int c = cell(x, y);
+				if (cells[c] == BLACK || cells[c] == WHITE) {
+					discs[cells[c]]++;
+					for (int s : steps) {
+						neighbours[c + s]++;
+					}
+				}
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				int c = cell(x, y);
+				if (cells[c] == EMPTY && neighbours[c] > 0) {
+					addFrontier(c);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Builds the grid and the tables that depend on the board size.
+	 * @param n Width and height of the board.
+	 */
+	private void buildTables(final int n) {
+		size = n;
+		width = n + 2;
+		int total = width * width;
+		cells = new byte[total];
+		neighbours = new int[total];
+		frontier = new int[total];
+		frontierPos = new int[total];
+		found = new int[n * n];
+		classCounts = new int[CLASSES];
+		order = new int[total];
+		steps = new int[] {1, -1, width, -width, width + 1, width - 1,
+				-width + 1, -width - 1};
+		corners = new int[] {cell(0, 0), cell(0, n - 1), cell(n - 1, 0),
+				cell(n - 1, n - 1)};
+		xCells = new int[] {cell(1, 1), cell(1, n - 2), cell(n - 2, 1),
+				cell(n - 2, n - 2)};
+		edges = new int[][] {
+			{corners[0], 1, corners[1]}, {corners[2], 1, corners[3]},
+			{corners[0], width, corners[2]}, {corners[1], width, corners[3]}
+		};
+		discs = new int[BORDER + 1];
+		for (int x = 0; x < n; x++) {
+			for (int y = 0; y < n; y++) {
+				boolean edgeX = x == 0 || x == n - 1;
+				boolean edgeY = y == 0 || y == n - 1;
+				boolean nearX = x <= 1 || x >= n - 2;
+				boolean nearY = y <= 1 || y >= n - 2;
+				int c = cell(x, y);
+				if (edgeX && edgeY) {
+					order[c] = 0;
+				} else if (nearX && nearY) {
+					//Next to a corner, which it may give away.
+					order[c] = CLASSES - 1;
+				} else if (edgeX || edgeY) {
+					order[c] = 1;
+				} else {
+					order[c] = 2;
+				}
+			}
+		}
+		int plies = 2 * OthelloSearch.MAX_PLY + 2;
+		moveBuffer = new int[plies][n * n];
+		flipStack = new int[plies * 8 * n];
+	}
+
+	/**
+	 * Gets the grid cell of a board square.
+	 * @param x Vertical position of the square.
+	 * @param y Horizontal position of the square.
+	 * @return Index of the cell.
+	 */
+	private int cell(final int x, final int y) {
+		return (x + 1) * width + y + 1;
+	}
+
+	/**
+	 * Negamax search with alpha-beta pruning. A player without moves
+	 * passes, and the game ends when neither player can move.
+	 * @param color Colour of the player to move.
+	 * @param depth Remaining depth to search.
+	 * @param ply Distance from the root.
+	 * @param alpha Lower bound of the window.
+	 * @param beta Upper bound of the window.
+	 * @param passed Whether the last player passed.
+	 * @return Score of the position for the player to move.
+	 */
+	private int negamax(final byte color, final int depth, final int ply,
+			final int alpha, final int beta, final boolean passed) {
+		nodes++;
+		if ((nodes & CLOCK_MASK) == 0 && deadline != 0
+				&& depthReached > 0 && System.nanoTime() > deadline) {
+			stopped = true;
+		}
+		byte other = (byte) (BORDER - color);
+		int[] moves = moveBuffer[ply];
+		int n = generate(color, moves);
+		if (n == 0) {
+			if (passed) {
+				return (discs[color] - discs[other]) * OthelloSearch.DISC_WIN;
+			}
+			return -negamax(other, depth, ply + 1, -beta, -alpha, true);
+		}
+		if (depth == 0) {
+			return evaluate(color, n);
+		}
+		if (ply == 0 && bestCell >= 0) {
+			//The best move of the last iteration is tried first.
+			for (int i = 1; i < n; i++) {
+				if (moves[i] == bestCell) {
+					moves[i] = moves[0];
+					moves[0] = bestCell;
+					break;
+				}
+			}
+		}
+		int a = alpha;
+		int best = -Integer.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			int c = moves[i];
+			int mark = flipTop;
+			play(c, color);
+			int value = -negamax(other, depth - 1, ply + 1, -beta, -a,
+					false);
+			undo(c, color, mark);
+			if (stopped) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				if (ply == 0) {
+					rootBest = c;
+				}
+				if (value > a) {
+					a = value;
+				}
+				if (a >= beta) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Lists the moves of a player, corners first and the squares next
+	 * to corners last. The frontier is scanned once and the moves found
+	 * are then put in order by class.
+	 * @param color Colour of the player.
+	 * @param moves List to fill.
+	 * @return Number of moves.
+	 */
+	private int generate(final byte color, final int[] moves) {
+		Arrays.fill(classCounts, 0);
+		int n = 0;
+		for (int i = 0; i < frontierCount; i++) {
+			int c = frontier[i];
+			if (canPlay(c, color)) {
+				found[n++] = c;
+				classCounts[order[c]]++;
+			}
+		}
+		//Turns the counts into the first place of each class.
+		int start = 0;
+		for (int k = 0; k < CLASSES; k++) {
+			int count = classCounts[k];
+			classCounts[k] = start;
+			start += count;
+		}
+		for (int i = 0; i < n; i++) {
+			int c = found[i];
+			moves[classCounts[order[c]]++] = c;
+		}
+		return n;
+	}
+
+	/**
+	 * Counts the moves of a player.
+	 * @param color Colour of the player.
+	 * @return Number of moves.
+	 */
+	private int countMoves(final byte color) {
+		int n = 0;
+		for (int i = 0; i < frontierCount; i++) {
+			if (canPlay(frontier[i], color)) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Adds an empty cell to the frontier.
+	 * @param c Cell to add.
+	 */
+	private void addFrontier(final int c) {
+		frontierPos[c] = frontierCount;
+		frontier[frontierCount++] = c;
+	}
+
+	/**
+	 * Takes a cell out of the frontier, moving the last cell into its
+	 * place.
+	 * @param c Cell to take out.
+	 */
+	private void removeFrontier(final int c) {
+		int i = frontierPos[c];
+		int last = frontier[--frontierCount];
+		frontier[i] = last;
+		frontierPos[last] = i;
+		frontierPos[c] = -1;
+	}
+
+	/**
+	 * Checks whether a player may play an empty cell.
+	 * @param c Cell to check.
+	 * @param color Colour of the player.
+	 * @return True if the disc would turn at least one other.
+	 */
+	private boolean canPlay(final int c, final byte color) {
+		byte other = (byte) (BORDER - color);
+		for (int s : steps) {
+			int k = c + s;
+			if (cells[k] != other) {
+				continue;
+			}
+			do {
+				k += s;
+			} while (cells[k] == other);
+			if (cells[k] == color) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Plays a disc and turns the discs it brackets, pushing them on
+	 * the flip stack.
+	 * @param c Cell played, which must be a legal move.
+	 * @param color Colour of the player.
+	 */
+	private void play(final int c, final byte color) {
+		byte other = (byte) (BORDER - color);
+		int start = flipTop;
+		for (int s : steps) {
+			int k = c + s;
+			if (cells[k] != other) {
+				continue;
+			}
+			do {
+				k += s;
+			} while (cells[k] == other);
+			if (cells[k] == color) {
+				for (k -= s; k != c; k -= s) {
+					cells[k] = color;
+					flipStack[flipTop++] = k;
+				}
+			}
+		}
+		int turned = flipTop - start;
+		cells[c] = color;
+		discs[color] += turned + 1;
+		discs[other] -= turned;
+		removeFrontier(c);
+		for (int s : steps) {
+			int k = c + s;
+			if (++neighbours[k] == 1 && cells[k] == EMPTY) {
+				addFrontier(k);
+			}
+		}
+	}
+
+	/**
+	 * Takes back a move made by play.
+	 * @param c Cell that was played.
+	 * @param color Colour of the player who played it.
+	 * @param mark Height of the flip stack before the move.
+	 */
+	private void undo(final int c, final byte color, final int mark) {
+		byte other = (byte) (BORDER - color);
+		int turned = flipTop - mark;
+		while (flipTop > mark) {
+			cells[flipStack[--flipTop]] = other;
+		}
+		cells[c] = EMPTY;
+		discs[color] -= turned + 1;
+		discs[other] += turned;
+		for (int s : steps) {
+			int k = c + s;
+			if (--neighbours[k] == 0 && cells[k] == EMPTY) {
+				removeFrontier(k);
+			}
+		}
+		//A legal move always touched a disc.
+		addFrontier(c);
+	}
+
+	/**
+	 * Method to analyze the position on a function which returns the
+	 * position's value for the player to move.
+	 * @param color Colour of the player to move.
+	 * @param ownMoves Number of moves of the player to move.
+	 * @return The derived value of the position.
+	 */
+	private int evaluate(final byte color, final int ownMoves) {
+		byte other = (byte) (BORDER - color);
+		int mobility = ownMoves - countMoves(other);
+		int cornerCount = 0;
+		int xSquares = 0;
+		for (int i = 0; i < corners.length; i++) {
+			byte corner = cells[corners[i]];
+			if (corner == color) {
+				cornerCount++;
+			} else if (corner == other) {
+				cornerCount--;
+			} else if (cells[xCells[i]] == color) {
+				xSquares--;
+			} else if (cells[xCells[i]] == other) {
+				xSquares++;
+			}
+		}
+		int stable = stableEdges(color) - stableEdges(other);
+		int filled = discs[color] + discs[other];
+		int discDiff = (discs[color] - discs[other]) * filled
+				* OthelloBitboard.SQUARES
+				/ (size * size * OthelloSearch.DISC_DIVISOR);
+		return mobility * OthelloSearch.MOBILITY_WEIGHT
+				+ cornerCount * OthelloSearch.CORNER_WEIGHT
+				+ stable * OthelloSearch.STABLE_WEIGHT
+				+ xSquares * OthelloSearch.X_SQUARE_WEIGHT + discDiff;
+	}
+
+	/**
+	 * Counts a player's edge discs that can never be turned: the runs
+	 * of the player's discs along an edge that start from a corner.
+	 * @param color Colour of the player.
+	 * @return Number of stable edge discs.
+	 */
+	private int stableEdges(final byte color) {
+		int count = 0;
+		for (int[] e : edges) {
+			int run = 0;
+			for (int c = e[0]; cells[c] == color; c += e[1]) {
+				run++;
+			}
+			if (run < size) {
+				for (int c = e[2]; cells[c] == color; c -= e[1]) {
+					run++;
+				}
+			}
+			count += run;
+		}
+		//Corners lie on two edges and were counted twice.
+		for (int c : corners) {
+			if (cells[c] == color) {
+				count--;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Getter method for the best move of the last search.
+	 * @return Best move, or null if the player has to pass.
+	 */
+	public OthelloMove getBestMove() {
+		if (bestCell < 0) {
+			return null;
+		}
+		return new OthelloMove(bestCell / width - 1, bestCell % width - 1);
+	}
+
+	/**
+	 * Getter method for the depth of the last completed iteration.
+	 * @return Depth reached by the last search.
+	 */
+	public int getDepthReached() {
+		return this.depthReached;
+	}
+
+	/**
+	 * Getter method for the nodes visited by the last search.
+	 * @return Number of positions visited.
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Getter method for the score of the last search.
+	 * @return Score for the player to move at the root.
+	 */
+	public int getScore() {
+		return this.score;
+	}
+}
@@ -277,6 +277,160 @@ public class OthelloLogicTest {
 		assertTrue(o.isGameOver());
 	}
 	
+	/** 
+	 * Tests that the result board of a move is worked out
+	 * without changing the game.
+	 */
+	@Test
+	public void testResultBoard() {
+		Othello o = new Othello();
+		OthelloMove first = new OthelloMove(2, 3);
+		o.makeMove(first);
+		OthelloMove m = o.getMoveList().get(0);
+		OthelloPiece[][] result = o.getResultBoard(m);
+		
+		assertTrue(result[m.getX()][m.getY()].getOwner() == Player.WHITE);
+		assertTrue(o.getPiece(m.getX(), m.getY()) == null);
+		assertTrue(o.getWhiteCount() == 1);
+		assertTrue(o.getResultBoard(m) == result);
+		assertTrue(o.getResultBoard(new OthelloMove(0, 0)) == null);
+		
+		int white = 0;
+		for (OthelloPiece[] row : result) {
+			for (OthelloPiece p : row) {
+				if (p != null && p.getOwner() == Player.WHITE) {
+					white++;
+				}
+			}
+		}
+		o.makeMove(m);
+		assertTrue(o.getWhiteCount() == white);
+	}
+	
+	/** 
+	 * Tests the ray scans against the bitboard moves and flips over
+	 * seeded random games.
+	 */
+	@Test
+	public void testRayScan() {
+		java.util.Random rand = new java.util.Random(16);
+		for (int g = 0; g < 20; g++) {
+			Othello o = new Othello();
+			OthelloBitboard b = new OthelloBitboard(o);
+			while (!b.isGameOver()) {
+				long moves = b.getMoves();
+				for (int x = 0; x < 8; x++) {
+					for (int y = 0; y < 8; y++) {
+						assertEquals((moves & OthelloBitboard.square(x, y))
+								!= 0, o.validMove(x, y, o.getPlayer()));
+					}
+				}
+				java.util.List<OthelloMove> list = b.getMoveList();
+				OthelloMove m = list.get(rand.nextInt(list.size()));
+				OthelloPiece[][] copy = new OthelloPiece[8][8];
+				for (int x = 0; x < 8; x++) {
+					for (int y = 0; y < 8; y++) {
+						if (o.getPiece(x, y) != null) {
+							copy[x][y] = new OthelloPiece(
+									o.getPiece(x, y).getOwner());
+						}
+					}
+				}
+				Othello.flipRays(copy, m.getX(), m.getY(), o.getPlayer());
+				o.makeMove(m.getX(), m.getY());
+				b = new OthelloBitboard(o);
+				for (int x = 0; x < 8; x++) {
+					for (int y = 0; y < 8; y++) {
+						if (copy[x][y] != null) {
+							assertTrue(copy[x][y].getOwner()
+									== o.getPiece(x, y).getOwner());
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/** 
+	 * Tests that the disc counts and the end of the game, kept up as
+	 * moves are made, match a count of the board and the bitboard.
+	 */
+	@Test
+	public void testIncrementalCounts() {
+		java.util.Random rand = new java.util.Random(17);
+		for (int g = 0; g < 20; g++) {
+			Othello o = new Othello();
+			assertFalse(o.getMoveList().isEmpty());
+			while (!o.isGameOver()) {
+				java.util.List<OthelloMove> list = o.getMoveList();
+				assertTrue(o.makeMove(list.get(rand.nextInt(list.size()))));
+				int black = 0;
+				int white = 0;
+				for (int x = 0; x < 8; x++) {
+					for (int y = 0; y < 8; y++) {
+						OthelloPiece p = o.getPiece(x, y);
+						if (p != null && p.getOwner() == Player.BLACK) {
+							black++;
+						} else if (p != null) {
+							white++;
+						}
+					}
+				}
+				assertEquals(black, o.getBlackCount());
+				assertEquals(white, o.getWhiteCount());
+				assertEquals(new OthelloBitboard(o).isGameOver(),
+						o.isGameOver());
+			}
+		}
+	}
+	
+	/** 
+	 * Tests that every board size starts with four centred discs and
+	 * that the moves found from the frontier match a scan of every
+	 * square through a random game.
+	 */
+	@Test
+	public void testBoardSizes() {
+		java.util.Random rand = new java.util.Random(23);
+		for (int n : Othello.SIZES) {
+			Othello o = new Othello(n);
+			assertEquals(n, o.getSize());
+			assertEquals(Player.WHITE, o.getPiece(n / 2, n / 2).getOwner());
+			assertEquals(Player.BLACK,
+					o.getPiece(n / 2 - 1, n / 2).getOwner());
+			assertEquals(4, o.getMoveList().size());
+			while (!o.isGameOver()) {
+				java.util.List<OthelloMove> list = o.getMoveList();
+				int count = 0;
+				for (int x = 0; x < n; x++) {
+					for (int y = 0; y < n; y++) {
+						if (o.validMove(new OthelloMove(x, y))) {
+							count++;
+						}
+					}
+				}
+				assertEquals(count, list.size());
+				assertTrue(o.makeMove(list.get(rand.nextInt(list.size()))));
+			}
+			assertTrue(o.getBlackCount() + o.getWhiteCount() <= n * n);
+		}
+	}
+	
+	/** 
+	 * Tests that odd and tiny board sizes are refused.
+	 */
+	@Test
+	public void testOddSize() {
+		for (int n : new int[] {2, 7}) {
+			try {
+				new Othello(n);
+				fail("Size " + n + " accepted");
+			} catch (IllegalArgumentException e) {
+				assertNotNull(e.getMessage());
+			}
+		}
+	}
+	
 	/** 
 	 * Tests save and load of game.
 	 * @throws Exception to handle load/save exceptions
@@ -289,5 +443,73 @@ public class OthelloLogicTest {
 		o.saveState(s);
 		o.loadState(s);
 	}
+
+	/**
+	 * Tests that a save of one size loads into a game of another,
+	 * both ways, and plays on to the end, and that a board of a size
+	 * the game has not got is refused.
+	 * @throws Exception to handle load/save exceptions
+	 */
+	@Test
+	public void testLoadOtherSize() throws Exception {
+		java.io.File file = java.io.File.createTempFile("othello", ".sav");
+		file.deleteOnExit();
+		String s = file.getPath();
+		int[][] pairs = {{6, 8}, {8, 6}};
+		for (int[] pair : pairs) {
+			Othello saved = new Othello(pair[0]);
+			for (int i = 0; i < 6; i++) {
+				assertTrue(saved.makeMove(saved.getMoveList().get(0)));
+			}
+			saved.saveState(s);
+			Othello o = new Othello(pair[1]);
+			o.loadState(s);
+			assertEquals(pair[0], o.getSize());
+			assertSameGame(saved, o);
+			while (!o.isGameOver()) {
+				OthelloMove m = o.getMoveList().get(0);
+				assertTrue(saved.makeMove(m));
+				assertTrue(o.makeMove(m));
+				assertSameGame(saved, o);
+			}
+		}
+
+		java.io.ObjectOutputStream out = new java.io.ObjectOutputStream(
+				new java.io.FileOutputStream(s));
+		out.writeObject(new OthelloPiece[5][5]);
+		out.writeObject(Player.BLACK);
+		out.close();
+		Othello o = new Othello();
+		try {
+			o.loadState(s);
+			fail("A 5 by 5 board was loaded.");
+		} catch (Exception e) {
+			assertEquals("Error in read, file corrupted.", e.getMessage());
+		}
+		assertEquals(8, o.getSize());
+	}
+
+	/**
+	 * Asserts that two games have the same discs, counts and moves.
+	 * @param a First game.
+	 * @param b Second game.
+	 */
+	private static void assertSameGame(final Othello a, final Othello b) {
+		assertEquals(a.getSize(), b.getSize());
+		assertEquals(a.getBlackCount(), b.getBlackCount());
+		assertEquals(a.getWhiteCount(), b.getWhiteCount());
+		for (int x = 0; x < a.getSize(); x++) {
+			for (int y = 0; y < a.getSize(); y++) {
+				OthelloPiece p = a.getPiece(x, y);
+				OthelloPiece q = b.getPiece(x, y);
+				assertEquals(p == null ? null : p.getOwner(),
+						q == null ? null : q.getOwner());
+			}
+		}
+		assertEquals(a.getMoveList().size(), b.getMoveList().size());
+		for (OthelloMove m : a.getMoveList()) {
+			assertTrue(b.validMove(m));
+		}
+	}
 }
 //CHECKSTYLE:ON
\ No newline at end of file
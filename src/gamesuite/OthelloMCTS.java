@@ -0,0 +1,456 @@
+package gamesuite;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monte Carlo tree search for Othello. Each playout walks down the
+ * tree choosing children by UCT, adds one new node, finishes the game
+ * with random moves and counts the result back up the path. Over many
+ * playouts the tree grows towards the moves that win most often, and
+ * the root move visited most is played.
+ * <p>
+ * The search is parallel at the root: every thread grows its own tree
+ * from the same position with its own random numbers, and the visits
+ * of the root moves are added up at the end. No locks are needed and
+ * the threads only share the playout count and the stop flag. Each
+ * tree keeps its nodes in preallocated arrays, and playouts run on the
+ * bitboard masks, so a playout allocates nothing.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloMCTS {
+
+	/** Nodes each tree can hold when no size is given. */
+	public static final int DEFAULT_NODES = 1 << 18;
+	/** Playouts run when neither limit is given. */
+	public static final long DEFAULT_PLAYOUTS = 10000;
+	/** Weight of exploration against the win rate in UCT. */
+	private static final double EXPLORATION = 1.4;
+	/** Index used for a pass in the root visit counts. */
+	private static final int PASS = OthelloBitboard.SQUARES;
+	/** Playouts run between checks of the clock, less one. */
+	private static final int CLOCK_MASK = 63;
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS = 1000000L;
+	/** Nanoseconds in a second. */
+	private static final double SECOND = 1e9;
+
+	/** One tree for each thread, the main thread's first. */
+	private Tree[] trees;
+	/** Flag telling the helper threads to stop. */
+	private AtomicBoolean stop;
+	/** Playouts still to be run when a playout budget is set. */
+	private AtomicLong remaining;
+	/** Root visits of each square, with passes last. */
+	private long[] rootVisits;
+	/** Root wins of each square, with passes last. */
+	private double[] rootWins;
+	/** Square of the best move of the last search, or -1. */
+	private int bestSquare;
+	/** Nanoseconds taken by the last search. */
+	private long elapsed;
+
+	/**
+	 * Constructor for a search running on the given number of threads.
+	 * @param threads Number of threads to search with, at least one.
+	 */
+	public OthelloMCTS(final int threads) {
+		this(threads, DEFAULT_NODES, System.nanoTime());
+	}
+
+	/**
+	 * Constructor for a search with trees of the given size and seeded
+	 * random playouts.
+	 * @param threads Number of threads to search with, at least one.
+	 * @param nodes Nodes each tree can hold.
+	 * @param seed Seed of the random playouts.
+	 */
+	public OthelloMCTS(final int threads, final int nodes, final long seed) {
+		this.stop = new AtomicBoolean();
+		this.remaining = new AtomicLong();
+		this.rootVisits = new long[PASS + 1];
+		this.rootWins = new double[PASS + 1];
+		this.trees = new Tree[Math.max(1, threads)];
+		SplittableRandom seeds = new SplittableRandom(seed);
+		for (int i = 0; i < trees.length; i++) {
+			trees[i] = new Tree(Math.max(2, nodes), seeds.split());
+		}
+	}
+
+	/**
+	 * Searches the position on every thread until the playouts are run
+	 * or the time runs out, whichever comes first.
+	 * @param b Position to search.
+	 * @param playouts Playouts to run over all threads, or 0 for no
+	 * limit.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
+	 * If neither limit is set DEFAULT_PLAYOUTS are run.
+	 * @return Win rate of the best move, counting draws as half.
+	 */
+	public double search(final OthelloBitboard b, final long playouts,
+			final long millis) {
+		final long own;
+		final long opp;
+		if (b.getPlayer() == Player.BLACK) {
+			own = b.getBlack();
+			opp = b.getWhite();
+		} else {
+			own = b.getWhite();
+			opp = b.getBlack();
+		}
+		final long deadline;
+		if (millis > 0) {
+			deadline = System.nanoTime() + millis * NANOS;
+		} else {
+			deadline = 0;
+		}
+		if (playouts > 0) {
+			remaining.set(playouts);
+		} else if (millis > 0) {
+			remaining.set(Long.MAX_VALUE);
+		} else {
+			remaining.set(DEFAULT_PLAYOUTS);
+		}
+		stop.set(false);
+		long start = System.nanoTime();
+		Thread[] helpers = new Thread[trees.length - 1];
+		for (int i = 0; i < helpers.length; i++) {
+			final Tree helper = trees[i + 1];
+			helpers[i] = new Thread(() -> helper.run(own, opp, deadline),
+					"othello-mcts-" + (i + 1));
+			helpers[i].setDaemon(true);
+			helpers[i].start();
+		}
+		trees[0].run(own, opp, deadline);
+		stop.set(true);
+		for (Thread helper : helpers) {
+			try {
+				helper.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		this.elapsed = System.nanoTime() - start;
+		return pickMove();
+	}
+
+	/**
+	 * Adds up the root visits of every tree and picks the move visited
+	 * most.
+	 * @return Win rate of the move picked.
+	 */
+	private double pickMove() {
+		Arrays.fill(rootVisits, 0);
+		Arrays.fill(rootWins, 0);
+		for (Tree t : trees) {
+			t.addRootCounts(rootVisits, rootWins);
+		}
+		bestSquare = -1;
+		long most = 0;
+		for (int i = 0; i < rootVisits.length; i++) {
+			if (rootVisits[i] > most) {
+				most = rootVisits[i];
+				bestSquare = i;
+			}
+		}
+		if (bestSquare < 0) {
+			return 0;
+		}
+		return rootWins[bestSquare] / rootVisits[bestSquare];
+	}
+
+	/**
+	 * Getter method for the best move of the last search.
+	 * @return Best move, or null if the player has to pass or the
+	 * game is over.
+	 */
+	public OthelloMove getBestMove() {
+		if (bestSquare < 0 || bestSquare == PASS) {
+			return null;
+		}
+		return new OthelloMove(bestSquare / OthelloBitboard.SIZE,
+				bestSquare % OthelloBitboard.SIZE);
+	}
+
+	/**
+	 * Getter method for the playouts run by all the threads.
+	 * @return Number of playouts of the last search.
+	 */
+	public long getPlayouts() {
+		long total = 0;
+		for (Tree t : trees) {
+			total += t.playouts;
+		}
+		return total;
+	}
+
+	/**
+	 * Getter method for the speed of the last search.
+	 * @return Playouts run each second over all the threads.
+	 */
+	public double getPlayoutsPerSecond() {
+		if (elapsed == 0) {
+			return 0;
+		}
+		return getPlayouts() * SECOND / elapsed;
+	}
+
+	/**
+	 * Getter method for the number of threads searching.
+	 * @return Number of threads.
+	 */
+	public int getThreads() {
+		return trees.length;
+	}
+
+	/**
+	 * Search tree grown by one thread. Node i is described by the
+	 * entries at i of the arrays, and the children of a node are kept
+	 * next to each other from its first child.
+	 */
+	private final class Tree {
+		/** Discs of the player to move at each node. */
+		private final long[] own;
+		/** Discs of the opponent at each node. */
+		private final long[] opp;
+		/** Moves of each node not yet added as children. */
+		private final long[] untried;
+		/** Whether each node still has to add its pass child. */
+		private final boolean[] mustPass;
+		/** Parent of each node, or -1 for the root. */
+		private final int[] parent;
+		/** First child of each node, or -1 if none are added. */
+		private final int[] firstChild;
+		/** Number of children added to each node. */
+		private final int[] children;
+		/** Square played to reach each node, or PASS. */
+		private final int[] square;
+		/** Playouts through each node. */
+		private final int[] visits;
+		/** Wins of the player who moved into each node. */
+		private final double[] wins;
+		/** Random numbers for the playouts. */
+		private final SplittableRandom random;
+		/** Nodes in use. */
+		private int size;
+		/** Playouts run by the last search. */
+		private long playouts;
+
+		/**
+		 * Constructor for a tree of the given size.
+		 * @param nodes Nodes the tree can hold.
+		 * @param r Random numbers for the playouts.
+		 */
+		Tree(final int nodes, final SplittableRandom r) {
+			this.own = new long[nodes];
+			this.opp = new long[nodes];
+			this.untried = new long[nodes];
+			this.mustPass = new boolean[nodes];
+			this.parent = new int[nodes];
+			this.firstChild = new int[nodes];
+			this.children = new int[nodes];
+			this.square = new int[nodes];
+			this.visits = new int[nodes];
+			this.wins = new double[nodes];
+			this.random = r;
+		}
+
+		/**
+		 * Grows a new tree from the position until the search stops.
+		 * @param rootOwn Discs of the player to move.
+		 * @param rootOpp Discs of the opponent.
+		 * @param deadline Time to stop by, or 0 for no limit.
+		 */
+		void run(final long rootOwn, final long rootOpp,
+				final long deadline) {
+			size = 1;
+			playouts = 0;
+			addNode(0, -1, PASS, rootOwn, rootOpp);
+			while (!stop.get() && remaining.getAndDecrement() > 0) {
+				if ((playouts & CLOCK_MASK) == 0 && deadline != 0
+						&& System.nanoTime() > deadline) {
+					break;
+				}
+				playout();
+				playouts++;
+			}
+			stop.set(true);
+		}
+
+		/**
+		 * Fills in a node of the tree.
+		 * @param n Index of the node.
+		 * @param p Parent of the node, or -1 for the root.
+		 * @param sq Square played to reach the node, or PASS.
+		 * @param o Discs of the player to move.
+		 * @param x Discs of the opponent.
+		 */
+		private void addNode(final int n, final int p, final int sq,
+				final long o, final long x) {
+			long moves = OthelloBitboard.moves(o, x);
+			own[n] = o;
+			opp[n] = x;
+			untried[n] = moves;
+			mustPass[n] = moves == 0 && OthelloBitboard.moves(x, o) != 0;
+			parent[n] = p;
+			firstChild[n] = -1;
+			children[n] = 0;
+			square[n] = sq;
+			visits[n] = 0;
+			wins[n] = 0;
+		}
+
+		/**
+		 * Runs one playout: selection, expansion, a random game and
+		 * the update of every node on the path.
+		 */
+		private void playout() {
+			int node = 0;
+			while (untried[node] == 0 && !mustPass[node]
+					&& children[node] > 0) {
+				node = select(node);
+			}
+			if (untried[node] != 0 || mustPass[node]) {
+				node = expand(node);
+			}
+			//Result for the player to move at the node.
+			double result = simulate(own[node], opp[node]);
+			while (node >= 0) {
+				visits[node]++;
+				result = 1 - result;
+				wins[node] += result;
+				node = parent[node];
+			}
+		}
+
+		/**
+		 * Picks the child with the highest UCT value.
+		 * @param node Node whose children are all added.
+		 * @return Child to walk down to.
+		 */
+		private int select(final int node) {
+			double log = Math.log(visits[node]);
+			int best = firstChild[node];
+			double bestValue = -1;
+			int end = firstChild[node] + children[node];
+			for (int c = firstChild[node]; c < end; c++) {
+				double value = wins[c] / visits[c]
+						+ EXPLORATION * Math.sqrt(log / visits[c]);
+				if (value > bestValue) {
+					bestValue = value;
+					best = c;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Adds one untried move of a node as a new child. Space for all
+		 * the children of a node is taken when the first is added; if
+		 * the tree is full the node itself is played out instead.
+		 * @param node Node with untried moves.
+		 * @return The new child, or the node if the tree is full.
+		 */
+		private int expand(final int node) {
+			if (firstChild[node] < 0) {
+				int block = Math.max(1, Long.bitCount(untried[node]));
+				if (size + block > own.length) {
+					return node;
+				}
+				firstChild[node] = size;
+				size += block;
+			}
+			int child = firstChild[node] + children[node];
+			children[node]++;
+			if (mustPass[node]) {
+				mustPass[node] = false;
+				addNode(child, node, PASS, opp[node], own[node]);
+			} else {
+				long move = pick(untried[node]);
+				untried[node] &= ~move;
+				long flipped = OthelloBitboard.flips(own[node], opp[node],
+						move);
+				addNode(child, node, Long.numberOfTrailingZeros(move),
+						opp[node] & ~flipped, own[node] | move | flipped);
+			}
+			return child;
+		}
+
+		/**
+		 * Finishes the game with random moves.
+		 * @param o Discs of the player to move.
+		 * @param x Discs of the opponent.
+		 * @return 1 if the player to move wins, 0.5 for a draw and 0 for
+		 * a loss.
+		 */
+		private double simulate(final long o, final long x) {
+			long p = o;
+			long q = x;
+			boolean swapped = false;
+			boolean passed = false;
+			while (true) {
+				long moves = OthelloBitboard.moves(p, q);
+				if (moves == 0) {
+					if (passed) {
+						break;
+					}
+					passed = true;
+				} else {
+					passed = false;
+					long move = pick(moves);
+					long flipped = OthelloBitboard.flips(p, q, move);
+					p |= move | flipped;
+					q &= ~flipped;
+				}
+				long t = p;
+				p = q;
+				q = t;
+				swapped = !swapped;
+			}
+			int diff = Long.bitCount(p) - Long.bitCount(q);
+			if (swapped) {
+				diff = -diff;
+			}
+			if (diff > 0) {
+				return 1;
+			} else if (diff < 0) {
+				return 0;
+			}
+			return 0.5;
+		}
+
+		/**
+		 * Picks one of the squares of a mask at random.
+		 * @param moves Mask with at least one square.
+		 * @return Mask of the square picked.
+		 */
+		private long pick(final long moves) {
+			long m = moves;
+			for (int k = random.nextInt(Long.bitCount(m)); k > 0; k--) {
+				m &= m - 1;
+			}
+			return m & -m;
+		}
+
+		/**
+		 * Adds the visits and wins of the root's children to totals
+		 * kept by square.
+		 * @param totalVisits Visits of each square, passes last.
+		 * @param totalWins Wins of each square, passes last.
+		 */
+		void addRootCounts(final long[] totalVisits,
+				final double[] totalWins) {
+			if (size == 0 || firstChild[0] < 0) {
+				return;
+			}
+			int end = firstChild[0] + children[0];
+			for (int c = firstChild[0]; c < end; c++) {
+				totalVisits[square[c]] += visits[c];
+				totalWins[square[c]] += wins[c];
+			}
+		}
+	}
+}
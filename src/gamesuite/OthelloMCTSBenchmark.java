@@ -0,0 +1,123 @@
+package gamesuite;
+
+/**
+ * Measures the Othello tree search. First the playouts per second from
+ * the start position are printed for one thread, then two and so on.
+ * Then the tree search plays the alpha-beta search with the same time
+ * for each move, taking black and white in turn, and the games won by
+ * each are printed, which compares their strength per CPU-second.
+ * <p>
+ * Usage: OthelloMCTSBenchmark [millis per move] [games] [threads]
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public final class OthelloMCTSBenchmark {
+
+	/** Time for each move when none is given. */
+	private static final long DEFAULT_MILLIS = 100;
+	/** Games played when none is given. */
+	private static final int DEFAULT_GAMES = 10;
+	/** Time each thread count is measured for. */
+	private static final long SPEED_MILLIS = 2000;
+	/** Seed of the tree search playouts so every run plays the same. */
+	private static final long SEED = 42;
+
+	/**
+	 * Private constructor, the class only has a main method.
+	 */
+	private OthelloMCTSBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark.
+	 * @param args Time for each move, games and largest thread count.
+	 */
+	public static void main(final String[] args) {
+		long millis = DEFAULT_MILLIS;
+		int games = DEFAULT_GAMES;
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		if (args.length > 0) {
+			millis = Long.parseLong(args[0]);
+		}
+		if (args.length > 1) {
+			games = Integer.parseInt(args[1]);
+		}
+		if (args.length > 2) {
+			maxThreads = Integer.parseInt(args[2]);
+		}
+		//Warms up the JIT so the first row is not penalised.
+		new OthelloMCTS(1, OthelloMCTS.DEFAULT_NODES, SEED).search(
+				new OthelloBitboard(), 0, SPEED_MILLIS / 2);
+
+		System.out.println("threads   playouts/s  speedup");
+		double base = 0;
+		for (int t = 1; t <= maxThreads; t++) {
+			OthelloMCTS mcts = new OthelloMCTS(t, OthelloMCTS.DEFAULT_NODES,
+					SEED);
+			mcts.search(new OthelloBitboard(), 0, SPEED_MILLIS);
+			double speed = mcts.getPlayoutsPerSecond();
+			if (t == 1) {
+				base = speed;
+			}
+			System.out.printf("%7d %12.0f %8.2f%n", t, speed, speed / base);
+		}
+
+		OthelloMCTS mcts = new OthelloMCTS(maxThreads,
+				OthelloMCTS.DEFAULT_NODES, SEED);
+		OthelloSearch search = new OthelloSearch();
+		int wins = 0;
+		int losses = 0;
+		int draws = 0;
+		for (int g = 0; g < games; g++) {
+			Player treePlayer = Player.BLACK;
+			if ((g & 1) == 1) {
+				treePlayer = Player.WHITE;
+			}
+			int diff = play(mcts, search, treePlayer, millis);
+			if (diff > 0) {
+				wins++;
+			} else if (diff < 0) {
+				losses++;
+			} else {
+				draws++;
+			}
+		}
+		System.out.printf("tree search against alpha-beta at %d ms a move"
+				+ " on %d threads: %d won, %d lost, %d drawn%n", millis,
+				maxThreads, wins, losses, draws);
+	}
+
+	/**
+	 * Plays one game between the two searches.
+	 * @param mcts Tree search.
+	 * @param search Alpha-beta search.
+	 * @param treePlayer Colour played by the tree search.
+	 * @param millis Time for each move.
+	 * @return Discs of the tree search less those of alpha-beta.
+	 */
+	private static int play(final OthelloMCTS mcts,
+			final OthelloSearch search, final Player treePlayer,
+			final long millis) {
+		OthelloBitboard b = new OthelloBitboard();
+		while (!b.isGameOver()) {
+			if (b.getMoves() == 0) {
+				b.nextTurn();
+				continue;
+			}
+			OthelloMove m;
+			if (b.getPlayer() == treePlayer) {
+				mcts.search(b, 0, millis);
+				m = mcts.getBestMove();
+			} else {
+				search.search(b, OthelloSearch.MAX_PLY, millis);
+				m = search.getBestMove();
+			}
+			b.makeMove(m);
+		}
+		int diff = b.getBlackCount() - b.getWhiteCount();
+		if (treePlayer == Player.WHITE) {
+			diff = -diff;
+		}
+		return diff;
+	}
+}
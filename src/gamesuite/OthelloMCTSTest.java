@@ -0,0 +1,84 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the Othello Monte Carlo tree search.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloMCTSTest {
+
+	/**
+	 * Tests that the threads run the playout budget between them and
+	 * that the move picked is legal.
+	 */
+	@Test
+	public void testPlayoutBudget() {
+		OthelloMCTS mcts = new OthelloMCTS(2, 1 << 12, 1);
+		OthelloBitboard b = new OthelloBitboard();
+		double rate = mcts.search(b, 3000, 0);
+		assertEquals(3000, mcts.getPlayouts());
+		assertTrue(rate > 0 && rate < 1);
+		assertTrue(b.validMove(mcts.getBestMove()));
+		assertTrue(mcts.getPlayoutsPerSecond() > 0);
+
+		OthelloBitboard none = new OthelloBitboard(-1L, 0, Player.WHITE);
+		mcts.search(none, 100, 0);
+		assertNull(mcts.getBestMove());
+	}
+
+	/**
+	 * Tests that near the end of the game the search keeps a won game
+	 * won, checked with the exact solver.
+	 */
+	@Test
+	public void testKeepsWin() {
+		Random rand = new Random(3);
+		OthelloEndgame solver = new OthelloEndgame(1);
+		OthelloMCTS mcts = new OthelloMCTS(1, 1 << 16, 5);
+		int tested = 0;
+		while (tested < 10) {
+			OthelloBitboard b = new OthelloBitboard();
+			while (!b.isGameOver() && Long.bitCount(
+					~(b.getBlack() | b.getWhite())) > 6) {
+				List<OthelloMove> moves = b.getMoveList();
+				if (moves.isEmpty()) {
+					b.nextTurn();
+				} else {
+					b.makeMove(moves.get(rand.nextInt(moves.size())));
+				}
+			}
+			if (b.isGameOver() || b.getMoves() == 0) {
+				continue;
+			}
+			solver.solve(b, false, 0);
+			if (solver.getScore() <= 0) {
+				continue;
+			}
+			tested++;
+			mcts.search(b, 20000, 0);
+			OthelloMove m = mcts.getBestMove();
+			Player mover = b.getPlayer();
+			assertTrue(b.makeMove(m));
+			if (b.isGameOver()) {
+				int diff = b.getBlackCount() - b.getWhiteCount();
+				assertTrue(mover == Player.BLACK ? diff > 0 : diff < 0);
+			} else if (b.getMoves() == 0) {
+				b.nextTurn();
+				solver.solve(b, false, 0);
+				assertTrue(solver.getScore() > 0);
+			} else {
+				solver.solve(b, false, 0);
+				assertTrue(solver.getScore() < 0);
+			}
+		}
+	}
+}
+//CHECKSTYLE:ON
@@ -0,0 +1,359 @@
+package gamesuite;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fits the weights of the Othello pattern evaluation. Positions are
+ * gathered from self-play with the alpha-beta search, random moves
+ * mixed into the opening so the games spread, and the endgame solved
+ * exactly so the last part of each game is played perfectly. Each
+ * position is labelled with the disc difference the game ended with,
+ * for the player to move, and the weights of its phase are fitted to
+ * the labels by stochastic gradient descent on the squared error.
+ * <p>
+ * A weight and the weight of the same line with the players swapped
+ * are kept as each other's negation, so the evaluation stays
+ * symmetric. After fitting, the pattern evaluation plays the hand
+ * written one at the same depth and the games won by each are printed.
+ * <p>
+ * Weights trained before can be given to play the self-play games
+ * with, so each round learns from stronger games than the last.
+ * <p>
+ * Usage: OthelloPatternTrainer weights [games] [depth] [epochs]
+ * [weights to play with]
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public final class OthelloPatternTrainer {
+
+	/** Games played when none is given. */
+	private static final int DEFAULT_GAMES = 10000;
+	/** Search depth of self-play when none is given. */
+	private static final int DEFAULT_DEPTH = 2;
+	/** Passes over the positions when none is given. */
+	private static final int DEFAULT_EPOCHS = 10;
+	/** Chance of a random move in the opening of self-play. */
+	private static final double RANDOM_RATE = 0.2;
+	/** Discs on the board after which self-play makes no random moves,
+	 * so the results are not decided by late blunders. */
+	private static final int RANDOM_DISCS = 24;
+	/** Empty squares at which self-play solves the game. */
+	private static final int SOLVE_EMPTIES = 12;
+	/** Step of the gradient descent. */
+	private static final float RATE = 0.01f;
+	/** Step of the mobility weight, whose feature is a count rather
+	 * than a single line, relative to the others. */
+	private static final float MOBILITY_RATE = 0.01f;
+	/** Weights are kept in hundredths of a disc. */
+	private static final int SCALE = 100;
+	/** Games of the match between the evaluations. */
+	private static final int MATCH_GAMES = 20;
+	/** Random moves at the start of each match game. */
+	private static final int MATCH_OPENING = 6;
+	/** Positions room is first made for. */
+	private static final int INITIAL_POSITIONS = 1024;
+	/** Seed so every run trains the same weights. */
+	private static final long SEED = 42;
+
+	/** Discs of the player to move in each position. */
+	private long[] own;
+	/** Discs of the opponent in each position. */
+	private long[] opp;
+	/** Whether black is to move in each position. */
+	private boolean[] black;
+	/** Final disc difference for the player to move. */
+	private byte[] result;
+	/** Number of positions gathered. */
+	private int count;
+	/** Source of the random moves. */
+	private final Random rand;
+
+	/**
+	 * Creates a trainer with no positions.
+	 */
+	OthelloPatternTrainer() {
+		this.own = new long[INITIAL_POSITIONS];
+		this.opp = new long[INITIAL_POSITIONS];
+		this.black = new boolean[INITIAL_POSITIONS];
+		this.result = new byte[INITIAL_POSITIONS];
+		this.rand = new Random(SEED);
+	}
+
+	/**
+	 * Runs the trainer.
+	 * @param args Weights file, games, depth and epochs.
+	 * @throws IOException If the weights cannot be written.
+	 */
+	public static void main(final String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: OthelloPatternTrainer weights"
+					+ " [games] [depth] [epochs] [weights to play with]");
+			return;
+		}
+		int games = DEFAULT_GAMES;
+		int depth = DEFAULT_DEPTH;
+		int epochs = DEFAULT_EPOCHS;
+		if (args.length > 1) {
+			games = Integer.parseInt(args[1]);
+		}
+		if (args.length > 2) {
+			depth = Integer.parseInt(args[2]);
+		}
+		if (args.length > 3) {
+			epochs = Integer.parseInt(args[3]);
+		}
+		OthelloPatterns player = null;
+		if (args.length > 4) {
+			player = new OthelloPatterns(args[4]);
+		}
+		OthelloPatternTrainer trainer = new OthelloPatternTrainer();
+		long start = System.nanoTime();
+		trainer.selfPlay(games, depth, player);
+		System.out.printf("%d positions from %d games in %.1f s%n",
+				trainer.count, games, (System.nanoTime() - start) / 1e9);
+		OthelloPatterns patterns = trainer.fit(epochs, true);
+		patterns.save(args[0]);
+
+		int[] score = trainer.match(patterns, depth);
+		System.out.printf("patterns against hand written at depth %d:"
+				+ " %d won, %d lost, %d drawn%n", depth, score[0],
+				score[1], score[2]);
+	}
+
+	/**
+	 * Plays games against itself and keeps their positions.
+	 * @param games Number of games.
+	 * @param depth Search depth of each move.
+	 * @param player Evaluation the games are played with, or null for
+	 * the hand written one.
+	 */
+	void selfPlay(final int games, final int depth,
+			final OthelloPatterns player) {
+		OthelloSearch search = new OthelloSearch();
+		search.setPatterns(player);
+		OthelloEndgame endgame = new OthelloEndgame();
+		for (int g = 0; g < games; g++) {
+			int first = count;
+			OthelloBitboard b = new OthelloBitboard();
+			while (!b.isGameOver()) {
+				long moves = b.getMoves();
+				if (moves == 0) {
+					b.nextTurn();
+					continue;
+				}
+				int empties = Long.bitCount(~(b.getBlack() | b.getWhite()));
+				if (b.getPlayer() == Player.BLACK) {
+					add(b.getBlack(), b.getWhite(), true);
+				} else {
+					add(b.getWhite(), b.getBlack(), false);
+				}
+				if (empties <= SOLVE_EMPTIES) {
+					endgame.solve(b, 0);
+					b.makeMove(endgame.getBestMove());
+				} else if (OthelloBitboard.SQUARES - empties < RANDOM_DISCS
+						&& rand.nextDouble() < RANDOM_RATE) {
+					b.makeMove(randomSquare(moves));
+				} else {
+					search.search(b, depth, 0);
+					b.makeMove(search.getBestMove());
+				}
+			}
+			int diff = b.getBlackCount() - b.getWhiteCount();
+			for (int i = first; i < count; i++) {
+				if (black[i]) {
+					result[i] = (byte) diff;
+				} else {
+					result[i] = (byte) -diff;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Keeps a position.
+	 * @param o Discs of the player to move.
+	 * @param p Discs of the opponent.
+	 * @param isBlack Whether black is to move.
+	 */
+	private void add(final long o, final long p, final boolean isBlack) {
+		if (count == own.length) {
+			own = Arrays.copyOf(own, count * 2);
+			opp = Arrays.copyOf(opp, count * 2);
+			black = Arrays.copyOf(black, count * 2);
+			result = Arrays.copyOf(result, count * 2);
+		}
+		own[count] = o;
+		opp[count] = p;
+		black[count] = isBlack;
+		count++;
+	}
+
+	/**
+	 * Picks one of the moves at random.
+	 * @param moves Mask of the legal moves, not empty.
+	 * @return Square index of the move picked.
+	 */
+	private int randomSquare(final long moves) {
+		return randomSquare(moves, rand);
+	}
+
+	/**
+	 * Picks one of the moves at random.
+	 * @param moves Mask of the legal moves, not empty.
+	 * @param r Source of the pick.
+	 * @return Square index of the move picked.
+	 */
+	private static int randomSquare(final long moves, final Random r) {
+		long m = moves;
+		for (int i = r.nextInt(Long.bitCount(moves)); i > 0; i--) {
+			m &= m - 1;
+		}
+		return Long.numberOfTrailingZeros(m);
+	}
+
+	/**
+	 * Builds the index of each weight with the players swapped, which
+	 * turns every own disc of the line into the opponent's and back.
+	 * @return Swapped index of each weight of a phase.
+	 */
+	static int[] buildSwaps() {
+		int[] swap = new int[OthelloPatterns.WEIGHTS];
+		//Mobility changes sign with the players and has no partner.
+		swap[OthelloPatterns.MOBILITY] = OthelloPatterns.MOBILITY;
+		int[] squares = OthelloPatterns.SHAPE_SQUARES;
+		for (int s = 0; s < squares.length; s++) {
+			int start = OthelloPatterns.OFFSETS[s];
+			int end = OthelloPatterns.OFFSETS[s + 1];
+			for (int k = 0; k < end - start; k++) {
+				int value = 0;
+				int place = 1;
+				for (int i = 0, rest = k; i < squares[s]; i++, rest /= 3) {
+					int digit = rest % 3;
+					if (digit != 0) {
+						digit = 3 - digit;
+					}
+					value += digit * place;
+					place *= 3;
+				}
+				swap[start + k] = start + value;
+			}
+		}
+		return swap;
+	}
+
+	/**
+	 * Fits the weights to the positions gathered.
+	 * @param epochs Passes over the positions.
+	 * @param verbose Whether to print the error after each pass.
+	 * @return Evaluation with the fitted weights.
+	 */
+	OthelloPatterns fit(final int epochs, final boolean verbose) {
+		int phases = OthelloPatterns.PHASES;
+		int size = OthelloPatterns.WEIGHTS;
+		float[][] w = new float[phases][size];
+		int[] swap = buildSwaps();
+		int[] lines = new int[OthelloPatterns.LINES];
+		int[] order = new int[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		for (int e = 0; e < epochs; e++) {
+			//Visits the positions in a new order every pass.
+			for (int i = count - 1; i > 0; i--) {
+				int j = rand.nextInt(i + 1);
+				int t = order[i];
+				order[i] = order[j];
+				order[j] = t;
+			}
+			double error = 0;
+			for (int i : order) {
+				float[] phase = w[OthelloPatterns.phase(own[i], opp[i])];
+				OthelloPatterns.indices(own[i], opp[i], lines);
+				int mobility = OthelloPatterns.mobility(own[i], opp[i]);
+				float predicted = phase[OthelloPatterns.MOBILITY] * mobility;
+				for (int k : lines) {
+					predicted += phase[k];
+				}
+				float diff = result[i] - predicted;
+				error += Math.abs(diff);
+				float step = RATE * diff;
+				for (int k : lines) {
+					phase[k] += step;
+					phase[swap[k]] -= step;
+				}
+				phase[OthelloPatterns.MOBILITY] += step * mobility
+						* MOBILITY_RATE;
+			}
+			if (verbose) {
+				System.out.printf("epoch %d mean error %.2f discs%n", e + 1,
+						error / Math.max(1, count));
+			}
+		}
+		short[][] weights = new short[phases][size];
+		for (int p = 0; p < phases; p++) {
+			for (int k = 0; k < size; k++) {
+				if (swap[k] < k) {
+					//Rounded once so the pair stays exactly opposite.
+					weights[p][k] = (short) -weights[p][swap[k]];
+					continue;
+				}
+				long value = Math.round(w[p][k] * SCALE);
+				weights[p][k] = (short) Math.max(-Short.MAX_VALUE,
+						Math.min(Short.MAX_VALUE, value));
+			}
+		}
+		return new OthelloPatterns(weights);
+	}
+
+	/**
+	 * Plays the pattern evaluation against the hand written one, each
+	 * taking black and white in turn after a few random moves.
+	 * @param patterns Pattern evaluation.
+	 * @param depth Search depth of both sides.
+	 * @return Games won, lost and drawn by the pattern evaluation.
+	 */
+	int[] match(final OthelloPatterns patterns, final int depth) {
+		OthelloSearch trained = new OthelloSearch();
+		trained.setPatterns(patterns);
+		OthelloSearch hand = new OthelloSearch();
+		int[] score = new int[3];
+		for (int g = 0; g < MATCH_GAMES; g++) {
+			//Each opening is played twice, once from each side.
+			Random opening = new Random(SEED + g / 2);
+			OthelloBitboard b = new OthelloBitboard();
+			for (int i = 0; i < MATCH_OPENING; i++) {
+				b.makeMove(randomSquare(b.getMoves(), opening));
+			}
+			Player side = Player.BLACK;
+			if ((g & 1) == 1) {
+				side = Player.WHITE;
+			}
+			while (!b.isGameOver()) {
+				if (b.getMoves() == 0) {
+					b.nextTurn();
+					continue;
+				}
+				OthelloSearch s = hand;
+				if (b.getPlayer() == side) {
+					s = trained;
+				}
+				s.search(b, depth, 0);
+				b.makeMove(s.getBestMove());
+			}
+			int diff = b.getBlackCount() - b.getWhiteCount();
+			if (side == Player.WHITE) {
+				diff = -diff;
+			}
+			if (diff > 0) {
+				score[0]++;
+			} else if (diff < 0) {
+				score[1]++;
+			} else {
+				score[2]++;
+			}
+		}
+		return score;
+	}
+}
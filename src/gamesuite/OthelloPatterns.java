@@ -0,0 +1,346 @@
+package gamesuite;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Pattern evaluation for 8 by 8 Othello. A position is scored as the
+ * sum of weights looked up for the contents of fourteen lines of
+ * squares: the four edges, the four lines next to them, the 3 by 3
+ * block in each corner and the two diagonals. The contents of a line
+ * are read as a base 3 number, empty, own or opponent's disc for each
+ * square, which indexes a table of weights shared by every line of
+ * the same shape. A last weight is added for each move the player has
+ * more than the opponent, which the lines cannot see. There is one set
+ * of tables for each phase of the game, chosen by the number of discs
+ * on the board.
+ * <p>
+ * The lines are read with bit operations: the board is flipped,
+ * mirrored and turned so each line lies along the first row, the
+ * first column's 3 by 3 block or the diagonal, then a table turns the
+ * bits of each player into base 3. A position costs a few dozen bit
+ * operations, fourteen array loads and the two move generations of
+ * the mobility.
+ * <p>
+ * Weights are in hundredths of a disc of the final result and are
+ * fitted by OthelloPatternTrainer. Swapping the players negates the
+ * score.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloPatterns {
+
+	/** Phases of the game, each with its own weights. */
+	public static final int PHASES = 12;
+	/** Number of lines read from each position. */
+	static final int LINES = 14;
+	/** Squares in each shape: edge, line two, corner block, diagonal. */
+	static final int[] SHAPE_SQUARES = {8, 8, 9, 8};
+	/** Shape of each line, in the order they are read. */
+	static final int[] LINE_SHAPE = {0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2,
+		3, 3};
+	/** Start of each shape's table among the weights of a phase. */
+	static final int[] OFFSETS = buildOffsets();
+	/** Index of the weight of each move more than the opponent has. */
+	static final int MOBILITY = OFFSETS[SHAPE_SQUARES.length];
+	/** Number of weights in each phase. */
+	static final int WEIGHTS = MOBILITY + 1;
+	/** First four bytes of a weights file, "OTHP". */
+	private static final int MAGIC = 0x4F544850;
+	/** Version of the file layout. */
+	private static final int VERSION = 1;
+	/** Bits of one row of the board. */
+	private static final int ROW = 0xFF;
+	/** Squares of the diagonal from (0, 0). */
+	private static final long DIAGONAL = 0x8040201008040201L;
+	/** Multiplier gathering one bit from each row into the top row. */
+	private static final long GATHER = 0x0101010101010101L;
+	/** Base 3 value of each mask of up to nine squares. */
+	private static final int[] TERNARY = buildTernary();
+
+	/** Weights of each phase, shapes one after another. */
+	private final short[][] weights;
+
+	/**
+	 * Creates an evaluation with every weight zero, to be trained.
+	 */
+	public OthelloPatterns() {
+		this.weights = new short[PHASES][WEIGHTS];
+	}
+
+	/**
+	 * Creates an evaluation from weights.
+	 * @param w Weights of each phase, which are not copied.
+	 */
+	OthelloPatterns(final short[][] w) {
+		this.weights = w;
+	}
+
+	/**
+	 * Reads an evaluation from a file written by save.
+	 * @param filename Name of the weights file.
+	 * @throws IOException If the file cannot be read or is not a
+	 * weights file.
+	 */
+	public OthelloPatterns(final String filename) throws IOException {
+		this.weights = new short[PHASES][WEIGHTS];
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(filename)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION
+					|| in.readInt() != PHASES || in.readInt() != WEIGHTS) {
+				throw new IOException("File is not a weights file.");
+			}
+			for (short[] phase : weights) {
+				for (int i = 0; i < WEIGHTS; i++) {
+					phase[i] = in.readShort();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the weights to a file.
+	 * @param filename Name of the file to write.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void save(final String filename) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(filename)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(PHASES);
+			out.writeInt(WEIGHTS);
+			for (short[] phase : weights) {
+				for (short w : phase) {
+					out.writeShort(w);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Scores a position for the player to move.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Estimated final disc difference in hundredths of a disc.
+	 */
+	public int evaluate(final long own, final long opp) {
+		short[] w = weights[phase(own, opp)];
+		return lines(own, opp, w, null) + w[MOBILITY] * mobility(own, opp);
+	}
+
+	/**
+	 * Counts the moves the player to move has more than the opponent.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Difference in the number of moves.
+	 */
+	static int mobility(final long own, final long opp) {
+		return Long.bitCount(OthelloBitboard.moves(own, opp))
+				- Long.bitCount(OthelloBitboard.moves(opp, own));
+	}
+
+	/**
+	 * Finds the phase of a position.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Phase, from 0 at the start to PHASES - 1 at the end.
+	 */
+	static int phase(final long own, final long opp) {
+		return (Long.bitCount(own | opp) - 4) * PHASES
+				/ (OthelloBitboard.SQUARES - 3);
+	}
+
+	/**
+	 * Finds the weight index of each line of a position.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @param indices Filled with the index of each line, offsets
+	 * included.
+	 */
+	static void indices(final long own, final long opp,
+			final int[] indices) {
+		lines(own, opp, null, indices);
+	}
+
+	/**
+	 * Reads every line of a position, summing its weights and keeping
+	 * its indices as asked.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @param w Weights of the phase, or null to not sum them.
+	 * @param indices Filled with the index of each line, or null.
+	 * @return Sum of the weights of the lines, or 0 without weights.
+	 */
+	private static int lines(final long own, final long opp,
+			final short[] w, final int[] indices) {
+		//Flipped top to bottom, turned about the diagonal, and both.
+		long ownV = Long.reverseBytes(own);
+		long oppV = Long.reverseBytes(opp);
+		long ownT = transpose(own);
+		long oppT = transpose(opp);
+		long ownTV = Long.reverseBytes(ownT);
+		long oppTV = Long.reverseBytes(oppT);
+		//Mirrored left to right, and turned half way round.
+		long ownM = mirror(own);
+		long oppM = mirror(opp);
+		long ownMV = Long.reverseBytes(ownM);
+		long oppMV = Long.reverseBytes(oppM);
+		return line(w, indices, 0, row(own, opp, 0))
+				+ line(w, indices, 1, row(ownV, oppV, 0))
+				+ line(w, indices, 2, row(ownT, oppT, 0))
+				+ line(w, indices, 3, row(ownTV, oppTV, 0))
+				+ line(w, indices, 4, row(own, opp, 1))
+				+ line(w, indices, 5, row(ownV, oppV, 1))
+				+ line(w, indices, 6, row(ownT, oppT, 1))
+				+ line(w, indices, 7, row(ownTV, oppTV, 1))
+				+ line(w, indices, 8, block(own, opp))
+				+ line(w, indices, 9, block(ownM, oppM))
+				+ line(w, indices, 10, block(ownV, oppV))
+				+ line(w, indices, 11, block(ownMV, oppMV))
+				+ line(w, indices, 12, diagonal(own, opp))
+				+ line(w, indices, 13, diagonal(ownM, oppM));
+	}
+
+	/**
+	 * Looks up the weight of one line and keeps its index as asked.
+	 * @param w Weights of the phase, or null.
+	 * @param indices Index of each line, or null.
+	 * @param i Number of the line.
+	 * @param index Base 3 contents of the line.
+	 * @return Weight of the line, or 0 without weights.
+	 */
+	private static int line(final short[] w, final int[] indices,
+			final int i, final int index) {
+		int k = OFFSETS[LINE_SHAPE[i]] + index;
+		if (indices != null) {
+			indices[i] = k;
+		}
+		if (w == null) {
+			return 0;
+		}
+		return w[k];
+	}
+
+	/**
+	 * Reads a row of the board as base 3.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @param r Row to read.
+	 * @return Index of the row's contents.
+	 */
+	private static int row(final long own, final long opp, final int r) {
+		int shift = r * OthelloBitboard.SIZE;
+		return TERNARY[(int) (own >>> shift) & ROW]
+				+ 2 * TERNARY[(int) (opp >>> shift) & ROW];
+	}
+
+	/**
+	 * Reads the 3 by 3 block in the corner at (0, 0) as base 3.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Index of the block's contents.
+	 */
+	private static int block(final long own, final long opp) {
+		return TERNARY[blockBits(own)] + 2 * TERNARY[blockBits(opp)];
+	}
+
+	/**
+	 * Gathers the 3 by 3 block in the corner at (0, 0) into nine bits.
+	 * @param b Mask to read.
+	 * @return The block, row by row.
+	 */
+	private static int blockBits(final long b) {
+		int bits = (int) b;
+		return bits & 0x7 | bits >>> 5 & 0x38 | bits >>> 10 & 0x1C0;
+	}
+
+	/**
+	 * Reads the diagonal from (0, 0) to (7, 7) as base 3.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Index of the diagonal's contents.
+	 */
+	private static int diagonal(final long own, final long opp) {
+		int shift = OthelloBitboard.SQUARES - OthelloBitboard.SIZE;
+		return TERNARY[(int) ((own & DIAGONAL) * GATHER >>> shift)]
+				+ 2 * TERNARY[(int) ((opp & DIAGONAL) * GATHER >>> shift)];
+	}
+
+	/**
+	 * Turns a mask about the diagonal from (0, 0), so square (x, y)
+	 * moves to (y, x).
+	 * @param b Mask to turn.
+	 * @return Turned mask.
+	 */
+	static long transpose(final long b) {
+		long x = b;
+		long t = 0x0F0F0F0F00000000L & (x ^ x << 28);
+		x ^= t ^ t >>> 28;
+		t = 0x3333000033330000L & (x ^ x << 14);
+		x ^= t ^ t >>> 14;
+		t = 0x5500550055005500L & (x ^ x << 7);
+		x ^= t ^ t >>> 7;
+		return x;
+	}
+
+	/**
+	 * Mirrors a mask left to right, so square (x, y) moves to
+	 * (x, 7 - y).
+	 * @param b Mask to mirror.
+	 * @return Mirrored mask.
+	 */
+	static long mirror(final long b) {
+		long x = b;
+		x = x >>> 1 & 0x5555555555555555L | (x & 0x5555555555555555L) << 1;
+		x = x >>> 2 & 0x3333333333333333L | (x & 0x3333333333333333L) << 2;
+		x = x >>> 4 & 0x0F0F0F0F0F0F0F0FL | (x & 0x0F0F0F0F0F0F0F0FL) << 4;
+		return x;
+	}
+
+	/**
+	 * Getter method for the weights, used by the trainer.
+	 * @return Weights of each phase, which are not copied.
+	 */
+	short[][] getWeights() {
+		return this.weights;
+	}
+
+	/**
+	 * Builds the start of each shape's table.
+	 * @return Offsets, with the total number of weights last.
+	 */
+	private static int[] buildOffsets() {
+		int[] offsets = new int[SHAPE_SQUARES.length + 1];
+		for (int s = 0; s < SHAPE_SQUARES.length; s++) {
+			int size = 1;
+			for (int i = 0; i < SHAPE_SQUARES[s]; i++) {
+				size *= 3;
+			}
+			offsets[s + 1] = offsets[s] + size;
+		}
+		return offsets;
+	}
+
+	/**
+	 * Builds the base 3 value of every mask of nine squares, square i
+	 * being the digit worth 3 to the power i.
+	 * @return Table indexed by the mask.
+	 */
+	private static int[] buildTernary() {
+		int[] table = new int[1 << 9];
+		for (int bits = 0; bits < table.length; bits++) {
+			int value = 0;
+			for (int i = 8; i >= 0; i--) {
+				value = value * 3 + (bits >>> i & 1);
+			}
+			table[bits] = value;
+		}
+		return table;
+	}
+}
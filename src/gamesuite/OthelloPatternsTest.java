@@ -0,0 +1,86 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the Othello pattern evaluation and its trainer.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloPatternsTest {
+
+	/**
+	 * Tests that turning and mirroring a mask move each square where
+	 * the board's symmetries take it.
+	 */
+	@Test
+	public void testTransforms() {
+		Random rand = new Random(3);
+		for (int n = 0; n < 100; n++) {
+			long b = rand.nextLong();
+			long t = OthelloPatterns.transpose(b);
+			long m = OthelloPatterns.mirror(b);
+			for (int x = 0; x < 8; x++) {
+				for (int y = 0; y < 8; y++) {
+					boolean set = (b & OthelloBitboard.square(x, y)) != 0;
+					assertEquals(set,
+							(t & OthelloBitboard.square(y, x)) != 0);
+					assertEquals(set,
+							(m & OthelloBitboard.square(x, 7 - y)) != 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that trained weights score each position as the negation
+	 * of the score with the players swapped and survive being saved
+	 * and read back.
+	 * @throws IOException If the weights cannot be written or read.
+	 */
+	@Test
+	public void testTrainSaveLoad() throws IOException {
+		OthelloPatternTrainer trainer = new OthelloPatternTrainer();
+		trainer.selfPlay(10, 1, null);
+		OthelloPatterns patterns = trainer.fit(3, false);
+
+		File file = File.createTempFile("othello", ".weights");
+		file.deleteOnExit();
+		patterns.save(file.getPath());
+		OthelloPatterns loaded = new OthelloPatterns(file.getPath());
+
+		OthelloBitboard b = new OthelloBitboard();
+		Random rand = new Random(5);
+		int nonZero = 0;
+		while (!b.isGameOver()) {
+			long own = b.getBlack();
+			long opp = b.getWhite();
+			int score = patterns.evaluate(own, opp);
+			assertEquals(-score, patterns.evaluate(opp, own));
+			assertEquals(score, loaded.evaluate(own, opp));
+			if (score != 0) {
+				nonZero++;
+			}
+			long moves = b.getMoves();
+			if (moves == 0) {
+				b.nextTurn();
+				continue;
+			}
+			for (int i = rand.nextInt(Long.bitCount(moves)); i > 0; i--) {
+				moves &= moves - 1;
+			}
+			b.makeMove(Long.numberOfTrailingZeros(moves));
+		}
+		assertTrue(nonZero > 0);
+		assertEquals(0, new OthelloPatterns().evaluate(b.getBlack(),
+				b.getWhite()));
+	}
+}
+//CHECKSTYLE:ON
@@ -0,0 +1,296 @@
+package gamesuite;
+
+/**
+ * Alpha-beta search for the Othello AI. The search works on the two
+ * disc masks of OthelloBitboard, so making a move is a few bit
+ * operations and no tree or board copies are kept. It is written in
+ * negamax form with iterative deepening: each iteration searches one
+ * ply deeper until the depth is reached or the time budget runs out,
+ * and the move of the last completed iteration is kept.
+ * <p>
+ * Positions are scored on mobility, corners held, discs on the edges
+ * that can never be turned, squares next to empty corners and the disc
+ * count, which matters more as the board fills, or by a trained
+ * OthelloPatterns evaluation when one is set.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloSearch {
+
+	/** Score for each disc of a finished game, above any estimate. */
+	public static final int DISC_WIN = 10000;
+	/** Deepest ply the search can reach. */
+	public static final int MAX_PLY = 64;
+	/** Score of each move more than the opponent has. */
+	static final int MOBILITY_WEIGHT = 20;
+	/** Score of each corner held. */
+	static final int CORNER_WEIGHT = 250;
+	/** Score of each edge disc that can no longer be turned. */
+	static final int STABLE_WEIGHT = 40;
+	/** Score lost for each disc diagonal to an empty corner. */
+	static final int X_SQUARE_WEIGHT = 60;
+	/** Divisor of the disc count, scaled by the squares filled. */
+	static final int DISC_DIVISOR = 16;
+	/** The four corners. */
+	private static final long CORNERS = 0x8100000000000081L;
+	/** Squares on the edges of the board. */
+	private static final long EDGES = 0xFF818181818181FFL;
+	/** Squares in the first column. */
+	private static final long FIRST_COLUMN = 0x0101010101010101L;
+	/** Squares in the last column. */
+	private static final long LAST_COLUMN = 0x8080808080808080L;
+	/** Corner squares, matched with X_SQUARES. */
+	private static final int[] CORNER_SQUARES = {0, 7, 56, 63};
+	/** Squares diagonal to each corner. */
+	private static final int[] X_SQUARES = {9, 14, 49, 54};
+	/** Squares in the order moves are tried, corners first. */
+	static final int[] ORDER = {
+		0, 7, 56, 63,
+		2, 5, 16, 23, 40, 47, 58, 61,
+		3, 4, 24, 31, 32, 39, 59, 60,
+		18, 21, 42, 45,
+		19, 20, 26, 29, 34, 37, 43, 44,
+		10, 11, 12, 13, 17, 22, 25, 30, 33, 38, 41, 46, 50, 51, 52, 53,
+		1, 6, 8, 15, 48, 55, 57, 62,
+		9, 14, 49, 54,
+		27, 28, 35, 36
+	};
+	/** Nodes searched between checks of the clock, less one. */
+	private static final int CLOCK_MASK = 1023;
+	/** Nanoseconds in a millisecond. */
+	private static final long NANOS = 1000000L;
+
+	/** Pattern evaluation used in place of evaluate, or null. */
+	private OthelloPatterns patterns;
+	/** Number of positions visited by the last search. */
+	private long nodes;
+	/** Score of the last search. */
+	private int score;
+	/** Best square found by the last completed iteration, or -1. */
+	private int bestSquare;
+	/** Best square of the iteration being searched. */
+	private int rootBest;
+	/** Deepest iteration completed by the last search. */
+	private int depthReached;
+	/** Time the search must stop by, or 0 for no limit. */
+	private long deadline;
+	/** Whether the current iteration ran out of time. */
+	private boolean stopped;
+
+	/**
+	 * Searches the position with iterative deepening until the depth
+	 * is reached or the time runs out. The first iteration always
+	 * completes so there is a move to play.
+	 * @param b Position to search.
+	 * @param depth Deepest iteration to search.
+	 * @param millis Time budget in milliseconds, or 0 for no limit.
+	 * @return Score of the position for the player to move.
+	 */
+	public int search(final OthelloBitboard b, final int depth,
+			final long millis) {
+		long own;
+		long opp;
+		if (b.getPlayer() == Player.BLACK) {
+			own = b.getBlack();
+			opp = b.getWhite();
+		} else {
+			own = b.getWhite();
+			opp = b.getBlack();
+		}
+		this.nodes = 0;
+		this.depthReached = 0;
+		this.bestSquare = -1;
+		this.stopped = false;
+		if (millis > 0) {
+			this.deadline = System.nanoTime() + millis * NANOS;
+		} else {
+			this.deadline = 0;
+		}
+		int limit = Math.min(depth, MAX_PLY);
+		for (int d = 1; d <= limit; d++) {
+			rootBest = -1;
+			int value = negamax(own, opp, d, 0, -Integer.MAX_VALUE,
+					Integer.MAX_VALUE, false);
+			if (stopped) {
+				break;
+			}
+			this.score = value;
+			this.depthReached = d;
+			this.bestSquare = rootBest;
+			//Past the end of the game more depth changes nothing.
+			if (d >= Long.bitCount(~(own | opp))) {
+				break;
+			}
+		}
+		return this.score;
+	}
+
+	/**
+	 * Negamax search with alpha-beta pruning. A player without moves
+	 * passes, and the game ends when neither player can move.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @param depth Remaining depth to search.
+	 * @param ply Distance from the root.
+	 * @param alpha Lower bound of the window.
+	 * @param beta Upper bound of the window.
+	 * @param passed Whether the last player passed.
+	 * @return Score of the position for the player to move.
+	 */
+	private int negamax(final long own, final long opp, final int depth,
+			final int ply, final int alpha, final int beta,
+			final boolean passed) {
+		nodes++;
+		if ((nodes & CLOCK_MASK) == 0 && deadline != 0
+				&& depthReached > 0 && System.nanoTime() > deadline) {
+			stopped = true;
+		}
+		long moves = OthelloBitboard.moves(own, opp);
+		if (moves == 0) {
+			if (passed) {
+				return finalScore(own, opp);
+			}
+			return -negamax(opp, own, depth, ply + 1, -beta, -alpha, true);
+		}
+		if (depth == 0) {
+			if (patterns != null) {
+				return patterns.evaluate(own, opp);
+			}
+			return evaluate(own, opp);
+		}
+		int a = alpha;
+		int best = -Integer.MAX_VALUE;
+		for (int sq : ORDER) {
+			long move = 1L << sq;
+			if ((moves & move) == 0) {
+				continue;
+			}
+			long flipped = OthelloBitboard.flips(own, opp, move);
+			int value = -negamax(opp & ~flipped, own | move | flipped,
+					depth - 1, ply + 1, -beta, -a, false);
+			if (stopped) {
+				return 0;
+			}
+			if (value > best) {
+				best = value;
+				if (ply == 0) {
+					rootBest = sq;
+				}
+				if (value > a) {
+					a = value;
+				}
+				if (a >= beta) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Scores a finished game on the disc count.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return Score of the finished game for the player to move.
+	 */
+	private static int finalScore(final long own, final long opp) {
+		return (Long.bitCount(own) - Long.bitCount(opp)) * DISC_WIN;
+	}
+
+	/**
+	 * Method to analyze the given position on a function which returns
+	 * the position's value for the player to move.
+	 * @param own Discs of the player to move.
+	 * @param opp Discs of the opponent.
+	 * @return The derived value of the position.
+	 */
+	public static int evaluate(final long own, final long opp) {
+		int mobility = Long.bitCount(OthelloBitboard.moves(own, opp))
+				- Long.bitCount(OthelloBitboard.moves(opp, own));
+		int corners = Long.bitCount(own & CORNERS)
+				- Long.bitCount(opp & CORNERS);
+		int stable = Long.bitCount(stableEdges(own))
+				- Long.bitCount(stableEdges(opp));
+		int xSquares = 0;
+		long empty = ~(own | opp);
+		for (int i = 0; i < CORNER_SQUARES.length; i++) {
+			if ((empty & (1L << CORNER_SQUARES[i])) != 0) {
+				long x = 1L << X_SQUARES[i];
+				if ((own & x) != 0) {
+					xSquares--;
+				} else if ((opp & x) != 0) {
+					xSquares++;
+				}
+			}
+		}
+		int filled = Long.bitCount(own | opp);
+		int discs = (Long.bitCount(own) - Long.bitCount(opp)) * filled
+				/ DISC_DIVISOR;
+		return mobility * MOBILITY_WEIGHT + corners * CORNER_WEIGHT
+				+ stable * STABLE_WEIGHT + xSquares * X_SQUARE_WEIGHT
+				+ discs;
+	}
+
+	/**
+	 * Finds the edge discs that can never be turned: the runs of a
+	 * player's discs along an edge that start from a corner.
+	 * @param discs Discs of one player.
+	 * @return Stable discs on the edges.
+	 */
+	private static long stableEdges(final long discs) {
+		long edge = discs & EDGES;
+		long stable = edge & CORNERS;
+		for (int i = 0; i < OthelloBitboard.SIZE - 1; i++) {
+			stable |= edge & (((stable << 1) & ~FIRST_COLUMN)
+					| ((stable >>> 1) & ~LAST_COLUMN)
+					| (stable << OthelloBitboard.SIZE)
+					| (stable >>> OthelloBitboard.SIZE));
+		}
+		return stable;
+	}
+
+	/**
+	 * Setter method for the evaluation of the positions at the end of
+	 * the search.
+	 * @param p Trained pattern evaluation, or null for evaluate.
+	 */
+	public void setPatterns(final OthelloPatterns p) {
+		this.patterns = p;
+	}
+
+	/**
+	 * Getter method for the best move of the last search.
+	 * @return Best move, or null if the player has to pass.
+	 */
+	public OthelloMove getBestMove() {
+		if (bestSquare < 0) {
+			return null;
+		}
+		return new OthelloMove(bestSquare / OthelloBitboard.SIZE,
+				bestSquare % OthelloBitboard.SIZE);
+	}
+
+	/**
+	 * Getter method for the depth of the last completed iteration.
+	 * @return Depth reached by the last search.
+	 */
+	public int getDepthReached() {
+		return this.depthReached;
+	}
+
+	/**
+	 * Getter method for the nodes visited by the last search.
+	 * @return Number of positions visited.
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Getter method for the score of the last search.
+	 * @return Score for the player to move at the root.
+	 */
+	public int getScore() {
+		return this.score;
+	}
+}
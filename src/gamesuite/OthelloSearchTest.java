@@ -0,0 +1,95 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for the Othello alpha-beta search.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class OthelloSearchTest {
+
+	/**
+	 * Tests that the search takes a corner when one is open.
+	 */
+	@Test
+	public void testTakesCorner() {
+		OthelloBitboard start = new OthelloBitboard();
+		long black = start.getBlack() | OthelloBitboard.square(0, 1);
+		long white = start.getWhite() | OthelloBitboard.square(0, 2);
+		OthelloBitboard b = new OthelloBitboard(black, white, Player.WHITE);
+		assertTrue(b.validMove(new OthelloMove(0, 0)));
+		OthelloSearch s = new OthelloSearch();
+		s.search(b, 4, 0);
+		OthelloMove m = s.getBestMove();
+		assertEquals(0, m.getX());
+		assertEquals(0, m.getY());
+		assertEquals(4, s.getDepthReached());
+	}
+
+	/**
+	 * Tests that the moves played by the search are legal and that a
+	 * position the player cannot move in has no best move.
+	 */
+	@Test
+	public void testLegalMoves() {
+		OthelloBitboard b = new OthelloBitboard();
+		OthelloSearch s = new OthelloSearch();
+		for (int i = 0; i < 20 && !b.isGameOver(); i++) {
+			s.search(b, 3, 0);
+			OthelloMove m = s.getBestMove();
+			if (m == null) {
+				assertEquals(0, b.getMoves());
+				b.nextTurn();
+			} else {
+				assertTrue(b.makeMove(m));
+			}
+			assertTrue(s.getNodes() > 0);
+		}
+		OthelloBitboard none = new OthelloBitboard(-1L, 0, Player.WHITE);
+		s.search(none, 3, 0);
+		assertNull(s.getBestMove());
+		assertEquals(-64 * OthelloSearch.DISC_WIN, s.getScore());
+	}
+
+	/**
+	 * Tests that the evaluation gives the same score to each player
+	 * with the sides swapped.
+	 */
+	@Test
+	public void testEvaluateSymmetric() {
+		OthelloBitboard b = new OthelloBitboard();
+		assertEquals(0, OthelloSearch.evaluate(b.getBlack(), b.getWhite()));
+		b.makeMove(new OthelloMove(2, 3));
+		b.makeMove(new OthelloMove(2, 2));
+		long own = b.getBlack();
+		long opp = b.getWhite();
+		assertEquals(OthelloSearch.evaluate(own, opp),
+				-OthelloSearch.evaluate(opp, own));
+	}
+
+	/**
+	 * Tests that the grid search plays legal moves to the end of a
+	 * game on a small board and moves on the largest board.
+	 */
+	@Test
+	public void testGridSearch() {
+		OthelloGridSearch s = new OthelloGridSearch();
+		Othello o = new Othello(6);
+		while (!o.isGameOver()) {
+			s.search(o, 3, 0);
+			assertTrue(s.getDepthReached() > 0);
+			assertTrue(o.makeMove(s.getBestMove()));
+		}
+		Othello big = new Othello(16);
+		for (int i = 0; i < 10; i++) {
+			s.search(big, 4, 0);
+			assertEquals(4, s.getDepthReached());
+			assertTrue(big.makeMove(s.getBestMove()));
+		}
+	}
+}
+//CHECKSTYLE:ON
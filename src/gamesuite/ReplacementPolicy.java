@@ -0,0 +1,17 @@
+package gamesuite;
+
+/**
+ * Enumerator for how a transposition table decides whether a new
+ * result may overwrite the entry already held in its slot.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public enum ReplacementPolicy {
+	/** The newest result always replaces the entry. */
+	ALWAYS,
+	/** The entry is only replaced by a result searched as deep. */
+	DEPTH_PREFERRED,
+	/** Like depth preferred, but entries left by an earlier search
+	 * are always replaced. */
+	AGED;
+}
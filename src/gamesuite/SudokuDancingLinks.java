@@ -0,0 +1,343 @@
+package gamesuite;
+
+import java.util.function.Consumer;
+
+/**
+ * Sudoku solver using Algorithm X on dancing links. A sudoku is an
+ * exact cover problem with 324 constraints, each square filled once
+ * and each digit once in every row, column and box, and 729 choices
+ * of a digit for a square, each meeting four constraints. The choices
+ * are kept as a sparse matrix of nodes linked in circular lists, and
+ * covering a constraint unlinks it and every choice meeting it, which
+ * linking back in reverse order undoes exactly.
+ * <p>
+ * The matrix is built once, in arrays rather than node objects, and
+ * every search leaves it as it found it, so a solver is reused without
+ * allocating. The constraint with fewest choices left is always the
+ * one branched on. A solver is not safe to share between threads.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class SudokuDancingLinks {
+
+	/** Width and height of the board. */
+	private static final int SIZE = 9;
+	/** Number of squares on the board. */
+	private static final int CELLS = SIZE * SIZE;
+	/** Width and height of a box. */
+	private static final int BOX = 3;
+	/** Number of constraints, the columns of the matrix. */
+	private static final int COLUMNS = 4 * CELLS;
+	/** Number of choices, the rows of the matrix. */
+	private static final int CHOICES = CELLS * SIZE;
+	/** Nodes of each choice, one for each constraint it meets. */
+	private static final int PER_CHOICE = 4;
+	/** Header the column headers are linked to. */
+	private static final int ROOT = COLUMNS;
+	/** First node of the choices. */
+	private static final int FIRST = ROOT + 1;
+	/** Number of nodes in the matrix. */
+	private static final int NODES = FIRST + CHOICES * PER_CHOICE;
+
+	/** Node to the left of each node. */
+	private final int[] left = new int[NODES];
+	/** Node to the right of each node. */
+	private final int[] right = new int[NODES];
+	/** Node above each node. */
+	private final int[] up = new int[NODES];
+	/** Node below each node. */
+	private final int[] down = new int[NODES];
+	/** Column header of each node. */
+	private final int[] column = new int[NODES];
+	/** Choices left in each column. */
+	private final int[] size = new int[COLUMNS];
+	/** Whether each column was covered by a given. */
+	private final boolean[] taken = new boolean[COLUMNS];
+	/** Node of each given, in the order covered. */
+	private final int[] givens = new int[CELLS];
+	/** Number of givens covered. */
+	private int givenCount;
+	/** Node of the choice made at each depth of the search. */
+	private final int[] picked = new int[CELLS];
+	/** First solution found, digit of each square. */
+	private final int[] first = new int[CELLS];
+	/** Solution being handed to the visitor, digit of each square. */
+	private final int[] digits = new int[CELLS];
+	/** Board handed to the visitor, refilled for every solution. */
+	private final int[][] found = new int[SIZE][SIZE];
+	/** Visitor of the solutions, or null. */
+	private Consumer<int[][]> visitor;
+	/** Solutions found by the search running. */
+	private int solutions;
+	/** Solutions at which the search running stops. */
+	private int limit;
+	/** Choices tried by the last search. */
+	private long tries;
+
+	/**
+	 * Creates a solver, building the matrix.
+	 */
+	public SudokuDancingLinks() {
+		for (int c = 0; c <= ROOT; c++) {
+			left[c] = c - 1;
+			right[c] = c + 1;
+			up[c] = c;
+			down[c] = c;
+		}
+		left[0] = ROOT;
+		right[ROOT] = 0;
+		for (int k = 0; k < CHOICES; k++) {
+			int cell = k / SIZE;
+			int d = k % SIZE;
+			int r = cell / SIZE;
+			int c = cell % SIZE;
+			int b = r / BOX * BOX + c / BOX;
+			int[] cols = {cell, CELLS + r * SIZE + d,
+					2 * CELLS + c * SIZE + d, 3 * CELLS + b * SIZE + d};
+			int base = FIRST + k * PER_CHOICE;
+			for (int j = 0; j < PER_CHOICE; j++) {
+				int n = base + j;
+				int h = cols[j];
+				left[n] = base + (j + PER_CHOICE - 1) % PER_CHOICE;
+				right[n] = base + (j + 1) % PER_CHOICE;
+				column[n] = h;
+				//Appended at the bottom of the column.
+				up[n] = up[h];
+				down[n] = h;
+				down[up[h]] = n;
+				up[h] = n;
+				size[h]++;
+			}
+		}
+	}
+
+	/**
+	 * Solves a board.
+	 * @param board Board to solve, 0 for an empty square. It is filled
+	 * with the solution if one is found and left as it was if not.
+	 * @return True if the board has a solution.
+	 */
+	public boolean solve(final int[][] board) {
+		if (run(board, 1, null) == 0) {
+			return false;
+		}
+		for (int c = 0; c < CELLS; c++) {
+			board[c / SIZE][c % SIZE] = first[c];
+		}
+		return true;
+	}
+
+	/**
+	 * Counts the solutions of a board, stopping once the limit is
+	 * reached. A limit of 2 tells whether the solution is unique.
+	 * @param board Board to count, which is not changed.
+	 * @param max Most solutions to count.
+	 * @return Number of solutions, at most the limit.
+	 */
+	public int countSolutions(final int[][] board, final int max) {
+		return run(board, max, null);
+	}
+
+	/**
+	 * Finds the solutions of a board, handing each to a visitor. The
+	 * visitor is given the same array every time, refilled with the
+	 * next solution, so it must copy a solution it keeps.
+	 * @param board Board to solve, which is not changed.
+	 * @param max Most solutions to find.
+	 * @param visit Visitor of the solutions.
+	 * @return Number of solutions, at most the limit.
+	 */
+	public int enumerate(final int[][] board, final int max,
+			final Consumer<int[][]> visit) {
+		return run(board, max, visit);
+	}
+
+	/**
+	 * Getter method for the choices tried by the last search.
+	 * @return Number of choices tried, not counting the givens.
+	 */
+	public long getTries() {
+		return this.tries;
+	}
+
+	/**
+	 * Covers the givens, searches and uncovers them again.
+	 * @param board Board to solve.
+	 * @param max Most solutions to find.
+	 * @param visit Visitor of the solutions, or null.
+	 * @return Number of solutions, at most the limit.
+	 */
+	private int run(final int[][] board, final int max,
+			final Consumer<int[][]> visit) {
+		this.solutions = 0;
+		this.limit = max;
+		this.visitor = visit;
+		this.tries = 0;
+		if (max > 0 && coverGivens(board)) {
+			search(0);
+		}
+		uncoverGivens();
+		this.visitor = null;
+		return this.solutions;
+	}
+
+	/**
+	 * Covers the constraints met by the givens of a board.
+	 * @param board Board to read, 0 for an empty square.
+	 * @return False if a given is out of range or two givens clash.
+	 */
+	private boolean coverGivens(final int[][] board) {
+		for (int r = 0; r < SIZE; r++) {
+			for (int c = 0; c < SIZE; c++) {
+				int d = board[r][c];
+				if (d == 0) {
+					continue;
+				}
+				if (d < 0 || d > SIZE) {
+					return false;
+				}
+				int n = FIRST + ((r * SIZE + c) * SIZE + d - 1) * PER_CHOICE;
+				for (int j = 0; j < PER_CHOICE; j++) {
+					if (taken[column[n + j]]) {
+						return false;
+					}
+				}
+				int j = n;
+				do {
+					taken[column[j]] = true;
+					cover(column[j]);
+					j = right[j];
+				} while (j != n);
+				givens[givenCount++] = n;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Uncovers the constraints of the givens, last covered first.
+	 */
+	private void uncoverGivens() {
+		while (givenCount > 0) {
+			int n = givens[--givenCount];
+			int j = n;
+			do {
+				j = left[j];
+				taken[column[j]] = false;
+				uncover(column[j]);
+			} while (j != n);
+		}
+	}
+
+	/**
+	 * Branches on the column with fewest choices, trying each choice
+	 * until the limit is reached.
+	 * @param depth Choices made so far.
+	 */
+	private void search(final int depth) {
+		if (right[ROOT] == ROOT) {
+			found(depth);
+			return;
+		}
+		int best = right[ROOT];
+		for (int h = right[best]; h != ROOT && size[best] > 1; h = right[h]) {
+			if (size[h] < size[best]) {
+				best = h;
+			}
+		}
+		if (size[best] == 0) {
+			return;
+		}
+		cover(best);
+		for (int r = down[best]; r != best && solutions < limit;
+				r = down[r]) {
+			tries++;
+			picked[depth] = r;
+			for (int j = right[r]; j != r; j = right[j]) {
+				cover(column[j]);
+			}
+			search(depth + 1);
+			for (int j = left[r]; j != r; j = left[j]) {
+				uncover(column[j]);
+			}
+		}
+		uncover(best);
+	}
+
+	/**
+	 * Records a solution, keeping the first and handing each to the
+	 * visitor if there is one.
+	 * @param depth Choices made by the search.
+	 */
+	private void found(final int depth) {
+		solutions++;
+		if (solutions == 1) {
+			fill(first, depth);
+		}
+		if (visitor != null) {
+			fill(digits, depth);
+			for (int c = 0; c < CELLS; c++) {
+				found[c / SIZE][c % SIZE] = digits[c];
+			}
+			visitor.accept(found);
+		}
+	}
+
+	/**
+	 * Writes the digits of the givens and the choices made.
+	 * @param into Digit of each square.
+	 * @param depth Choices made by the search.
+	 */
+	private void fill(final int[] into, final int depth) {
+		for (int i = 0; i < givenCount; i++) {
+			place(into, givens[i]);
+		}
+		for (int i = 0; i < depth; i++) {
+			place(into, picked[i]);
+		}
+	}
+
+	/**
+	 * Writes the digit of a choice into its square.
+	 * @param into Digit of each square.
+	 * @param node Any node of the choice.
+	 */
+	private static void place(final int[] into, final int node) {
+		int k = (node - FIRST) / PER_CHOICE;
+		into[k / SIZE] = k % SIZE + 1;
+	}
+
+	/**
+	 * Unlinks a column and every choice meeting it from the other
+	 * columns.
+	 * @param c Header of the column.
+	 */
+	private void cover(final int c) {
+		right[left[c]] = right[c];
+		left[right[c]] = left[c];
+		for (int i = down[c]; i != c; i = down[i]) {
+			for (int j = right[i]; j != i; j = right[j]) {
+				up[down[j]] = up[j];
+				down[up[j]] = down[j];
+				size[column[j]]--;
+			}
+		}
+	}
+
+	/**
+	 * Links a column and its choices back in, in the reverse order of
+	 * covering it.
+	 * @param c Header of the column.
+	 */
+	private void uncover(final int c) {
+		for (int i = up[c]; i != c; i = up[i]) {
+			for (int j = left[i]; j != i; j = left[j]) {
+				size[column[j]]++;
+				up[down[j]] = j;
+				down[up[j]] = j;
+			}
+		}
+		right[left[c]] = c;
+		left[right[c]] = c;
+	}
+}
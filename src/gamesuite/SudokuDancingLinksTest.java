@@ -0,0 +1,84 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for the dancing links sudoku solver.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class SudokuDancingLinksTest {
+
+	/**
+	 * Tests that a hard puzzle is solved and has one solution, and that
+	 * counting agrees with the bitmask solver.
+	 */
+	@Test
+	public void testSolveAndCount() {
+		SudokuDancingLinks links = new SudokuDancingLinks();
+		int[][] puzzle = SudokuSolverTest.board(SudokuSolverTest.HARD);
+		int[][] board = SudokuSolverTest.board(SudokuSolverTest.HARD);
+		assertEquals(1, links.countSolutions(board, 2));
+		assertEquals(0, board[0][1]);
+		assertTrue(links.solve(board));
+		SudokuSolverTest.assertSolution(puzzle, board);
+
+		assertEquals(2, links.countSolutions(new int[9][9], 2));
+		SudokuSolver solver = new SudokuSolver();
+		int[][] loose = SudokuSolverTest.board(SudokuSolverTest.HARD);
+		loose[0][0] = 0;
+		loose[1][1] = 0;
+		assertEquals(solver.countSolutions(loose, 1000),
+				links.countSolutions(loose, 1000));
+	}
+
+	/**
+	 * Tests that every solution visited is valid and different, and
+	 * that the solver is left as it was after stopping at the limit.
+	 */
+	@Test
+	public void testEnumerate() {
+		SudokuDancingLinks links = new SudokuDancingLinks();
+		final int[][] empty = new int[9][9];
+		final Set<String> seen = new HashSet<String>();
+		int found = links.enumerate(empty, 50, b -> {
+			SudokuSolverTest.assertSolution(empty, b);
+			StringBuilder s = new StringBuilder();
+			for (int[] row : b) {
+				for (int d : row) {
+					s.append(d);
+				}
+			}
+			seen.add(s.toString());
+		});
+		assertEquals(50, found);
+		assertEquals(50, seen.size());
+		assertEquals(1, links.countSolutions(
+				SudokuSolverTest.board(SudokuSolverTest.HARD), 2));
+	}
+
+	/**
+	 * Tests that clashing givens are refused without spoiling the
+	 * matrix for the next board.
+	 */
+	@Test
+	public void testClash() {
+		SudokuDancingLinks links = new SudokuDancingLinks();
+		int[][] clash = new int[9][9];
+		clash[0][0] = 5;
+		clash[1][1] = 3;
+		clash[2][2] = 5;
+		assertEquals(0, links.countSolutions(clash, 2));
+		assertFalse(links.solve(clash));
+		assertEquals(0, clash[0][1]);
+		assertEquals(1, links.countSolutions(
+				SudokuSolverTest.board(SudokuSolverTest.HARD), 2));
+	}
+}
+//CHECKSTYLE:ON
@@ -29,6 +29,9 @@ implements MouseListener, KeyListener {
 	/**	Used in saving and loading. */
 	private static final long serialVersionUID = 1L;
 
+	/** Squares removed on Easy, Medium and Hard. */
+	private static final int[] DIFFICULTIES = {25, 50, 64};
+
 	/** Board square containers. */
 	private JPanel[][] board;
 
@@ -80,6 +83,10 @@ implements MouseListener, KeyListener {
 		this.addKeyListener(this);
 		// Instantiate game objects
 		this.game = gamel;
+		// Puzzles are generated while the player picks a difficulty
+		for (int remove : DIFFICULTIES) {
+			SudokuPuzzlePool.getShared().fill(remove);
+		}
 		this.gameOption();
 		this.size = gamel.getSize();
 		this.sqSize = 60;
@@ -267,13 +274,7 @@ implements MouseListener, KeyListener {
 				null, options, options[0]);
 		} while (type == JOptionPane.CLOSED_OPTION);
 				
-		if (type == 0) {
-			this.game.setDifficulty(25);
-		} else if (type == 1) {
-			this.game.setDifficulty(50);
-		} else {
-			this.game.setDifficulty(64);
-		}
+		this.game.setDifficulty(DIFFICULTIES[type]);
 	}
 	
 	/**
@@ -34,15 +34,14 @@ import java.util.Random;
  * 			~30 squares of the board
  * 		Medium - Using the former methods to solve 50 squares of
  * 			the board
- * 		Hard - TO ADD... using more methods
+ * 		Hard - Up to 64 squares removed, only checked to have one
+ * 			solution, preferring boards that need more than the
+ * 			former methods (see SudokuTechnique)
  * 	Credit:
  * 		This site describes the techniques used to solve a board.
  * 		http://www.sudokuoftheday.com/techniques/
  *	To-Do:
  *		Transfer code to object-oriented focus
- *		Write in the "Single Position" method of solving
- *			- Allows for more complex puzzles
- *			- More spaces opened on the board as well
  */
 
 /** 
@@ -91,6 +90,24 @@ public class SudokuLogic implements IGameLogic {
 	 */
 	private int removeThisMany;
 	
+	/** Most squares removed for boards the methods must solve. */
+	private static final int LOGIC_REMOVALS = 50;
+	
+	/** Removal orders tried before the best board is settled for. */
+	private static final int GENERATE_ATTEMPTS = 5;
+	
+	/** Random source used to generate the boards. */
+	private Random random = new Random();
+	
+	/** Exact cover solver, its matrix reused by every count. */
+	private final SudokuDancingLinks links = new SudokuDancingLinks();
+	
+	/** Rater of the boards by the techniques they need. */
+	private final SudokuRater rater = new SudokuRater();
+	
+	/** Whether the boards come from a seed, so are never pooled. */
+	private boolean seeded;
+	
 	/** 
 	 *  Initializes completeBoard, initialBoard, 
 	 *  currentBoard and errorsBoard.
@@ -98,17 +115,33 @@ public class SudokuLogic implements IGameLogic {
 	 *  */
 	public SudokuLogic(final int remove) {
 		this.removeThisMany = remove;
-		this.initializeGame();
+		this.initializeGame(false);
+		this.size = 9;
+	}
+	
+	/** 
+	 *  Initializes the game from a seeded random source, so the
+	 *  same seed always generates the same boards.
+	 *  @param remove Integer for how many pieces are removed.
+	 *  @param seed Seed for the random source.
+	 *  */
+	public SudokuLogic(final int remove, final long seed) {
+		this.random = new Random(seed);
+		this.seeded = true;
+		this.removeThisMany = remove;
+		this.initializeGame(false);
 		this.size = 9;
 	}
 	
 	/**
-	 * Setter method for the difficulty of the sudoku game.
+	 * Setter method for the difficulty of the sudoku game. Starts a
+	 * new game, with a puzzle from the shared puzzle pool when it
+	 * has one ready and the game is not seeded.
 	 * @param dif How many pieces are being removed.
 	 */
 	public void setDifficulty(final int dif) {
 		this.removeThisMany = dif;
-		this.initializeGame();
+		this.initializeGame(!this.seeded);
 	}
 	
 	/**
@@ -183,11 +216,23 @@ public class SudokuLogic implements IGameLogic {
 	 *  then, (2) generates the complete board, (3) generates the 
 	 *  initial board, (4) generates the errors board, (5) generates
 	 *  the current board and the associated IPiece-current board.
+	 *  (2) and (3) are taken from the shared puzzle pool instead
+	 *  when it is asked for and has a puzzle ready.
+	 *  @param pooled Whether to take the puzzle from the pool.
 	 */
-	private void initializeGame() {
+	private void initializeGame(final boolean pooled) {
 		this.board = new SudokuPiece[9][9];
-		generateBoard();
-		this.initialBoard = generateInitialBoard(removeThisMany);
+		int[][][] puzzle = null;
+		if (pooled) {
+			puzzle = SudokuPuzzlePool.getShared().poll(removeThisMany);
+		}
+		if (puzzle != null) {
+			this.completeBoard = puzzle[0];
+			this.initialBoard = puzzle[1];
+		} else {
+			generateBoard();
+			this.initialBoard = generateInitialBoard(removeThisMany);
+		}
 		for (int i = 0; i < 9; i++) {
 			for (int j = 0; j < 9; j++) {
 				this.errorsBoard[i][j] = false;
@@ -199,79 +244,135 @@ public class SudokuLogic implements IGameLogic {
 	}
 	
 	/**
-	 * Generates the initial board.
+	 * Generates the initial board. Up to LOGIC_REMOVALS squares the
+	 * board must stay solvable by the Single Candidate and Single
+	 * Position methods; past that it need only have one solution,
+	 * and one needing more than those methods is preferred.
 	 * @param removeQuantity - The number of squares to remove from
 	 * 						   the total 81 squares.
 	 * @return - Returns an array of integers to be given to the
 	 * 			 current board.
 	 */
 	public int[][] generateInitialBoard(final int removeQuantity) {
-		int[][] atempBoard = new int[9][9];
-		// Set all the values of atempBoard == array
-		for (int i = 0; i < 9; i++) {
-			for (int j = 0; j < 9; j++) {
-				atempBoard[i][j] = this.completeBoard[i][j];
-			}
+		if (removeQuantity <= LOGIC_REMOVALS) {
+			return generateInitialBoard(removeQuantity,
+					SudokuTechnique.NAKED_SINGLE,
+					SudokuTechnique.HIDDEN_SINGLE);
 		}
-		int repeatCount = 0;
-		int removedCount = 0;
-		int rowRandom;
-		int colRandom;
-		int numberHolder;
-		int counter;
-		boolean shouldLoop;
-		boolean shouldRepeat = false;
-		
-		while (removedCount < removeQuantity) {
-			// Starts again if comes to dead end
-			if (shouldRepeat) {
-				shouldRepeat = false;
-				removedCount = 0;
-				for (int i = 0; i < 9; i++) {
-					for (int j = 0; j < 9; j++) {
-						atempBoard[i][j] 
-						  = this.completeBoard[i][j];
-					}
+		return generateInitialBoard(removeQuantity,
+				SudokuTechnique.NAKED_PAIR, SudokuTechnique.GUESSING);
+	}
+	
+	/**
+	 * Generates an initial board rated within a band. The squares
+	 * are removed in an order planned up front, a random order of
+	 * all 81, and each removal is kept only if the board can still
+	 * be solved with the techniques up to the hardest allowed, or,
+	 * if that is GUESSING, still has one solution. At most
+	 * GENERATE_ATTEMPTS orders are tried, so the time taken is
+	 * bounded for every difficulty. The first board with the whole
+	 * quantity removed that needs the easiest technique or harder
+	 * is used; failing that, the board with the most squares
+	 * removed, those needing the easiest technique first.
+	 * @param removeQuantity - The number of squares to remove from
+	 * 						   the total 81 squares.
+	 * @param easiest - The easiest rating wanted.
+	 * @param hardest - The hardest rating allowed.
+	 * @return - Returns an array of integers to be given to the
+	 * 			 current board.
+	 */
+	public int[][] generateInitialBoard(final int removeQuantity,
+			final SudokuTechnique easiest, final SudokuTechnique hardest) {
+		int[][] bestBoard = null;
+		int bestRemoved = -1;
+		boolean bestInBand = false;
+		int[] order = new int[81];
+		for (int i = 0; i < 81; i++) {
+			order[i] = i;
+		}
+		for (int attempt = 0; attempt < GENERATE_ATTEMPTS
+				&& !(bestInBand && bestRemoved >= removeQuantity);
+				attempt++) {
+			// Plan the order the squares are removed in
+			for (int i = 80; i > 0; i--) {
+				int j = this.random.nextInt(i + 1);
+				int holder = order[i];
+				order[i] = order[j];
+				order[j] = holder;
+			}
+			int[][] atempBoard = new int[9][9];
+			for (int i = 0; i < 9; i++) {
+				for (int j = 0; j < 9; j++) {
+					atempBoard[i][j] = this.completeBoard[i][j];
 				}
-				repeatCount = repeatCount + 1;
 			}
-			
-			/* 
-			 * Remove a square. Hold onto that removed number
-			 * until it's checked to still be solvable
-			 */
-			Random r = new Random();
-			counter = 0;
-			shouldLoop = true;
-			while (shouldLoop) {
-				rowRandom = r.nextInt(9);
-				colRandom = r.nextInt(9);
-				numberHolder = atempBoard[rowRandom][colRandom];
-				if (atempBoard[rowRandom][colRandom] != 0) {
-					atempBoard[rowRandom][colRandom] = 0;
-					if (solveBoard(atempBoard)) {
-						removedCount = removedCount + 1;
-						shouldLoop = false;
-					} else {
-			        atempBoard[rowRandom][colRandom] = numberHolder;
-						counter = counter + 1;
-						if (counter > 90) {
-							shouldRepeat = true;
-							shouldLoop = false;
-							if (repeatCount > 10) {
-							  return atempBoard;
-							}
-						}
-					}
+			int removedCount = 0;
+			for (int k = 0; k < 81 && removedCount < removeQuantity; k++) {
+				int row = order[k] / 9;
+				int col = order[k] % 9;
+				int numberHolder = atempBoard[row][col];
+				atempBoard[row][col] = 0;
+				if (keepsRemoval(atempBoard, hardest)) {
+					removedCount = removedCount + 1;
+				} else {
+					atempBoard[row][col] = numberHolder;
 				}
-			}			
-		}
-		// We're here once the removeQuantity is met
-		if (!solveBoard(atempBoard)) {
-			System.out.println(
-			"ERROR IN INTERNAL GENERATING MECHANIC!");
+			}
+			boolean inBand =
+					this.rater.rate(atempBoard).compareTo(easiest) >= 0;
+			if (bestBoard == null || inBand && !bestInBand
+					|| inBand == bestInBand && removedCount > bestRemoved) {
+				bestBoard = atempBoard;
+				bestRemoved = removedCount;
+				bestInBand = inBand;
+			}
 		}
-		return atempBoard;
+		return bestBoard;
+	}
+	
+	/**
+	 * Generates a complete board and an initial board from it
+	 * without starting a game with them. Used by the puzzle pool on
+	 * games kept only for generating, since it replaces the
+	 * complete board.
+	 * @param removeQuantity - The number of squares to remove.
+	 * @return - Returns the complete board and the initial board.
+	 */
+	int[][][] generatePuzzle(final int removeQuantity) {
+		generateBoard();
+		return new int[][][] {this.completeBoard,
+				generateInitialBoard(removeQuantity)};
+	}
+	
+	/**
+	 * Checks whether a board is still a fair puzzle after a square
+	 * has been removed.
+	 * @param array - The board with the square removed.
+	 * @param hardest - The hardest technique allowed.
+	 * @return - Returns TRUE if the techniques up to the hardest
+	 * 			 solve the board, or if guessing is allowed and
+	 * 			 the board has one solution.
+	 */
+	private boolean keepsRemoval(final int[][] array,
+			final SudokuTechnique hardest) {
+		SudokuTechnique rating = this.rater.rate(array, hardest);
+		if (rating != SudokuTechnique.GUESSING) {
+			return rating != null;
+		}
+		return hardest == SudokuTechnique.GUESSING
+				&& countSolutions(array, 2) == 1;
+	}
+	
+	/**
+	 * Counts the solutions of a board with the exact cover solver,
+	 * stopping once the limit is reached.
+	 * @param array - An incomplete INT array board, not changed.
+	 * @param max - The most solutions to count; 2 tells whether
+	 * 				the solution is unique.
+	 * @return - Returns the number of solutions, at most max.
+	 */
+	public int countSolutions(final int[][] array, final int max) {
+		return this.links.countSolutions(array, max);
 	}
 	
 	/**
@@ -284,64 +385,27 @@ public class SudokuLogic implements IGameLogic {
 		return solveBoard(initialBoard);
 	}
 	
+	/**
+	 * Rates the initial board by the hardest technique a player
+	 * needs to solve it.
+	 * @return - Returns the hardest technique needed, GUESSING if
+	 * 			 none of the techniques are enough.
+	 */
+	public SudokuTechnique getRating() {
+		return this.rater.rate(initialBoard);
+	}
+	
 	/**
 	 * Solves the given board. Used to check if a generated
 	 * board is still solvable through the pre-programmed
-	 * methods.
+	 * methods: the Single Candidate and Single Position
+	 * methods, without guessing.
 	 * @param array - An incomplete INT array board.
 	 * @return - Returns TRUE if the board is solvable at
 	 * 			 its current state.
 	 */
 	public static boolean solveBoard(final int[][] array) {
-		int[][] tempBoard = new int[9][9];
-		for (int i = 0; i < 9; i++) {
-			for (int j = 0; j < 9; j++) {
-				tempBoard[i][j] = array[i][j];
-			}
-		}
-		// This will improve as more methods of 
-		// solving come into play
-		boolean solved = false;
-		boolean madeProgress = false;
-		while (!solved) {
-			// To make sure progress is being made
-			madeProgress = false;
-			// Try entire board for Single Candidate solutions
-			for (int i = 0; i < 9; i++) {
-			 for (int j = 0; j < 9; j++) {
-				// If square is empty
-			  if (tempBoard[i][j] == 0) {
-			   // If solvable square, solve it
-			   if (solvedBySingleCandidate(i, j, tempBoard) != 0) {
-					tempBoard[i][j] 
-				= solvedBySingleCandidate(i, j, tempBoard);
-				madeProgress = true;
-			   }
-		      }
-			 }
-			}
-			
-			// UPDATE ME: Add a future solving method HERE
-			
-			// Check if solved 
-			solved = true;
-			for (int i = 0; i < 9; i++) {
-				for (int j = 0; j < 9; j++) {
-					if (tempBoard[i][j] == 0) {
-						solved = false;
-					}
-				}
-			}
-			if (solved) {
-				return true;
-			}
-			if (!madeProgress) {
-				return false;
-			}
-		}
-		// This is a catch-all and should not be seen
-		System.out.println("ERROR IN INTERNAL SOLVING MECHANIC!");	
-		return false;
+		return new SudokuSolver().solveLogically(array);
 	}
 	
 	/**
@@ -444,50 +508,24 @@ public class SudokuLogic implements IGameLogic {
 	 */
 	public static int solvedBySingleCandidate(
 			final int row, final int col, final int[][] array) {
-		
-		// Start with all possibility
-		int[] possible = {1, 2, 3, 4, 5, 6, 7, 8, 9};
 		// If square is filled, return true
 		if (array[row][col] != 0) {
 			return array[row][col];
 		}
-		// Eliminates all numbers in that row from possibility
+		// Digits seen in the row, column and box, bit d - 1 for d
+		int seen = 0;
 		for (int i = 0; i < 9; i++) {
-			if (arrayContains(possible, array[row][i])) {
-				scArrayRemove(possible, array[row][i]);
-			}
-		}
-		// Eliminate all numbers in that column from possibility
-		for (int i = 0; i < 9; i++) {
-			if (arrayContains(possible, array[i][col])) {
-				scArrayRemove(possible, array[i][col]);
-			}
-		}
-		// Eliminate all numbers 
-		// in that box from possibility			
-		for (int i = 0; i < 3; i++) {
-		 for (int j = 0; j < 3; j++) {
-		  if (arrayContains(possible, 
-			  array[(((row / 3) * 3) + i)]
-			  [(((col / 3) * 3) + j)])) {
-			scArrayRemove(possible, array[(((row / 3) * 3) + i)]
-			[(((col / 3) * 3) + j)]);
-		  }
-		 }
+			seen |= 1 << array[row][i] >> 1;
+			seen |= 1 << array[i][col] >> 1;
+			seen |= 1 << array[(row / 3) * 3 + i / 3]
+					[(col / 3) * 3 + i % 3] >> 1;
 		}
+		int possible = ~seen & 0x1FF;
 		// See if there are multiple possibilities left in this square
-		int stillPossible = 0;
-		int lastRemaining = 0;
-		for (int i = 0; i < 9; i++) {
-			if (possible[i] != 0) {
-				stillPossible = stillPossible + 1;
-				lastRemaining = possible[i];
-			}
-			if (stillPossible > 1) {
-				return 0;
-			}
+		if (possible == 0 || (possible & (possible - 1)) != 0) {
+			return 0;
 		}
-		return lastRemaining;
+		return Integer.numberOfTrailingZeros(possible) + 1;
 	}
 	
 	/**
@@ -524,7 +562,7 @@ public class SudokuLogic implements IGameLogic {
 	 * @param someBoard - An array board in the initializing process.
 	 * @return - An array board now with possibly swapped chunks.
 	 */
-	private static int[][] swapChunks(final int[][] someBoard) {
+	private int[][] swapChunks(final int[][] someBoard) {
 		int[][] ctempBoard = new int[9][9];
 		for (int i = 0; i < 9; i++) {
 			for (int j = 0; j < 9; j++) {
@@ -533,7 +571,7 @@ public class SudokuLogic implements IGameLogic {
 		}
 		
 		int decidingRandom, holdingNumber;
-		Random r = new Random();
+		Random r = this.random;
 	//  Swap two horizontal 3-tall chunks
 		decidingRandom = r.nextInt(4); // 0, 1, 2, 3
 		if (decidingRandom == 0) {
@@ -605,7 +643,7 @@ public class SudokuLogic implements IGameLogic {
 		completeBoard = outputBeginningBoard();
 		int holdingNumber;
 		int decidingRandom;
-		Random r = new Random();
+		Random r = this.random;
 		/* Swap some random rows */
 		decidingRandom = r.nextInt(3); // 0, 1, 2
 		if (decidingRandom == 1) {
@@ -657,10 +695,10 @@ public class SudokuLogic implements IGameLogic {
 		completeBoard = swapChunks(completeBoard);
 		
 	 //  On the overall board, swap the complete placements of two integers.
-		int randomX = (r.nextInt(10) + 1);
-		int randomY = (r.nextInt(10) + 1);
+		int randomX = (r.nextInt(9) + 1);
+		int randomY = (r.nextInt(9) + 1);
 		while (randomX == randomY) {
-			randomY = (r.nextInt(10) + 1);
+			randomY = (r.nextInt(9) + 1);
 		}
 		for (int i = 0; i < 9; i++) {
 			for (int j = 0; j < 9; j++) {
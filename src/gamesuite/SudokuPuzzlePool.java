@@ -0,0 +1,239 @@
+package gamesuite;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sudoku puzzles generated ahead of time, so a new game starts without
+ * waiting on the generator. Each difficulty, the number of squares
+ * removed, has its own queue of puzzles, filled by background threads
+ * and topped up again whenever a puzzle is taken from it. When a queue
+ * is empty the game falls back to generating its puzzle itself.
+ * <p>
+ * Each puzzle is kept as two boards, the complete board and the initial
+ * board given to the player. The pool counts the puzzles it served,
+ * the games that had to fall back and the puzzles it generated.
+ * <p>
+ * The shared pool is the one games take their puzzles from when the
+ * player picks a difficulty; games with a seed always generate their
+ * own, so they repeat.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public final class SudokuPuzzlePool {
+
+	/** Puzzles kept for each difficulty by the shared pool. */
+	public static final int DEFAULT_SIZE = 4;
+	/** Threads generating puzzles for the shared pool. */
+	public static final int DEFAULT_THREADS = 1;
+
+	/** Pool games take their puzzles from. */
+	private static SudokuPuzzlePool shared;
+
+	/** Puzzles kept for each difficulty. */
+	private final int size;
+	/** Threads generating the puzzles. */
+	private final ExecutorService workers;
+	/** Queue of puzzles for each difficulty. */
+	private final ConcurrentMap<Integer, BlockingQueue<int[][][]>> queues;
+	/** Whether a refill is queued or running for each difficulty. */
+	private final ConcurrentMap<Integer, AtomicBoolean> refilling;
+	/** Generator of each worker thread, never used as a game. */
+	private final ThreadLocal<SudokuLogic> generators;
+	/** Puzzles served from a queue. */
+	private final AtomicLong hits;
+	/** Puzzles asked for while the queue was empty. */
+	private final AtomicLong fallbacks;
+	/** Puzzles generated by the workers. */
+	private final AtomicLong generated;
+
+	/**
+	 * Creates a pool. No puzzles are generated until a difficulty is
+	 * first asked for or filled.
+	 * @param size Puzzles to keep for each difficulty, at least one.
+	 * @param threads Threads generating the puzzles, at least one.
+	 */
+	public SudokuPuzzlePool(final int size, final int threads) {
+		this.size = Math.max(1, size);
+		final AtomicInteger number = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(Math.max(1, threads),
+				r -> {
+					Thread t = new Thread(r,
+							"sudoku-pool-" + number.incrementAndGet());
+					t.setDaemon(true);
+					t.setPriority(Thread.MIN_PRIORITY);
+					return t;
+				});
+		this.queues =
+				new ConcurrentHashMap<Integer, BlockingQueue<int[][][]>>();
+		this.refilling = new ConcurrentHashMap<Integer, AtomicBoolean>();
+		this.generators = ThreadLocal.withInitial(() -> new SudokuLogic(0,
+				ThreadLocalRandom.current().nextLong()));
+		this.hits = new AtomicLong();
+		this.fallbacks = new AtomicLong();
+		this.generated = new AtomicLong();
+	}
+
+	/**
+	 * Getter method for the shared pool, created with the default size
+	 * the first time it is asked for.
+	 * @return The shared pool.
+	 */
+	public static synchronized SudokuPuzzlePool getShared() {
+		if (shared == null) {
+			shared = new SudokuPuzzlePool(DEFAULT_SIZE, DEFAULT_THREADS);
+		}
+		return shared;
+	}
+
+	/**
+	 * Replaces the shared pool with one of another size, stopping the
+	 * threads of the old one.
+	 * @param size Puzzles to keep for each difficulty.
+	 * @param threads Threads generating the puzzles.
+	 */
+	public static synchronized void configureShared(final int size,
+			final int threads) {
+		if (shared != null) {
+			shared.shutdown();
+		}
+		shared = new SudokuPuzzlePool(size, threads);
+	}
+
+	/**
+	 * Starts filling the queue of a difficulty in the background.
+	 * @param remove Squares removed from the puzzles.
+	 */
+	public void fill(final int remove) {
+		refill(remove);
+	}
+
+	/**
+	 * Takes a puzzle without waiting, and starts topping the queue up.
+	 * @param remove Squares removed from the puzzle.
+	 * @return The complete board and the initial board, or null if
+	 * the queue was empty and the caller must generate its own.
+	 */
+	public int[][][] poll(final int remove) {
+		int[][][] puzzle = queue(remove).poll();
+		if (puzzle == null) {
+			fallbacks.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		refill(remove);
+		return puzzle;
+	}
+
+	/**
+	 * Getter method for the puzzles ready for a difficulty.
+	 * @param remove Squares removed from the puzzles.
+	 * @return Number of puzzles in the queue.
+	 */
+	public int getAvailable(final int remove) {
+		return queue(remove).size();
+	}
+
+	/**
+	 * Getter method for the puzzles kept for each difficulty.
+	 * @return Size of each queue.
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Getter method for the puzzles served from a queue.
+	 * @return Number of polls that found a puzzle.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Getter method for the puzzles the games generated themselves.
+	 * @return Number of polls that found the queue empty.
+	 */
+	public long getFallbacks() {
+		return fallbacks.get();
+	}
+
+	/**
+	 * Getter method for the puzzles generated in the background.
+	 * @return Number of puzzles generated by the workers.
+	 */
+	public long getGenerated() {
+		return generated.get();
+	}
+
+	/**
+	 * Stops the workers. Puzzles already in the queues can still be
+	 * taken, but they are no longer topped up.
+	 */
+	public void shutdown() {
+		workers.shutdownNow();
+	}
+
+	/**
+	 * Gets the queue of a difficulty, creating it if it is new.
+	 * @param remove Squares removed from the puzzles.
+	 * @return The queue.
+	 */
+	private BlockingQueue<int[][][]> queue(final int remove) {
+		return queues.computeIfAbsent(remove,
+				k -> new ArrayBlockingQueue<int[][][]>(size));
+	}
+
+	/**
+	 * Queues a refill of a difficulty unless one is already queued.
+	 * @param remove Squares removed from the puzzles.
+	 */
+	private void refill(final int remove) {
+		final AtomicBoolean flag = refilling.computeIfAbsent(remove,
+				k -> new AtomicBoolean());
+		if (workers.isShutdown() || !flag.compareAndSet(false, true)) {
+			return;
+		}
+		final BlockingQueue<int[][][]> queue = queue(remove);
+		try {
+			workers.execute(() -> fillQueue(queue, remove, flag));
+		} catch (RejectedExecutionException e) {
+			//Shut down since the check above.
+			flag.set(false);
+		}
+	}
+
+	/**
+	 * Generates puzzles on a worker until the queue is full.
+	 * @param queue Queue to fill.
+	 * @param remove Squares removed from the puzzles.
+	 * @param flag Refill flag of the difficulty, cleared when done.
+	 */
+	private void fillQueue(final BlockingQueue<int[][][]> queue,
+			final int remove, final AtomicBoolean flag) {
+		SudokuLogic generator = generators.get();
+		try {
+			while (queue.remainingCapacity() > 0
+					&& !Thread.currentThread().isInterrupted()) {
+				if (queue.offer(generator.generatePuzzle(remove))) {
+					generated.incrementAndGet();
+				}
+			}
+		} finally {
+			flag.set(false);
+		}
+		//A puzzle taken just before the flag was cleared.
+		if (queue.remainingCapacity() > 0) {
+			refill(remove);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for the pool of pre-generated sudoku puzzles.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class SudokuPuzzlePoolTest {
+
+	/**
+	 * Tests that an empty queue falls back, that the workers fill it
+	 * to its size, and that the puzzles served are sound.
+	 * @throws InterruptedException If the wait is interrupted.
+	 */
+	@Test
+	public void testFillAndPoll() throws InterruptedException {
+		SudokuPuzzlePool pool = new SudokuPuzzlePool(3, 2);
+		try {
+			assertNull(pool.poll(40));
+			assertEquals(1, pool.getFallbacks());
+			assertEquals(0, pool.getHits());
+
+			long deadline = System.currentTimeMillis() + 10000;
+			while (pool.getAvailable(40) < 3
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertEquals(3, pool.getAvailable(40));
+
+			SudokuSolver solver = new SudokuSolver();
+			for (int i = 0; i < 3; i++) {
+				int[][][] puzzle = pool.poll(40);
+				assertNotNull(puzzle);
+				int removed = 0;
+				for (int r = 0; r < 9; r++) {
+					for (int c = 0; c < 9; c++) {
+						if (puzzle[1][r][c] == 0) {
+							removed++;
+						}
+					}
+				}
+				assertEquals(40, removed);
+				assertEquals(1, solver.countSolutions(puzzle[1], 2));
+				SudokuSolverTest.assertSolution(puzzle[1], puzzle[0]);
+			}
+			assertEquals(3, pool.getHits());
+			assertTrue(pool.getGenerated() >= 3);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Tests that a game built for a placeholder leaves the shared pool
+	 * alone, and that picking a difficulty the pool has ready serves
+	 * the game from it.
+	 * @throws InterruptedException If the wait is interrupted.
+	 */
+	@Test
+	public void testPooledGame() throws InterruptedException {
+		SudokuPuzzlePool pool = SudokuPuzzlePool.getShared();
+		long hits = pool.getHits();
+		long fallbacks = pool.getFallbacks();
+		SudokuLogic game = new SudokuLogic(30);
+		assertEquals(hits, pool.getHits());
+		assertEquals(fallbacks, pool.getFallbacks());
+
+		pool.fill(35);
+		long deadline = System.currentTimeMillis() + 10000;
+		while (pool.getAvailable(35) == 0
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertTrue(pool.getAvailable(35) > 0);
+		game.setDifficulty(35);
+		assertEquals(hits + 1, pool.getHits());
+		assertEquals(fallbacks, pool.getFallbacks());
+		assertTrue(game.isSolvable());
+		assertFalse(game.isFilled());
+	}
+}
+//CHECKSTYLE:ON
@@ -0,0 +1,533 @@
+package gamesuite;
+
+/**
+ * Rates how hard a sudoku is for a person. The puzzle is solved the way
+ * a player would, keeping the candidates of each square as a bitmask
+ * and always using the easiest technique that makes progress, going
+ * back to the easiest again after each step. The rating is the
+ * hardest technique the solve needed.
+ * <p>
+ * A limit stops the rater from trying techniques past a given one,
+ * which the generator uses to keep a puzzle within a difficulty band
+ * cheaply. A rater keeps no state between calls apart from the digits
+ * of the last solve, and may be reused, but is not safe to share
+ * between threads.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class SudokuRater {
+
+	/** Width and height of the board. */
+	private static final int SIZE = SudokuSolver.SIZE;
+	/** Number of squares on the board. */
+	private static final int CELLS = SIZE * SIZE;
+	/** Mask of every digit, bit d - 1 standing for digit d. */
+	private static final int ALL = (1 << SIZE) - 1;
+	/** Squares of each row, column and box, in that order. */
+	private static final int[][] UNITS = SudokuSolver.UNITS;
+	/** Index of the first box in the units. */
+	private static final int BOXES = 2 * SIZE;
+	/** Squares sharing a row, column or box with each square. */
+	private static final int[][] PEERS = buildPeers();
+	/** Techniques in the order they are tried. */
+	private static final SudokuTechnique[] TECHNIQUES =
+			SudokuTechnique.values();
+
+	/** Digit in each square, or 0 if empty. */
+	private final int[] cells = new int[CELLS];
+	/** Candidates of each empty square. */
+	private final int[] cands = new int[CELLS];
+	/** Places of each digit in the unit being looked at. */
+	private final int[] places = new int[SIZE];
+	/** Number of squares filled. */
+	private int filled;
+	/** Whether the puzzle was found to have no solution. */
+	private boolean broken;
+
+	/**
+	 * Rates a puzzle using every technique.
+	 * @param board Puzzle to rate, 0 for an empty square. It is not
+	 * changed.
+	 * @return Hardest technique needed, GUESSING if the techniques do
+	 * not finish it, or null if it has no solution.
+	 */
+	public SudokuTechnique rate(final int[][] board) {
+		return rate(board, SudokuTechnique.GUESSING);
+	}
+
+	/**
+	 * Rates a puzzle using the techniques up to a limit.
+	 * @param board Puzzle to rate, 0 for an empty square. It is not
+	 * changed.
+	 * @param limit Hardest technique to try.
+	 * @return Hardest technique needed, GUESSING if the techniques up
+	 * to the limit do not finish it, or null if it has no solution.
+	 */
+	public SudokuTechnique rate(final int[][] board,
+			final SudokuTechnique limit) {
+		if (!load(board)) {
+			return null;
+		}
+		SudokuTechnique hardest = SudokuTechnique.NAKED_SINGLE;
+		while (filled < CELLS) {
+			SudokuTechnique used = null;
+			for (SudokuTechnique t : TECHNIQUES) {
+				if (t.compareTo(limit) > 0 || t == SudokuTechnique.GUESSING) {
+					break;
+				}
+				if (apply(t)) {
+					used = t;
+					break;
+				}
+				if (broken) {
+					return null;
+				}
+			}
+			if (broken) {
+				return null;
+			}
+			if (used == null) {
+				return SudokuTechnique.GUESSING;
+			}
+			if (used.compareTo(hardest) > 0) {
+				hardest = used;
+			}
+		}
+		return hardest;
+	}
+
+	/**
+	 * Getter method for a digit placed by the last rating.
+	 * @param row Row of the square.
+	 * @param col Column of the square.
+	 * @return Digit in the square, 0 if the rating did not reach it.
+	 */
+	int getDigit(final int row, final int col) {
+		return cells[row * SIZE + col];
+	}
+
+	/**
+	 * Copies a puzzle in, working out the candidates of its squares.
+	 * @param board Puzzle to copy, 0 for an empty square.
+	 * @return False if a given is out of range or two givens clash.
+	 */
+	private boolean load(final int[][] board) {
+		broken = false;
+		filled = 0;
+		for (int c = 0; c < CELLS; c++) {
+			cells[c] = 0;
+			cands[c] = ALL;
+		}
+		for (int c = 0; c < CELLS; c++) {
+			int d = board[c / SIZE][c % SIZE];
+			if (d == 0) {
+				continue;
+			}
+			if (d < 0 || d > SIZE || (cands[c] & 1 << d - 1) == 0) {
+				return false;
+			}
+			place(c, d);
+		}
+		//A square emptied of candidates by the givens alone.
+		return !broken;
+	}
+
+	/**
+	 * Places a digit and takes it from the candidates of its peers.
+	 * @param c Index of the square.
+	 * @param d Digit to place.
+	 */
+	private void place(final int c, final int d) {
+		int bit = 1 << d - 1;
+		cells[c] = d;
+		cands[c] = 0;
+		filled++;
+		for (int p : PEERS[c]) {
+			if (cells[p] == 0 && (cands[p] &= ~bit) == 0) {
+				broken = true;
+			}
+		}
+	}
+
+	/**
+	 * Takes candidates from a square.
+	 * @param c Index of the square.
+	 * @param mask Candidates to take.
+	 * @return True if the square had any of them.
+	 */
+	private boolean eliminate(final int c, final int mask) {
+		if (cells[c] != 0 || (cands[c] & mask) == 0) {
+			return false;
+		}
+		cands[c] &= ~mask;
+		if (cands[c] == 0) {
+			broken = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Uses a technique once.
+	 * @param t Technique to use.
+	 * @return True if it placed a digit or took a candidate away.
+	 */
+	private boolean apply(final SudokuTechnique t) {
+		switch (t) {
+		case NAKED_SINGLE:
+			return nakedSingles();
+		case HIDDEN_SINGLE:
+			return hiddenSingles();
+		case NAKED_PAIR:
+			return nakedPairs();
+		case POINTING:
+			return pointing();
+		case HIDDEN_PAIR:
+			return hiddenPairs();
+		case NAKED_TRIPLE:
+			return nakedTriples();
+		case X_WING:
+			return xWings();
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Places every square with one candidate.
+	 * @return True if a digit was placed.
+	 */
+	private boolean nakedSingles() {
+		boolean progress = false;
+		for (int c = 0; c < CELLS && !broken; c++) {
+			int m = cands[c];
+			if (cells[c] == 0 && (m & m - 1) == 0) {
+				place(c, Integer.numberOfTrailingZeros(m) + 1);
+				progress = true;
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Places every digit with one place left in a unit.
+	 * @return True if a digit was placed.
+	 */
+	private boolean hiddenSingles() {
+		boolean progress = false;
+		for (int[] unit : UNITS) {
+			int once = 0;
+			int twice = 0;
+			int placed = 0;
+			for (int c : unit) {
+				if (cells[c] != 0) {
+					placed |= 1 << cells[c] - 1;
+				} else {
+					twice |= once & cands[c];
+					once |= cands[c];
+				}
+			}
+			if ((once | placed) != ALL) {
+				broken = true;
+				return false;
+			}
+			for (int hidden = once & ~twice; hidden != 0;
+					hidden &= hidden - 1) {
+				int bit = hidden & -hidden;
+				for (int c : unit) {
+					if (cells[c] == 0 && (cands[c] & bit) != 0) {
+						place(c, Integer.numberOfTrailingZeros(bit) + 1);
+						progress = true;
+						break;
+					}
+				}
+			}
+			if (broken) {
+				return false;
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Takes the digits of two squares of a unit with the same two
+	 * candidates from the rest of the unit.
+	 * @return True if a candidate was taken.
+	 */
+	private boolean nakedPairs() {
+		boolean progress = false;
+		for (int[] unit : UNITS) {
+			for (int i = 0; i < SIZE; i++) {
+				int m = cands[unit[i]];
+				if (Integer.bitCount(m) != 2) {
+					continue;
+				}
+				for (int j = i + 1; j < SIZE; j++) {
+					if (cands[unit[j]] != m) {
+						continue;
+					}
+					for (int k = 0; k < SIZE; k++) {
+						if (k != i && k != j && eliminate(unit[k], m)) {
+							progress = true;
+						}
+					}
+				}
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Takes a digit confined to one line of a box from the rest of the
+	 * line, and a digit confined to one box of a line from the rest of
+	 * the box.
+	 * @return True if a candidate was taken.
+	 */
+	private boolean pointing() {
+		boolean progress = false;
+		for (int u = 0; u < UNITS.length; u++) {
+			int[] unit = UNITS[u];
+			for (int bit = 1; bit <= ALL; bit <<= 1) {
+				//Row, column and box every place of the digit shares.
+				int row = -1;
+				int col = -1;
+				int box = -1;
+				boolean any = false;
+				for (int c : unit) {
+					if ((cands[c] & bit) == 0) {
+						continue;
+					}
+					int r = c / SIZE;
+					int k = c % SIZE;
+					int b = SudokuSolver.BOX_OF[c];
+					if (!any) {
+						row = r;
+						col = k;
+						box = b;
+						any = true;
+						continue;
+					}
+					if (row != r) {
+						row = -1;
+					}
+					if (col != k) {
+						col = -1;
+					}
+					if (box != b) {
+						box = -1;
+					}
+				}
+				if (!any) {
+					continue;
+				}
+				if (u >= BOXES) {
+					if (row >= 0 && clearOutside(UNITS[row], unit, bit)) {
+						progress = true;
+					}
+					if (col >= 0 && clearOutside(UNITS[SIZE + col], unit,
+							bit)) {
+						progress = true;
+					}
+				} else if (box >= 0 && clearOutside(UNITS[BOXES + box],
+						unit, bit)) {
+					progress = true;
+				}
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Takes a digit from the squares of one unit that are not in
+	 * another.
+	 * @param target Unit to take the digit from.
+	 * @param keep Unit whose squares keep it.
+	 * @param bit Digit to take.
+	 * @return True if a candidate was taken.
+	 */
+	private boolean clearOutside(final int[] target, final int[] keep,
+			final int bit) {
+		boolean progress = false;
+		for (int c : target) {
+			if (!contains(keep, c) && eliminate(c, bit)) {
+				progress = true;
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Finds two digits with the same two places in a unit and takes
+	 * the other candidates from those places.
+	 * @return True if a candidate was taken.
+	 */
+	private boolean hiddenPairs() {
+		boolean progress = false;
+		for (int[] unit : UNITS) {
+			fillPlaces(unit);
+			for (int d = 0; d < SIZE; d++) {
+				if (Integer.bitCount(places[d]) != 2) {
+					continue;
+				}
+				for (int e = d + 1; e < SIZE; e++) {
+					if (places[e] != places[d]) {
+						continue;
+					}
+					int keep = 1 << d | 1 << e;
+					for (int m = places[d]; m != 0; m &= m - 1) {
+						int c = unit[Integer.numberOfTrailingZeros(m)];
+						if (eliminate(c, ~keep & ALL)) {
+							progress = true;
+						}
+					}
+				}
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Takes the digits of three squares of a unit with three
+	 * candidates between them from the rest of the unit.
+	 * @return True if a candidate was taken.
+	 */
+	private boolean nakedTriples() {
+		boolean progress = false;
+		for (int[] unit : UNITS) {
+			for (int i = 0; i < SIZE; i++) {
+				int a = cands[unit[i]];
+				if (a == 0 || Integer.bitCount(a) > 3) {
+					continue;
+				}
+				for (int j = i + 1; j < SIZE; j++) {
+					int b = a | cands[unit[j]];
+					if (cands[unit[j]] == 0 || Integer.bitCount(b) > 3) {
+						continue;
+					}
+					for (int k = j + 1; k < SIZE; k++) {
+						int m = b | cands[unit[k]];
+						if (cands[unit[k]] == 0 || Integer.bitCount(m) != 3) {
+							continue;
+						}
+						for (int o = 0; o < SIZE; o++) {
+							if (o != i && o != j && o != k
+									&& eliminate(unit[o], m)) {
+								progress = true;
+							}
+						}
+					}
+				}
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Finds a digit with the same two places in two rows and takes it
+	 * from the rest of those columns, and the same with rows and
+	 * columns swapped.
+	 * @return True if a candidate was taken.
+	 */
+	private boolean xWings() {
+		boolean progress = false;
+		for (int line = 0; line < BOXES; line += SIZE) {
+			//Lines are rows first, then columns; across is the other.
+			int across = SIZE - line;
+			for (int bit = 1; bit <= ALL; bit <<= 1) {
+				for (int i = 0; i < SIZE; i++) {
+					int first = placesOf(UNITS[line + i], bit);
+					if (Integer.bitCount(first) != 2) {
+						continue;
+					}
+					for (int j = i + 1; j < SIZE; j++) {
+						if (placesOf(UNITS[line + j], bit) != first) {
+							continue;
+						}
+						for (int m = first; m != 0; m &= m - 1) {
+							int[] cross = UNITS[across
+									+ Integer.numberOfTrailingZeros(m)];
+							for (int k = 0; k < SIZE; k++) {
+								if (k != i && k != j
+										&& eliminate(cross[k], bit)) {
+									progress = true;
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+		return progress;
+	}
+
+	/**
+	 * Works out the places of every digit in a unit.
+	 * @param unit Squares of the unit.
+	 */
+	private void fillPlaces(final int[] unit) {
+		for (int d = 0; d < SIZE; d++) {
+			places[d] = 0;
+		}
+		for (int i = 0; i < SIZE; i++) {
+			for (int m = cands[unit[i]]; m != 0; m &= m - 1) {
+				places[Integer.numberOfTrailingZeros(m)] |= 1 << i;
+			}
+		}
+	}
+
+	/**
+	 * Works out the places of a digit in a unit.
+	 * @param unit Squares of the unit.
+	 * @param bit Digit to look for.
+	 * @return Mask of the positions in the unit with the digit.
+	 */
+	private int placesOf(final int[] unit, final int bit) {
+		int m = 0;
+		for (int i = 0; i < SIZE; i++) {
+			if ((cands[unit[i]] & bit) != 0) {
+				m |= 1 << i;
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Checks whether a unit has a square.
+	 * @param unit Squares of the unit.
+	 * @param c Index of the square.
+	 * @return True if the square is in the unit.
+	 */
+	private static boolean contains(final int[] unit, final int c) {
+		for (int u : unit) {
+			if (u == c) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Builds the squares sharing a row, column or box with each square.
+	 * @return The 20 peers of each square.
+	 */
+	private static int[][] buildPeers() {
+		int[][] peers = new int[CELLS][];
+		for (int c = 0; c < CELLS; c++) {
+			boolean[] seen = new boolean[CELLS];
+			int[] list = new int[20];
+			int n = 0;
+			for (int[] unit : UNITS) {
+				if (!contains(unit, c)) {
+					continue;
+				}
+				for (int p : unit) {
+					if (p != c && !seen[p]) {
+						seen[p] = true;
+						list[n++] = p;
+					}
+				}
+			}
+			peers[c] = list;
+		}
+		return peers;
+	}
+}
@@ -0,0 +1,88 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for the technique based sudoku rater.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class SudokuRaterTest {
+
+	/**
+	 * Tests the ratings of an easy puzzle, a puzzle no technique
+	 * finishes and givens that clash.
+	 */
+	@Test
+	public void testRatings() {
+		SudokuRater rater = new SudokuRater();
+		SudokuLogic easy = new SudokuLogic(25, 1);
+		assertEquals(SudokuTechnique.NAKED_SINGLE, easy.getRating());
+		assertEquals(SudokuTechnique.GUESSING, rater.rate(
+				SudokuSolverTest.board(SudokuSolverTest.HARD)));
+		int[][] clash = new int[9][9];
+		clash[0][0] = 5;
+		clash[0][8] = 5;
+		assertNull(rater.rate(clash));
+	}
+
+	/**
+	 * Tests that every digit the rater places is the solution's, and
+	 * that a limit below the rating leaves the puzzle unfinished.
+	 */
+	@Test
+	public void testSoundAndLimited() {
+		SudokuRater rater = new SudokuRater();
+		SudokuDancingLinks links = new SudokuDancingLinks();
+		for (int seed = 0; seed < 20; seed++) {
+			SudokuLogic logic = new SudokuLogic(0, seed);
+			logic.generateBoard();
+			int[][] puzzle = logic.generateInitialBoard(58,
+					SudokuTechnique.NAKED_SINGLE, SudokuTechnique.GUESSING);
+			int[][] solution = new int[9][];
+			for (int r = 0; r < 9; r++) {
+				solution[r] = puzzle[r].clone();
+			}
+			assertTrue(links.solve(solution));
+			SudokuTechnique rating = rater.rate(puzzle);
+			for (int r = 0; r < 9; r++) {
+				for (int c = 0; c < 9; c++) {
+					int d = rater.getDigit(r, c);
+					assertTrue(d == 0 || d == solution[r][c]);
+				}
+			}
+			if (rating.ordinal() > 0) {
+				SudokuTechnique below =
+						SudokuTechnique.values()[rating.ordinal() - 1];
+				assertEquals(SudokuTechnique.GUESSING,
+						rater.rate(puzzle, below));
+			}
+		}
+	}
+
+	/**
+	 * Tests that the generator keeps boards within the hardest
+	 * technique asked for and finds boards needing the easiest.
+	 */
+	@Test
+	public void testGeneratesBand() {
+		SudokuRater rater = new SudokuRater();
+		int inBand = 0;
+		for (int seed = 0; seed < 10; seed++) {
+			SudokuLogic logic = new SudokuLogic(0, seed);
+			logic.generateBoard();
+			int[][] puzzle = logic.generateInitialBoard(54,
+					SudokuTechnique.NAKED_PAIR, SudokuTechnique.X_WING);
+			SudokuTechnique rating = rater.rate(puzzle);
+			assertTrue(rating.compareTo(SudokuTechnique.X_WING) <= 0);
+			if (rating.compareTo(SudokuTechnique.NAKED_PAIR) >= 0) {
+				inBand++;
+			}
+		}
+		assertTrue(inBand > 0);
+	}
+}
+//CHECKSTYLE:ON
@@ -0,0 +1,351 @@
+package gamesuite;
+
+/**
+ * Sudoku solver working on candidate bitmasks. For each row, column
+ * and box a mask of the digits already placed is kept, so the
+ * candidates of a square are three loads and a few bit operations,
+ * and placing or removing a digit updates the masks in place.
+ * <p>
+ * Solving first places singles until none are left: naked singles,
+ * squares with one candidate (the Single Candidate method), and hidden
+ * singles, digits with one place left in a row, column or box (the
+ * Single Position method). If squares are still empty the solver
+ * guesses at the square with fewest candidates and backtracks, taking
+ * back every digit placed since the guess from a trail.
+ * <p>
+ * A solver keeps no state between calls and may be reused, but is not
+ * safe to share between threads.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class SudokuSolver {
+
+	/** Width and height of the board. */
+	public static final int SIZE = 9;
+	/** Number of squares on the board. */
+	private static final int CELLS = SIZE * SIZE;
+	/** Width and height of a box. */
+	private static final int BOX = 3;
+	/** Mask of every digit, bit d - 1 standing for digit d. */
+	private static final int ALL = (1 << SIZE) - 1;
+	/** Squares of each row, column and box, in that order. */
+	static final int[][] UNITS = buildUnits();
+	/** Box of each square. */
+	static final int[] BOX_OF = buildBoxes();
+
+	/** Digit in each square, or 0 if empty. */
+	private final int[] cells = new int[CELLS];
+	/** Digits placed in each row. */
+	private final int[] rows = new int[SIZE];
+	/** Digits placed in each column. */
+	private final int[] cols = new int[SIZE];
+	/** Digits placed in each box. */
+	private final int[] boxes = new int[SIZE];
+	/** Squares filled since loading, in the order they were filled. */
+	private final int[] trail = new int[CELLS];
+	/** Entries in use on the trail. */
+	private int trailTop;
+	/** Number of squares filled. */
+	private int filled;
+	/** Guesses made by the last solve. */
+	private long guesses;
+	/** Solutions found by the count running. */
+	private int solutions;
+	/** Solutions at which the count running stops. */
+	private int limit;
+
+	/**
+	 * Solves a board, guessing when no single is left.
+	 * @param board Board to solve, 0 for an empty square. It is filled
+	 * with the solution if one is found and left as it was if not.
+	 * @return True if the board has a solution.
+	 */
+	public boolean solve(final int[][] board) {
+		this.guesses = 0;
+		if (!load(board) || !search()) {
+			return false;
+		}
+		store(board);
+		return true;
+	}
+
+	/**
+	 * Solves a board with naked and hidden singles only, as a player
+	 * would without guessing.
+	 * @param board Board to solve, which is not changed.
+	 * @return True if the singles fill the whole board.
+	 */
+	public boolean solveLogically(final int[][] board) {
+		this.guesses = 0;
+		return load(board) && propagate() && filled == CELLS;
+	}
+
+	/**
+	 * Counts the solutions of a board, stopping once the limit is
+	 * reached. A limit of 2 tells whether the solution is unique.
+	 * @param board Board to count, which is not changed.
+	 * @param max Most solutions to count.
+	 * @return Number of solutions, at most the limit.
+	 */
+	public int countSolutions(final int[][] board, final int max) {
+		this.guesses = 0;
+		this.solutions = 0;
+		this.limit = max;
+		if (load(board)) {
+			count();
+		}
+		return this.solutions;
+	}
+
+	/**
+	 * Getter method for the guesses made by the last solve.
+	 * @return Number of digits tried by backtracking, 0 if the singles
+	 * were enough.
+	 */
+	public long getGuesses() {
+		return this.guesses;
+	}
+
+	/**
+	 * Copies a board into the masks.
+	 * @param board Board to copy, 0 for an empty square.
+	 * @return False if two givens clash.
+	 */
+	private boolean load(final int[][] board) {
+		for (int i = 0; i < SIZE; i++) {
+			rows[i] = 0;
+			cols[i] = 0;
+			boxes[i] = 0;
+		}
+		trailTop = 0;
+		filled = 0;
+		for (int c = 0; c < CELLS; c++) {
+			cells[c] = 0;
+		}
+		for (int r = 0; r < SIZE; r++) {
+			for (int col = 0; col < SIZE; col++) {
+				int d = board[r][col];
+				if (d == 0) {
+					continue;
+				}
+				int c = r * SIZE + col;
+				if (d < 0 || d > SIZE || (candidates(c) & 1 << d - 1) == 0) {
+					return false;
+				}
+				place(c, d);
+			}
+		}
+		//Givens are not taken back by backtracking.
+		trailTop = 0;
+		return true;
+	}
+
+	/**
+	 * Copies the squares back into a board.
+	 * @param board Board to fill.
+	 */
+	private void store(final int[][] board) {
+		for (int c = 0; c < CELLS; c++) {
+			board[c / SIZE][c % SIZE] = cells[c];
+		}
+	}
+
+	/**
+	 * Gets the digits that can still go in an empty square.
+	 * @param c Index of the square.
+	 * @return Mask of the candidates.
+	 */
+	private int candidates(final int c) {
+		return ALL & ~(rows[c / SIZE] | cols[c % SIZE] | boxes[BOX_OF[c]]);
+	}
+
+	/**
+	 * Places a digit, pushing the square on the trail.
+	 * @param c Index of the square.
+	 * @param d Digit to place.
+	 */
+	private void place(final int c, final int d) {
+		int bit = 1 << d - 1;
+		cells[c] = d;
+		rows[c / SIZE] |= bit;
+		cols[c % SIZE] |= bit;
+		boxes[BOX_OF[c]] |= bit;
+		trail[trailTop++] = c;
+		filled++;
+	}
+
+	/**
+	 * Takes back the digits placed since the trail was at a mark.
+	 * @param mark Height of the trail to go back to.
+	 */
+	private void undo(final int mark) {
+		while (trailTop > mark) {
+			int c = trail[--trailTop];
+			int bit = ~(1 << cells[c] - 1);
+			cells[c] = 0;
+			rows[c / SIZE] &= bit;
+			cols[c % SIZE] &= bit;
+			boxes[BOX_OF[c]] &= bit;
+			filled--;
+		}
+	}
+
+	/**
+	 * Places naked and hidden singles until there are none left.
+	 * @return False if a square has no candidate or a digit has no
+	 * place left in a row, column or box.
+	 */
+	private boolean propagate() {
+		boolean progress = true;
+		while (progress && filled < CELLS) {
+			progress = false;
+			for (int c = 0; c < CELLS; c++) {
+				if (cells[c] != 0) {
+					continue;
+				}
+				int m = candidates(c);
+				if (m == 0) {
+					return false;
+				}
+				if ((m & m - 1) == 0) {
+					place(c, Integer.numberOfTrailingZeros(m) + 1);
+					progress = true;
+				}
+			}
+			for (int[] unit : UNITS) {
+				//Digits that fit at least once, and at least twice.
+				int once = 0;
+				int twice = 0;
+				int placed = 0;
+				for (int c : unit) {
+					if (cells[c] != 0) {
+						placed |= 1 << cells[c] - 1;
+					} else {
+						int m = candidates(c);
+						twice |= once & m;
+						once |= m;
+					}
+				}
+				if ((once | placed) != ALL) {
+					return false;
+				}
+				for (int hidden = once & ~twice; hidden != 0;
+						hidden &= hidden - 1) {
+					int bit = hidden & -hidden;
+					int target = -1;
+					for (int c : unit) {
+						if (cells[c] == 0 && (candidates(c) & bit) != 0) {
+							target = c;
+							break;
+						}
+					}
+					if (target < 0) {
+						//Taken by a single placed earlier in this pass.
+						return false;
+					}
+					place(target, Integer.numberOfTrailingZeros(bit) + 1);
+					progress = true;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Places singles, then guesses at the square with the fewest
+	 * candidates and searches on, taking the guess back if it fails.
+	 * @return True if the board was filled.
+	 */
+	private boolean search() {
+		if (!propagate()) {
+			return false;
+		}
+		int best = mostConstrained();
+		if (best < 0) {
+			return true;
+		}
+		int mark = trailTop;
+		for (int m = candidates(best); m != 0; m &= m - 1) {
+			guesses++;
+			place(best, Integer.numberOfTrailingZeros(m) + 1);
+			if (search()) {
+				return true;
+			}
+			undo(mark);
+		}
+		return false;
+	}
+
+	/**
+	 * Places singles, then counts the solutions of each candidate of
+	 * the square with the fewest, until the limit is reached.
+	 */
+	private void count() {
+		if (!propagate()) {
+			return;
+		}
+		int best = mostConstrained();
+		if (best < 0) {
+			solutions++;
+			return;
+		}
+		int mark = trailTop;
+		for (int m = candidates(best); m != 0 && solutions < limit;
+				m &= m - 1) {
+			guesses++;
+			place(best, Integer.numberOfTrailingZeros(m) + 1);
+			count();
+			undo(mark);
+		}
+	}
+
+	/**
+	 * Finds the empty square with the fewest candidates, stopping at
+	 * the first with two since singles have all been placed.
+	 * @return Index of the square, or -1 if the board is full.
+	 */
+	private int mostConstrained() {
+		int best = -1;
+		int bestCount = SIZE + 1;
+		for (int c = 0; c < CELLS && bestCount > 2; c++) {
+			if (cells[c] == 0) {
+				int n = Integer.bitCount(candidates(c));
+				if (n < bestCount) {
+					best = c;
+					bestCount = n;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Builds the squares of each row, column and box.
+	 * @return Squares of the 27 units.
+	 */
+	private static int[][] buildUnits() {
+		int[][] units = new int[3 * SIZE][SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			for (int j = 0; j < SIZE; j++) {
+				units[i][j] = i * SIZE + j;
+				units[SIZE + i][j] = j * SIZE + i;
+				int r = i / BOX * BOX + j / BOX;
+				int c = i % BOX * BOX + j % BOX;
+				units[2 * SIZE + i][j] = r * SIZE + c;
+			}
+		}
+		return units;
+	}
+
+	/**
+	 * Builds the box of each square.
+	 * @return Box index of each square.
+	 */
+	private static int[] buildBoxes() {
+		int[] box = new int[CELLS];
+		for (int c = 0; c < CELLS; c++) {
+			box[c] = c / SIZE / BOX * BOX + c % SIZE / BOX;
+		}
+		return box;
+	}
+}
@@ -0,0 +1,172 @@
+package gamesuite;
+
+//CHECKSTYLE:OFF
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for the bitmask sudoku solver.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public class SudokuSolverTest {
+
+	/** A puzzle singles cannot finish, known as AI Escargot. */
+	static final String HARD =
+			"100007090030020008009600500005300900010080002600004000"
+			+ "300000010040000007007000300";
+
+	/**
+	 * Reads a board written row by row, 0 for an empty square.
+	 * @param text The 81 digits.
+	 * @return The board.
+	 */
+	static int[][] board(final String text) {
+		int[][] board = new int[9][9];
+		for (int i = 0; i < 81; i++) {
+			board[i / 9][i % 9] = text.charAt(i) - '0';
+		}
+		return board;
+	}
+
+	/**
+	 * Checks that a board is a full valid solution agreeing with the
+	 * givens of a puzzle.
+	 * @param puzzle Givens.
+	 * @param board Solution.
+	 */
+	static void assertSolution(final int[][] puzzle, final int[][] board) {
+		for (int i = 0; i < 9; i++) {
+			int row = 0;
+			int col = 0;
+			int box = 0;
+			for (int j = 0; j < 9; j++) {
+				row |= 1 << board[i][j];
+				col |= 1 << board[j][i];
+				box |= 1 << board[i / 3 * 3 + j / 3][i % 3 * 3 + j % 3];
+				if (puzzle[i][j] != 0) {
+					assertEquals(puzzle[i][j], board[i][j]);
+				}
+			}
+			assertEquals(0x3FE, row);
+			assertEquals(0x3FE, col);
+			assertEquals(0x3FE, box);
+		}
+	}
+
+	/**
+	 * Tests that a puzzle singles cannot finish is solved by guessing.
+	 */
+	@Test
+	public void testSolvesHardPuzzle() {
+		int[][] puzzle = board(HARD);
+		int[][] board = board(HARD);
+		SudokuSolver solver = new SudokuSolver();
+		assertFalse(solver.solveLogically(board));
+		assertTrue(solver.solve(board));
+		assertTrue(solver.getGuesses() > 0);
+		assertSolution(puzzle, board);
+	}
+
+	/**
+	 * Tests that generated puzzles are solved by singles alone and
+	 * that the solution is the game's.
+	 */
+	@Test
+	public void testSolvesGeneratedPuzzles() {
+		SudokuSolver solver = new SudokuSolver();
+		for (int seed = 0; seed < 10; seed++) {
+			SudokuLogic logic = new SudokuLogic(50, seed);
+			int[][] puzzle = new int[9][9];
+			for (int r = 0; r < 9; r++) {
+				for (int c = 0; c < 9; c++) {
+					puzzle[r][c] = logic.getNumber(r, c);
+				}
+			}
+			assertTrue(solver.solveLogically(puzzle));
+			int[][] board = board(toText(puzzle));
+			assertTrue(solver.solve(board));
+			assertEquals(0, solver.getGuesses());
+			assertSolution(puzzle, board);
+		}
+	}
+
+	/**
+	 * Tests that clashing givens and puzzles without a solution are
+	 * refused and left unchanged.
+	 */
+	@Test
+	public void testNoSolution() {
+		SudokuSolver solver = new SudokuSolver();
+		int[][] clash = new int[9][9];
+		clash[0][0] = 5;
+		clash[8][0] = 5;
+		assertFalse(solver.solve(clash));
+		assertEquals(0, clash[1][0]);
+
+		//The first row's last square can only be 9, which its column has.
+		int[][] stuck = new int[9][9];
+		for (int i = 0; i < 8; i++) {
+			stuck[0][i] = i + 1;
+		}
+		stuck[1][8] = 9;
+		assertFalse(solver.solve(stuck));
+		assertEquals(0, stuck[0][8]);
+	}
+
+	/**
+	 * Tests that counting stops at the limit and tells a unique puzzle
+	 * from one with several solutions, leaving the board unchanged.
+	 */
+	@Test
+	public void testCountSolutions() {
+		SudokuSolver solver = new SudokuSolver();
+		int[][] hard = board(HARD);
+		assertEquals(1, solver.countSolutions(hard, 2));
+		assertEquals(0, hard[0][1]);
+		assertEquals(2, solver.countSolutions(new int[9][9], 2));
+		assertEquals(5, solver.countSolutions(new int[9][9], 5));
+	}
+
+	/**
+	 * Tests that hard puzzles from the generator have exactly one
+	 * solution and keep the givens within the bounds asked for.
+	 */
+	@Test
+	public void testGeneratedPuzzlesAreUnique() {
+		SudokuSolver solver = new SudokuSolver();
+		for (int seed = 0; seed < 5; seed++) {
+			SudokuLogic logic = new SudokuLogic(64, seed);
+			int[][] puzzle = new int[9][9];
+			int empty = 0;
+			for (int r = 0; r < 9; r++) {
+				for (int c = 0; c < 9; c++) {
+					puzzle[r][c] = logic.getNumber(r, c);
+					if (puzzle[r][c] == 0) {
+						empty++;
+					}
+				}
+			}
+			assertTrue(empty > 50);
+			assertTrue(empty <= 64);
+			assertEquals(1, solver.countSolutions(puzzle, 2));
+		}
+	}
+
+	/**
+	 * Writes a board row by row.
+	 * @param board Board to write.
+	 * @return The 81 digits.
+	 */
+	private static String toText(final int[][] board) {
+		StringBuilder s = new StringBuilder();
+		for (int[] row : board) {
+			for (int d : row) {
+				s.append(d);
+			}
+		}
+		return s.toString();
+	}
+}
+//CHECKSTYLE:ON
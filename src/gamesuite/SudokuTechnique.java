@@ -0,0 +1,32 @@
+package gamesuite;
+
+/**
+ * Solving techniques a player uses on a sudoku, from the easiest to
+ * the hardest. A puzzle is rated by the hardest one it needs.
+ * @author Daniel Cummings
+ * @version 1.0
+ */
+public enum SudokuTechnique {
+	/** A square with one candidate left, the Single Candidate method. */
+	NAKED_SINGLE,
+	/** A digit with one place left in a row, column or box, the Single
+	 * Position method. */
+	HIDDEN_SINGLE,
+	/** Two squares of a unit with the same two candidates, which the
+	 * other squares of the unit cannot have. */
+	NAKED_PAIR,
+	/** A digit whose places in a box are all in one row or column, or
+	 * whose places in a row or column are all in one box. */
+	POINTING,
+	/** Two digits with the same two places in a unit, which cannot
+	 * have any other candidate. */
+	HIDDEN_PAIR,
+	/** Three squares of a unit with three candidates between them. */
+	NAKED_TRIPLE,
+	/** A digit with the same two places in two rows, or two columns,
+	 * which the rest of those columns, or rows, cannot have. */
+	X_WING,
+	/** None of the techniques above finishes the puzzle, so a player
+	 * must guess or use something harder. */
+	GUESSING;
+}